@@ -0,0 +1,103 @@
+package Benchmarks;
+
+import Database.StringPool;
+import Models.Appointment;
+import Models.AppointmentStore;
+import Models.AppointmentType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** This class measures the heap a large list of appointments keeps with and without the StringPool
+ * that the appointment row mapper uses, and in the AppointmentStore the appointment cache uses.
+ * Every row gets freshly allocated strings, the way a JDBC driver returns them, and the list is then built
+ * with those strings as they are (PLAIN), canonicalized (POOLED) or canonicalized into an AppointmentStore (STORE).
+ * The result to read is the bytesPerAppointment counter, the heap still used after a collection with the list built
+ * less the heap used before. The time is mostly those collections. There is a single measured iteration on a fixed heap
+ * so the counter comes from one build. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 1, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class AppointmentHeapBenchmark {
+
+    /** How the appointments are kept. */
+    public enum Layout { PLAIN, POOLED, STORE }
+
+    @Param({"200000"})
+    public int appointments;
+
+    @Param({"PLAIN", "POOLED", "STORE"})
+    public Layout layout;
+
+    /** The retained heap of the last build, reported next to the time. */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+        public long bytesPerAppointment;
+    }
+
+    @Benchmark
+    public List<Appointment> build(Heap heap) {
+        long before = usedHeap();
+        List<Appointment> built = build(appointments, layout != Layout.PLAIN);
+        if (layout == Layout.STORE) {
+            AppointmentStore store = new AppointmentStore(appointments);
+            store.addAll(built);
+            built = store;
+        }
+        heap.bytesPerAppointment = (usedHeap() - before) / appointments;
+        return built;
+    }
+
+    private static List<Appointment> build(int count, boolean pooled) {
+        StringPool strings = new StringPool(4096);
+        AppointmentType[] types = AppointmentType.values();
+
+        List<Appointment> appointments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = new String(SampleData.TITLES[i % SampleData.TITLES.length]);
+            String location = new String(SampleData.LOCATIONS[i % SampleData.LOCATIONS.length]);
+            String type = new String(types[i % types.length].getLabel());
+            String description = "Appointment number " + i;
+            if (pooled) {
+                AppointmentType appointmentType = AppointmentType.fromLabel(type);
+                title = strings.canonical(title);
+                location = strings.canonical(location);
+                type = appointmentType != null ? appointmentType.getLabel() : strings.canonical(type);
+            }
+            LocalDateTime startTime = SampleData.startOf(i);
+            appointments.add(new Appointment(i + 1, title, description, location, type, startTime, startTime.plusMinutes(30),
+                    1 + i % 3, 1 + i % 2, 1 + i % 3, null));
+        }
+        return appointments;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
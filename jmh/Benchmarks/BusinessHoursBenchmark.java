@@ -0,0 +1,70 @@
+package Benchmarks;
+
+import Services.BusinessHours;
+import Services.TimeSlot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** This class measures the time zone conversion behind the business hours check.
+ * zonedConversion is the check as convertToEST used to make it, moving the start and end to New York with ZonedDateTime
+ * and comparing their times to 8:00 and 22:00. withinBusinessHours is BusinessHours.isWithinBusinessHours, which compares
+ * epoch seconds against the cached bounds of the business day, and businessHoursOfDate is the cached hours of a date
+ * the time pickers ask for. Each call checks the next of a fixed set of half hours in the user's time zone. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusinessHoursBenchmark {
+
+    private static final int PROBES = 1024;
+
+    private LocalDateTime[] starts;
+    private int next;
+
+    @Setup
+    public void build() {
+        starts = new LocalDateTime[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            // Quarter hours across the whole day over three months, inside and outside business hours.
+            starts[i] = SampleData.FIRST_START.toLocalDate().atStartOfDay().plusDays(i % 90).plusMinutes(15L * ((i * 37) % 96));
+        }
+    }
+
+    @Benchmark
+    public boolean zonedConversion() {
+        LocalDateTime start = starts[next++ & (PROBES - 1)];
+        ZonedDateTime businessStart = start.atZone(BusinessHours.getUserZone()).withZoneSameInstant(BusinessHours.BUSINESS_ZONE);
+        ZonedDateTime businessEnd = start.plusMinutes(30).atZone(BusinessHours.getUserZone()).withZoneSameInstant(BusinessHours.BUSINESS_ZONE);
+        LocalTime open = BusinessHours.OPEN;
+        LocalTime close = BusinessHours.CLOSE;
+        return businessStart.toLocalDate().equals(businessEnd.toLocalDate())
+                && !businessStart.toLocalTime().isBefore(open) && !businessEnd.toLocalTime().isAfter(close);
+    }
+
+    @Benchmark
+    public boolean withinBusinessHours() {
+        LocalDateTime start = starts[next++ & (PROBES - 1)];
+        return BusinessHours.isWithinBusinessHours(start, start.plusMinutes(30));
+    }
+
+    @Benchmark
+    public List<TimeSlot> businessHoursOfDate() {
+        return BusinessHours.getBusinessHours(starts[next++ & (PROBES - 1)].toLocalDate());
+    }
+}
@@ -0,0 +1,148 @@
+package Benchmarks;
+
+import Models.Appointment;
+import Models.AppointmentStore;
+import Services.DateTimeText;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.util.Callback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/** This class measures what the Appointments table pays per cell while it scrolls, with the columns bound
+ * by PropertyValueFactory as they used to be and by the typed lambdas they are bound with now,
+ * and the cost of the Start and End text formatted every time against the cached text of DateTimeText that the table shows.
+ * Each call refreshes a window of visible rows one row further down the table than the call before,
+ * the way the TableView refreshes its cells, and the scores are per cell.
+ * No TableView is built, since a control needs a running FX toolkit and neither factory looks at the table. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellValueBenchmark {
+
+    private static final String[] PROPERTIES = {"appointmentId", "title", "description", "location", "contactId",
+            "type", "startTime", "endTime", "customerId", "userId"};
+
+    private static final List<Function<Appointment, Object>> GETTERS = List.of(
+            Appointment::getAppointmentId, Appointment::getTitle, Appointment::getDescription, Appointment::getLocation,
+            Appointment::getContactId, Appointment::getType, Appointment::getStartTime, Appointment::getEndTime,
+            Appointment::getCustomerId, Appointment::getUserId);
+
+    /** Rows the table shows at once. */
+    private static final int VISIBLE_ROWS = 30;
+
+    private static final int COLUMNS = 10;
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Param({"10000", "100000"})
+    public int appointments;
+
+    private AppointmentStore store;
+    private List<TableColumn<Appointment, Object>> reflective;
+    private List<TableColumn<Appointment, Object>> typed;
+    private int top;
+
+    @Setup
+    public void build() {
+        store = SampleData.store(appointments, 50);
+        reflective = columns(true);
+        typed = columns(false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VISIBLE_ROWS * COLUMNS)
+    public long propertyValueFactory() {
+        return scroll(reflective);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VISIBLE_ROWS * COLUMNS)
+    public long typedLambdas() {
+        return scroll(typed);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VISIBLE_ROWS * 2)
+    public long startEndFormatted() {
+        return format(false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VISIBLE_ROWS * 2)
+    public long startEndCached() {
+        return format(true);
+    }
+
+    private static List<TableColumn<Appointment, Object>> columns(boolean reflective) {
+        List<TableColumn<Appointment, Object>> columns = new ArrayList<>(COLUMNS);
+        for (int i = 0; i < COLUMNS; i++) {
+            TableColumn<Appointment, Object> column = new TableColumn<>(PROPERTIES[i]);
+            if (reflective) {
+                column.setCellValueFactory(new PropertyValueFactory<>(PROPERTIES[i]));
+            } else {
+                Function<Appointment, Object> getter = GETTERS.get(i);
+                column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(getter.apply(cell.getValue())));
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    /** @return The first visible row, one further down than the call before. */
+    private int nextTop() {
+        top = top + 1 + VISIBLE_ROWS < appointments ? top + 1 : 0;
+        return top;
+    }
+
+    /** Asks each column for the value of each visible row. */
+    private long scroll(List<TableColumn<Appointment, Object>> columns) {
+        long sink = 0;
+        int first = nextTop();
+        for (int row = first; row < first + VISIBLE_ROWS; row++) {
+            Appointment appointment = store.get(row);
+            for (TableColumn<Appointment, Object> column : columns) {
+                Callback<TableColumn.CellDataFeatures<Appointment, Object>, ObservableValue<Object>> factory = column.getCellValueFactory();
+                ObservableValue<Object> value = factory.call(new TableColumn.CellDataFeatures<>(null, column, appointment));
+                sink += value.getValue().hashCode();
+            }
+        }
+        return sink;
+    }
+
+    /** Turns the Start and End of every visible row into text, formatting it every time or through the cache. */
+    private long format(boolean cached) {
+        long sink = 0;
+        int first = nextTop();
+        for (int row = first; row < first + VISIBLE_ROWS; row++) {
+            LocalDateTime startTime = AppointmentStore.toDateTime(store.getStartSeconds(row));
+            LocalDateTime endTime = AppointmentStore.toDateTime(store.getEndSeconds(row));
+            String startText = cached ? DateTimeText.format(startTime) : FORMAT.format(startTime);
+            String endText = cached ? DateTimeText.format(endTime) : FORMAT.format(endTime);
+            sink += startText.length() + endText.length();
+        }
+        return sink;
+    }
+}
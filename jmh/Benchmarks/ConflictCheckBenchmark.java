@@ -0,0 +1,83 @@
+package Benchmarks;
+
+import Models.Appointment;
+import Models.AppointmentStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** This class measures the overlap check the Create and Update Appointment screens make before saving.
+ * storeIndex is AppointmentStore.findConflict, a binary search over the appointments of the customer, contact and user by start.
+ * objectScan is the check as validateAppointment used to make it, comparing the LocalDateTimes of every appointment
+ * of the customer in a list of Appointment objects. Each call checks the next of a fixed set of half hours spread over the schedule. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConflictCheckBenchmark {
+
+    private static final int PROBES = 1024;
+    private static final int CUSTOMERS = 500;
+
+    @Param({"1000", "10000", "100000"})
+    public int appointments;
+
+    private AppointmentStore store;
+    private List<Appointment> list;
+    private LocalDateTime[] probeStarts;
+    private int[] probeCustomers;
+    private int next;
+
+    @Setup
+    public void build() {
+        store = SampleData.store(appointments, CUSTOMERS);
+        list = new ArrayList<>(store);
+        probeStarts = new LocalDateTime[PROBES];
+        probeCustomers = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            // Every other probe is for the customer of the appointment it overlaps and stops there,
+            // the rest are for another customer, which objectScan usually checks against every appointment.
+            int index = (int) ((long) i * appointments / PROBES);
+            probeStarts[i] = SampleData.startOf(index).plusMinutes(5);
+            probeCustomers[i] = i % 2 == 0 ? 1 + index % CUSTOMERS : 1 + (index + CUSTOMERS / 2) % CUSTOMERS;
+        }
+    }
+
+    @Benchmark
+    public int storeIndex() {
+        int probe = next++ & (PROBES - 1);
+        LocalDateTime start = probeStarts[probe];
+        // No appointment has contact 4 or user 3, so only the customer can conflict, as in objectScan.
+        return store.findConflict(probeCustomers[probe], 4, 3, start, start.plusMinutes(30), 0);
+    }
+
+    @Benchmark
+    public Appointment objectScan() {
+        int probe = next++ & (PROBES - 1);
+        LocalDateTime start = probeStarts[probe];
+        LocalDateTime end = start.plusMinutes(30);
+        int customerId = probeCustomers[probe];
+        for (Appointment appointment : list) {
+            if (appointment.getCustomerId() == customerId
+                    && appointment.getStartTime().isBefore(end) && start.isBefore(appointment.getEndTime())) {
+                return appointment;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package Benchmarks;
+
+import Database.DBCustomers;
+import Models.Customer;
+import javafx.collections.ObservableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/** This class measures DBCustomers.getCustomers, the list the Customers screen and the customer pickers load,
+ * against the embedded database filled with customers. The division names are loaded by the first call
+ * and looked up from then on, as they are in the app. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {EmbeddedDatabase.BACKEND, EmbeddedDatabase.NO_INSTRUMENTS})
+public class CustomerListBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int customers;
+
+    @Setup
+    public void fill() throws SQLException {
+        EmbeddedDatabase.fill(0, customers);
+    }
+
+    @Benchmark
+    public ObservableList<Customer> getCustomers() throws SQLException {
+        return DBCustomers.getCustomers();
+    }
+}
@@ -0,0 +1,94 @@
+package Benchmarks;
+
+import Database.DBConnection;
+import Models.Appointment;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/** This class fills the in-memory H2 database with a schedule for the benchmarks that go through the Database classes.
+ * The forked JVM is started with -Dc195.db.backend=MEMORY, so DBConnection connects to H2 and gives it the schema
+ * and seed data, and -Dc195.db.instrument=false, so the QueryStats counting is not part of what is measured. */
+final class EmbeddedDatabase {
+
+    /** JVM options every benchmark that uses the database forks with. */
+    static final String BACKEND = "-Dc195.db.backend=MEMORY";
+    static final String NO_INSTRUMENTS = "-Dc195.db.instrument=false";
+
+    private static final int BATCH = 1000;
+
+    private EmbeddedDatabase() {
+    }
+
+    /** This method connects to the embedded database and replaces its customers and appointments.
+     * @param appointmentCount Appointments to insert.
+     * @param customerCount Customers to insert, the appointments are spread over them.
+     * @throws SQLException Thrown if the database is not embedded or a statement fails. */
+    static void fill(int appointmentCount, int customerCount) throws SQLException {
+        if (!DBConnection.getBackend().isEmbedded()) {
+            throw new SQLException("Benchmarks only run against an embedded database, start them with " + BACKEND);
+        }
+        Connection connection = DBConnection.getConnection();
+        if (connection == null) {
+            connection = DBConnection.startConnection();
+        }
+        if (connection == null) {
+            throw new SQLException("Could not open the embedded database, is the H2 jar on the classpath?");
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM appointments;");
+            statement.execute("DELETE FROM customers;");
+        }
+
+        List<Integer> customerIds = new ArrayList<>(customerCount);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO customers (Customer_Name, Address, Postal_Code, Phone, Create_Date, Last_Update, Division_ID) VALUES (?, ?, ?, ?, NOW(), NOW(), ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < customerCount; i++) {
+                insert.setString(1, "Customer " + i);
+                insert.setString(2, (100 + i) + " Main Street");
+                insert.setString(3, String.format("%05d", i % 100_000));
+                insert.setString(4, "555-" + String.format("%07d", i));
+                // Divisions 1 to 49 are the seeded U.S. states.
+                insert.setInt(5, 1 + i % 49);
+                insert.addBatch();
+                if ((i + 1) % BATCH == 0 || i + 1 == customerCount) {
+                    insert.executeBatch();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            customerIds.add(keys.getInt(1));
+                        }
+                    }
+                }
+            }
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO appointments (Title, Description, Location, Type, Start, End, Create_Date, Last_Update, Customer_ID, User_ID, Contact_ID) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, NOW(), NOW(), ?, ?, ?)")) {
+            for (int i = 0; i < appointmentCount; i++) {
+                Appointment appointment = SampleData.appointment(i, customerCount);
+                insert.setString(1, appointment.getTitle());
+                insert.setString(2, appointment.getDescription());
+                insert.setString(3, appointment.getLocation());
+                insert.setString(4, appointment.getType());
+                insert.setTimestamp(5, Timestamp.valueOf(appointment.getStartTime()));
+                insert.setTimestamp(6, Timestamp.valueOf(appointment.getEndTime()));
+                insert.setInt(7, customerIds.get(appointment.getCustomerId() - 1));
+                insert.setInt(8, appointment.getUserId());
+                insert.setInt(9, appointment.getContactId());
+                insert.addBatch();
+                if ((i + 1) % BATCH == 0 || i + 1 == appointmentCount) {
+                    insert.executeBatch();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package Benchmarks;
+
+import Database.DBAppointments;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/** This class measures the three reports of the Reports screen, from the query to the finished text,
+ * against the embedded database filled with a schedule. The contact report lists every appointment,
+ * the other two are grouped by the database and only build a few lines. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {EmbeddedDatabase.BACKEND, EmbeddedDatabase.NO_INSTRUMENTS})
+public class ReportBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int appointments;
+
+    @Setup
+    public void fill() throws SQLException {
+        EmbeddedDatabase.fill(appointments, 500);
+    }
+
+    @Benchmark
+    public String byContact() {
+        return DBAppointments.reportAppointmentContact();
+    }
+
+    @Benchmark
+    public String byTypeAndMonth() {
+        return DBAppointments.reportAppointmentTypeMonth();
+    }
+
+    @Benchmark
+    public String byCustomer() {
+        return DBAppointments.reportAppointmentCustomerId();
+    }
+}
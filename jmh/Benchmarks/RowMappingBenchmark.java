@@ -0,0 +1,111 @@
+package Benchmarks;
+
+import Database.DBAppointments;
+import Database.DBConnection;
+import Models.Appointment;
+import Models.AppointmentStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/** This class measures reading every appointment from the database into an AppointmentStore.
+ * loadStore is DBAppointments.getAppointmentStore as the Appointments screen calls it. mapByName and mapByIndex
+ * run the same query and build the same appointments, without the StringPool, looking the columns up by name
+ * the way DBAppointments does and by their position in the result set, to show what the name lookups cost. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {EmbeddedDatabase.BACKEND, EmbeddedDatabase.NO_INSTRUMENTS})
+public class RowMappingBenchmark {
+
+    private static final String QUERY = "SELECT * FROM appointments;";
+
+    @Param({"1000", "10000", "100000"})
+    public int appointments;
+
+    @Setup
+    public void fill() throws SQLException {
+        EmbeddedDatabase.fill(appointments, 500);
+    }
+
+    @Benchmark
+    public AppointmentStore loadStore() throws SQLException {
+        return DBAppointments.getAppointmentStore();
+    }
+
+    @Benchmark
+    public AppointmentStore mapByName() throws SQLException {
+        AppointmentStore store = new AppointmentStore(appointments);
+        try (PreparedStatement statement = DBConnection.getConnection().prepareStatement(QUERY);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                Timestamp lastUpdate = resultSet.getTimestamp("Last_Update");
+                store.add(new Appointment(
+                        resultSet.getInt("Appointment_ID"),
+                        resultSet.getString("Title"),
+                        resultSet.getString("Description"),
+                        resultSet.getString("Location"),
+                        resultSet.getString("Type"),
+                        resultSet.getTimestamp("Start").toLocalDateTime(),
+                        resultSet.getTimestamp("End").toLocalDateTime(),
+                        resultSet.getInt("Customer_ID"),
+                        resultSet.getInt("User_ID"),
+                        resultSet.getInt("Contact_ID"),
+                        lastUpdate == null ? null : lastUpdate.toLocalDateTime()));
+            }
+        }
+        return store;
+    }
+
+    @Benchmark
+    public AppointmentStore mapByIndex() throws SQLException {
+        AppointmentStore store = new AppointmentStore(appointments);
+        try (PreparedStatement statement = DBConnection.getConnection().prepareStatement(QUERY);
+             ResultSet resultSet = statement.executeQuery()) {
+            // The positions are looked up once per query instead of once per value.
+            int id = resultSet.findColumn("Appointment_ID");
+            int title = resultSet.findColumn("Title");
+            int description = resultSet.findColumn("Description");
+            int location = resultSet.findColumn("Location");
+            int type = resultSet.findColumn("Type");
+            int start = resultSet.findColumn("Start");
+            int end = resultSet.findColumn("End");
+            int customerId = resultSet.findColumn("Customer_ID");
+            int userId = resultSet.findColumn("User_ID");
+            int contactId = resultSet.findColumn("Contact_ID");
+            int lastUpdateColumn = resultSet.findColumn("Last_Update");
+            while (resultSet.next()) {
+                Timestamp lastUpdate = resultSet.getTimestamp(lastUpdateColumn);
+                store.add(new Appointment(
+                        resultSet.getInt(id),
+                        resultSet.getString(title),
+                        resultSet.getString(description),
+                        resultSet.getString(location),
+                        resultSet.getString(type),
+                        resultSet.getTimestamp(start).toLocalDateTime(),
+                        resultSet.getTimestamp(end).toLocalDateTime(),
+                        resultSet.getInt(customerId),
+                        resultSet.getInt(userId),
+                        resultSet.getInt(contactId),
+                        lastUpdate == null ? null : lastUpdate.toLocalDateTime()));
+            }
+        }
+        return store;
+    }
+}
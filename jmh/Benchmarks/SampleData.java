@@ -0,0 +1,47 @@
+package Benchmarks;
+
+import Models.Appointment;
+import Models.AppointmentStore;
+import Models.AppointmentType;
+
+import java.time.LocalDateTime;
+
+/** This class builds the made-up schedule the benchmarks run against, in memory or in the embedded database.
+ * About forty appointments a day, Monday to Sunday from 8:00, with the customers, contacts and users spread over them,
+ * so the same quarter hours, titles and locations repeat as they do in a real schedule. */
+final class SampleData {
+
+    static final String[] TITLES = {"Weekly sync", "Quarterly review", "Intake", "Status update", "Kickoff", "Retrospective"};
+    static final String[] LOCATIONS = {"Phoenix, Arizona", "White Plains, New York", "Montreal, Canada", "London, England", "Online"};
+
+    /** The first day of the schedule. */
+    static final LocalDateTime FIRST_START = LocalDateTime.of(2026, 1, 5, 8, 0);
+
+    /** Appointments on one day. */
+    static final int PER_DAY = 40;
+
+    private SampleData() {
+    }
+
+    /** @return The start of the appointment at an index of the schedule. */
+    static LocalDateTime startOf(int index) {
+        return FIRST_START.plusDays(index / PER_DAY).plusMinutes(15L * (index % PER_DAY));
+    }
+
+    /** @return The appointment at an index of the schedule, with customers 1 to customerCount. */
+    static Appointment appointment(int index, int customerCount) {
+        AppointmentType[] types = AppointmentType.values();
+        LocalDateTime start = startOf(index);
+        return new Appointment(index + 1, TITLES[index % TITLES.length], "Appointment number " + index, LOCATIONS[index % LOCATIONS.length],
+                types[index % types.length].getLabel(), start, start.plusMinutes(30), 1 + index % customerCount, 1 + index % 2, 1 + index % 3, null);
+    }
+
+    /** @return A schedule of count appointments with customers 1 to customerCount. */
+    static AppointmentStore store(int count, int customerCount) {
+        AppointmentStore appointments = new AppointmentStore(count);
+        for (int i = 0; i < count; i++) {
+            appointments.add(appointment(i, customerCount));
+        }
+        return appointments;
+    }
+}
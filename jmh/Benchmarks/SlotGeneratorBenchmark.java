@@ -0,0 +1,80 @@
+package Benchmarks;
+
+import Models.AppointmentStore;
+import Services.SlotGenerator;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** This class measures filling the Start Time picker of the appointment screens.
+ * fixedTimeList is the list populateTimeComboBoxes builds, every quarter hour from 7:00 to 23:00 as text.
+ * startTimesCached is SlotGenerator.getStartTimes for a date it has already worked out, as when the user picks
+ * the same day again, and startTimesAfterChange is the same call right after the cached appointments changed,
+ * which works out the free time of the contact, customer and user again, and indexes their appointments by start again
+ * since the store drops its index on a change too. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlotGeneratorBenchmark {
+
+    private static final int CUSTOMERS = 500;
+
+    @Param({"1000", "10000", "100000"})
+    public int appointments;
+
+    private AppointmentStore store;
+    private SlotGenerator slots;
+    private LocalDate date;
+
+    @Setup
+    public void build() {
+        store = SampleData.store(appointments, CUSTOMERS);
+        slots = new SlotGenerator(store);
+        // A day in the middle of the schedule.
+        date = SampleData.startOf(appointments / 2).toLocalDate();
+    }
+
+    @Benchmark
+    public ObservableList<String> fixedTimeList() {
+        ObservableList<String> time = FXCollections.observableArrayList();
+        LocalTime startTime = LocalTime.of(7, 0);
+        LocalTime endTime = LocalTime.of(23, 0);
+
+        time.add(startTime.toString());
+        while (startTime.isBefore(endTime)) {
+            startTime = startTime.plusMinutes(15);
+            time.add(startTime.toString());
+        }
+        return time;
+    }
+
+    @Benchmark
+    public List<LocalTime> startTimesCached() {
+        return slots.getStartTimes(date, 1, 1, 1, 0);
+    }
+
+    @Benchmark
+    public List<LocalTime> startTimesAfterChange() {
+        // Setting a row to itself tells the generator the appointments changed, so it forgets what it worked out.
+        store.set(0, store.get(0));
+        return slots.getStartTimes(date, 1, 1, 1, 0);
+    }
+}
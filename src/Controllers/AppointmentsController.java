@@ -1,8 +1,18 @@
 package Controllers;
 
+import Database.DBAppointmentSeries;
 import Database.DBAppointments;
+import Database.DBContacts;
+import Database.DBUsers;
+import Database.UpdateResult;
 import Models.Appointment;
-import javafx.collections.FXCollections;
+import Models.AppointmentSeries;
+import Models.AppointmentStore;
+import Models.AppointmentView;
+import Models.Contact;
+import Models.User;
+import Services.BusinessHours;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -11,25 +21,55 @@ import javafx.fxml.Initializable;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
 import java.sql.SQLException;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 /** This is the controller to display and do the CRUD functions on the appointments. */
 public class AppointmentsController implements Initializable {
 
-    /** This is the observable list that shows the appointments. */
-    static ObservableList<Appointment> appointments;
+    /** This is the observable list that caches all of the appointments between visits to the view. */
+    static AppointmentStore appointments;
+
+    /** The recurring appointments, loaded the first time they are shown or an appointment is checked for conflicts. */
+    private static ObservableList<AppointmentSeries> series;
+
+    /** The Appointment ID to select and scroll to the next time the view is opened, or 0 for none. */
+    private static int focusAppointmentId;
+
+    /** The choice in the reassign dialogs that leaves a field unchanged. */
+    private static final String KEEP_CURRENT = "(Keep current)";
+
+    /** How many months before and after today the All view shows the occurrences of recurring appointments. */
+    private static final int ALL_VIEW_OCCURRENCE_MONTHS = 12;
+
+    /** The appointments the table is filtered from: the cache, or the range query results when the cache could not be loaded. */
+    private AppointmentStore source;
+
+    /** The appointments of the chosen week or month, or all of them, in the order of the table's sort columns. */
+    private AppointmentView shownAppointments;
+
+    /** The column of the store each table column sorts on. */
+    private Map<TableColumn<Appointment, ?>, AppointmentView.Column> sortColumns;
+
     @FXML
     private RadioButton AllTimesDisplay;
     @FXML
@@ -86,6 +126,12 @@ public class AppointmentsController implements Initializable {
     @FXML
     private Button UpdateAppointment;
 
+    @FXML
+    private Button ShiftAppointments;
+
+    @FXML
+    private Button ReassignAppointments;
+
     @FXML
     private RadioButton WeekDisplay;
 
@@ -144,13 +190,51 @@ public class AppointmentsController implements Initializable {
      * @param event ActionEvent that takes the user back to the ap menu.
      */
     public void UpdateAppointmentMenu(ActionEvent event){
-        UpdateAppointmentController.receiveSelectedAppointment(Appointments.getSelectionModel().getSelectedItem());
+        Appointment selected = Appointments.getSelectionModel().getSelectedItem();
+        // An occurrence of a recurring appointment is edited as the whole series, on the screen it was created on.
+        AppointmentSeries selectedSeries = null;
+        if (selected != null && selected.getAppointmentId() == 0) {
+            try {
+                selectedSeries = seriesOf(selected);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            if (selectedSeries == null) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error Dialog");
+                alert.setContentText("The recurring appointment could not be found.");
+                alert.showAndWait();
+                return;
+            }
+            CreateAppointmentsController.receiveSeries(selectedSeries);
+        } else {
+            UpdateAppointmentController.receiveSelectedAppointment(selected);
+        }
+
+        try {
+            Stage stage = (Stage) ((Button) event.getSource()).getScene().getWindow();
+            Parent scene = FXMLLoader.load(getClass().getResource(selectedSeries != null ? "/Views/CreateAppointments.fxml" : "/Views/UpdateAppointment.fxml"));
+            stage.setScene(new Scene(scene));
+            stage.setTitle(selectedSeries != null ? "Recurring Appointment" : "Main Menu!!");
+            stage.show();
+        } catch (Exception e) {
+            e.printStackTrace();
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error Dialog");
+            alert.setContentText("Load Screen Error.");
+            alert.showAndWait();
+        }
+    }
 
+    /** This is the action event handler that takes you to the calendar.
+     * @param event ActionEvent of the Calendar button.
+     */
+    public void CalendarMenu(ActionEvent event){
         try {
             Stage stage = (Stage) ((Button) event.getSource()).getScene().getWindow();
-            Parent scene = FXMLLoader.load(getClass().getResource("/Views/UpdateAppointment.fxml"));
+            Parent scene = FXMLLoader.load(getClass().getResource("/Views/Calendar.fxml"));
             stage.setScene(new Scene(scene));
-            stage.setTitle("Main Menu!!");
+            stage.setTitle("Calendar!!");
             stage.show();
         } catch (Exception e) {
             e.printStackTrace();
@@ -163,35 +247,57 @@ public class AppointmentsController implements Initializable {
 
     /**
      * This handler connects to the delete button and allows for the deletion of
-     * an appointment when it is selected in the display.
+     * every appointment that is selected in the display as one batch.
+     * The deleted rows are removed from the display without reloading the table.
      * Catches Exception, throws alert, and prints stacktrace.
-     * @param event ActionEvent deletes appointment when clicked
+     * @param event ActionEvent deletes appointments when clicked
      */
     @FXML
     void DeleteAppointment(ActionEvent event) {
-        Appointment selectedAppointment = Appointments.getSelectionModel().getSelectedItem();
-        if (selectedAppointment == null) {
+        List<Appointment> selectedAppointments = new ArrayList<>(Appointments.getSelectionModel().getSelectedItems());
+        if (selectedAppointments.isEmpty()) {
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error Dialog");
             alert.setContentText("You must select an appointment to delete.");
             alert.showAndWait();
-        } else if (Appointments.getSelectionModel().getSelectedItem() != null) {
-            Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "This will delete the selected appointment. Do you wish to continue?");
+        } else if (selectedAppointments.stream().anyMatch(appointment -> appointment.getAppointmentId() == 0)) {
+            if (selectedAppointments.size() > 1) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error Dialog");
+                alert.setContentText("Delete a recurring appointment on its own.");
+                alert.showAndWait();
+            } else {
+                deleteOccurrence(selectedAppointments.get(0));
+            }
+        } else {
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "This will delete the " + selectedAppointments.size() + " selected appointment(s). Do you wish to continue?");
             Optional<ButtonType> result = alert.showAndWait();
 
             if (result.isPresent() && (result.get() == ButtonType.OK)) {
                 try {
-                    boolean deleteSuccessful = DBAppointments.deleteAppointment(Appointments.getSelectionModel().getSelectedItem().getAppointmentId());
+                    List<Integer> appointmentIds = new ArrayList<>();
+                    for (Appointment appointment : selectedAppointments) {
+                        appointmentIds.add(appointment.getAppointmentId());
+                    }
+
+                    boolean deleteSuccessful = DBAppointments.deleteAppointments(appointmentIds);
 
                     if (deleteSuccessful) {
                         alert = new Alert(Alert.AlertType.INFORMATION);
                         alert.setTitle("Successful Delete");
-                        alert.setContentText("Successfully deleted Appointment ID: " + selectedAppointment.getAppointmentId() + " Type: " + selectedAppointment.getType());
+                        if (selectedAppointments.size() == 1) {
+                            Appointment selectedAppointment = selectedAppointments.get(0);
+                            alert.setContentText("Successfully deleted Appointment ID: " + selectedAppointment.getAppointmentId() + " Type: " + selectedAppointment.getType());
+                        } else {
+                            alert.setContentText("Successfully deleted " + selectedAppointments.size() + " appointments.");
+                        }
                         alert.showAndWait();
 
-                        appointments = DBAppointments.getAppointments();
-                        Appointments.setItems(appointments);
-                        Appointments.refresh();
+                        Appointments.getSelectionModel().clearSelection();
+                        if (source != null && source != appointments) {
+                            source.removeIf(appointment -> appointmentIds.contains(appointment.getAppointmentId()));
+                        }
+                        appointmentsDeleted(appointmentIds);
                     } else {
                         alert = new Alert(Alert.AlertType.ERROR);
                         alert.setTitle("Error Dialog");
@@ -206,39 +312,667 @@ public class AppointmentsController implements Initializable {
 
     }
 
+    /** Deletes one date of a recurring appointment, or the whole series, as the user chooses.
+     * Skipping a date adds it to the dates the rule skips.
+     * @param occurrence The selected occurrence. */
+    private void deleteOccurrence(Appointment occurrence) {
+        try {
+            AppointmentSeries selectedSeries = seriesOf(occurrence);
+            if (selectedSeries == null) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error Dialog");
+                alert.setContentText("The recurring appointment could not be found.");
+                alert.showAndWait();
+                return;
+            }
+
+            String onlyThisDate = "Only " + occurrence.getStartDate();
+            String everyDate = "Every date of the series";
+            ChoiceDialog<String> dialog = new ChoiceDialog<>(onlyThisDate, onlyThisDate, everyDate);
+            dialog.setTitle("Delete Recurring Appointment");
+            dialog.setHeaderText(occurrence.getTitle() + " repeats " + selectedSeries.getRule().getFrequency().toString().toLowerCase(Locale.ROOT)
+                    + " until " + selectedSeries.getRule().getUntil());
+            dialog.setContentText("Delete:");
+            Optional<String> choice = dialog.showAndWait();
+            if (choice.isEmpty()) {
+                return;
+            }
+
+            boolean deleted;
+            if (choice.get().equals(everyDate)) {
+                deleted = DBAppointmentSeries.deleteSeries(selectedSeries.getSeriesId());
+                if (deleted) {
+                    seriesDeleted(selectedSeries.getSeriesId());
+                }
+            } else {
+                AppointmentSeries skipped = selectedSeries.withRule(selectedSeries.getRule().withException(occurrence.getStartTime().toLocalDate()));
+                deleted = DBAppointmentSeries.updateSeries(skipped);
+                if (deleted) {
+                    seriesUpdated(skipped);
+                }
+            }
+
+            if (deleted) {
+                Appointments.getSelectionModel().clearSelection();
+                filterAppointments();
+            } else {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error Dialog");
+                alert.setContentText("Could not delete the recurring appointment.");
+                alert.showAndWait();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Tells the user that recurring appointments are not shifted or reassigned with the rest.
+     * @param selectedAppointments The selected appointments.
+     * @return True if an occurrence of a recurring appointment is selected. */
+    private static boolean occurrenceSelected(List<Appointment> selectedAppointments) {
+        for (Appointment appointment : selectedAppointments) {
+            if (appointment.getAppointmentId() == 0) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error Dialog");
+                alert.setContentText("Recurring appointments are changed with Update Appointment, which edits the whole series.");
+                alert.showAndWait();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This handler moves every selected appointment earlier or later by the number of minutes the user enters.
+     * The moved appointments must all stay within business hours 8AM - 10PM EST or nothing is changed.
+     * Catches Exception, throws alert, and prints stacktrace.
+     * @param event ActionEvent shifts the selected appointments when clicked
+     */
+    @FXML
+    void ShiftAppointments(ActionEvent event) {
+        List<Appointment> selectedAppointments = new ArrayList<>(Appointments.getSelectionModel().getSelectedItems());
+        if (selectedAppointments.isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error Dialog");
+            alert.setContentText("You must select an appointment to shift.");
+            alert.showAndWait();
+            return;
+        }
+        if (occurrenceSelected(selectedAppointments)) {
+            return;
+        }
+
+        TextInputDialog dialog = new TextInputDialog("15");
+        dialog.setTitle("Shift Appointments");
+        dialog.setHeaderText("Shift " + selectedAppointments.size() + " appointment(s)");
+        dialog.setContentText("Minutes (negative moves earlier):");
+        Optional<String> input = dialog.showAndWait();
+        if (input.isEmpty()) {
+            return;
+        }
+
+        long minutes;
+        try {
+            minutes = Long.parseLong(input.get().trim());
+        } catch (NumberFormatException e) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error Dialog");
+            alert.setContentText("Minutes must be a whole number.");
+            alert.showAndWait();
+            return;
+        }
+
+        for (Appointment appointment : selectedAppointments) {
+            if (!BusinessHours.isWithinBusinessHours(appointment.getStartTime().plusMinutes(minutes), appointment.getEndTime().plusMinutes(minutes))) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error Dialog");
+                alert.setContentText("Appointment ID " + appointment.getAppointmentId() + " would move outside business hours 8AM - 10PM EST.");
+                alert.showAndWait();
+                return;
+            }
+        }
+
+        try {
+            // The selected appointments move together, so they are checked against the rest and not against where they are now.
+            Set<Integer> shiftedIds = new HashSet<>();
+            for (Appointment appointment : selectedAppointments) {
+                shiftedIds.add(appointment.getAppointmentId());
+            }
+            for (Appointment appointment : selectedAppointments) {
+                Appointment conflict = findConflict(appointment.getCustomerId(), appointment.getContactId(), appointment.getUserId(),
+                        appointment.getStartTime().plusMinutes(minutes), appointment.getEndTime().plusMinutes(minutes), shiftedIds);
+                if (conflict != null) {
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Error Dialog");
+                    alert.setContentText("Appointment ID " + appointment.getAppointmentId() + " cannot move. "
+                            + describeConflict(conflict, appointment.getCustomerId(), appointment.getContactId(), appointment.getUserId()));
+                    alert.showAndWait();
+                    return;
+                }
+            }
+
+            UpdateResult<List<Appointment>> shifted = DBAppointments.shiftAppointments(selectedAppointments, minutes);
+            if (shifted.getStatus() == UpdateResult.Status.UPDATED) {
+                replaceAppointments(selectedAppointments, shifted.getEntity());
+            } else if (shifted.getStatus() == UpdateResult.Status.CONFLICT) {
+                showBatchConflict(selectedAppointments, shifted.getEntity(), "shifted");
+            } else {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error Dialog");
+                alert.setContentText("Could not shift appointments.");
+                alert.showAndWait();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * This handler reassigns every selected appointment to a different contact and/or user.
+     * Choosing "(Keep current)" leaves that field unchanged on each appointment.
+     * Catches Exception, throws alert, and prints stacktrace.
+     * @param event ActionEvent reassigns the selected appointments when clicked
+     */
+    @FXML
+    void ReassignAppointments(ActionEvent event) {
+        List<Appointment> selectedAppointments = new ArrayList<>(Appointments.getSelectionModel().getSelectedItems());
+        if (selectedAppointments.isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error Dialog");
+            alert.setContentText("You must select an appointment to reassign.");
+            alert.showAndWait();
+            return;
+        }
+        if (occurrenceSelected(selectedAppointments)) {
+            return;
+        }
+
+        try {
+            List<String> contactChoices = new ArrayList<>();
+            contactChoices.add(KEEP_CURRENT);
+            for (Contact contact : DBContacts.getContacts()) {
+                contactChoices.add(contact.getContactName());
+            }
+            ChoiceDialog<String> contactDialog = new ChoiceDialog<>(KEEP_CURRENT, contactChoices);
+            contactDialog.setTitle("Reassign Appointments");
+            contactDialog.setHeaderText("Reassign " + selectedAppointments.size() + " appointment(s)");
+            contactDialog.setContentText("Contact:");
+            Optional<String> contactName = contactDialog.showAndWait();
+            if (contactName.isEmpty()) {
+                return;
+            }
+
+            List<String> userChoices = new ArrayList<>();
+            userChoices.add(KEEP_CURRENT);
+            for (User user : DBUsers.getUsers()) {
+                userChoices.add(String.valueOf(user.getUserId()));
+            }
+            ChoiceDialog<String> userDialog = new ChoiceDialog<>(KEEP_CURRENT, userChoices);
+            userDialog.setTitle("Reassign Appointments");
+            userDialog.setHeaderText("Reassign " + selectedAppointments.size() + " appointment(s)");
+            userDialog.setContentText("User ID:");
+            Optional<String> userChoice = userDialog.showAndWait();
+            if (userChoice.isEmpty()) {
+                return;
+            }
+
+            Integer contactId = contactName.get().equals(KEEP_CURRENT) ? null : DBContacts.getContactId(contactName.get()).getContactId();
+            Integer userId = userChoice.get().equals(KEEP_CURRENT) ? null : Integer.valueOf(userChoice.get());
+
+            Set<Integer> reassignedIds = new HashSet<>();
+            List<Appointment> reassigned = new ArrayList<>();
+            for (Appointment appointment : selectedAppointments) {
+                reassignedIds.add(appointment.getAppointmentId());
+                reassigned.add(appointment.toBuilder()
+                        .userId(userId == null ? appointment.getUserId() : userId)
+                        .contactId(contactId == null ? appointment.getContactId() : contactId)
+                        .build());
+            }
+
+            // The selected appointments are checked against the rest with their new contact and user, and against each other,
+            // since two of them at the same time can end up with the same contact or user.
+            for (int i = 0; i < reassigned.size(); i++) {
+                Appointment appointment = reassigned.get(i);
+                Appointment conflict = findConflict(appointment.getCustomerId(), appointment.getContactId(), appointment.getUserId(),
+                        appointment.getStartTime(), appointment.getEndTime(), reassignedIds);
+                for (int j = 0; j < i && conflict == null; j++) {
+                    Appointment other = reassigned.get(j);
+                    if (other.getStartTime().isBefore(appointment.getEndTime()) && appointment.getStartTime().isBefore(other.getEndTime())
+                            && (other.getCustomerId() == appointment.getCustomerId() || other.getContactId() == appointment.getContactId() || other.getUserId() == appointment.getUserId())) {
+                        conflict = other;
+                    }
+                }
+                if (conflict != null) {
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Error Dialog");
+                    alert.setContentText("Appointment ID " + appointment.getAppointmentId() + " cannot be reassigned. "
+                            + describeConflict(conflict, appointment.getCustomerId(), appointment.getContactId(), appointment.getUserId()));
+                    alert.showAndWait();
+                    return;
+                }
+            }
+
+            UpdateResult<List<Appointment>> result = DBAppointments.reassignAppointments(selectedAppointments, contactId, userId);
+            if (result.getStatus() == UpdateResult.Status.UPDATED) {
+                replaceAppointments(selectedAppointments, result.getEntity());
+            } else if (result.getStatus() == UpdateResult.Status.CONFLICT) {
+                showBatchConflict(selectedAppointments, result.getEntity(), "reassigned");
+            } else {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error Dialog");
+                alert.setContentText("Could not reassign appointments.");
+                alert.showAndWait();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Swaps the appointments a batch changed for the rows as they are in the database now, with their new Last_Update.
+     * @param oldAppointments The appointments the batch changed.
+     * @param newAppointments The changed rows, in any order. */
+    private void replaceAppointments(List<Appointment> oldAppointments, List<Appointment> newAppointments) {
+        Map<Integer, Appointment> changed = new HashMap<>();
+        for (Appointment appointment : newAppointments) {
+            changed.put(appointment.getAppointmentId(), appointment);
+        }
+        for (Appointment appointment : oldAppointments) {
+            Appointment newAppointment = changed.get(appointment.getAppointmentId());
+            if (newAppointment != null) {
+                replaceAppointment(appointment, newAppointment);
+            }
+        }
+    }
+
+    /** Tells the user that a batch changed nothing because some of its appointments were changed or deleted at another desk,
+     * and shows those appointments as they are now.
+     * @param batch The appointments of the batch, as they were read.
+     * @param current The appointments of the batch as they are in the database now, the deleted ones missing.
+     * @param action What the batch would have done, such as shifted. */
+    private void showBatchConflict(List<Appointment> batch, List<Appointment> current, String action) {
+        Map<Integer, Appointment> currentById = new HashMap<>();
+        for (Appointment appointment : current) {
+            currentById.put(appointment.getAppointmentId(), appointment);
+        }
+        List<Integer> changedIds = new ArrayList<>();
+        List<Integer> deletedIds = new ArrayList<>();
+        for (Appointment appointment : batch) {
+            Appointment now = currentById.get(appointment.getAppointmentId());
+            if (now == null) {
+                deletedIds.add(appointment.getAppointmentId());
+            } else if (!Objects.equals(now.getLastUpdate(), appointment.getLastUpdate())) {
+                changedIds.add(appointment.getAppointmentId());
+                replaceAppointment(appointment, now);
+            }
+        }
+        if (!deletedIds.isEmpty()) {
+            appointmentsDeleted(deletedIds);
+            if (source != null && source != appointments) {
+                source.removeIf(appointment -> deletedIds.contains(appointment.getAppointmentId()));
+            }
+        }
+
+        StringBuilder message = new StringBuilder("No appointments were " + action + ".");
+        if (!changedIds.isEmpty()) {
+            message.append(" Appointment ID(s) ").append(changedIds).append(" were changed at another desk and are now shown as they are.");
+        }
+        if (!deletedIds.isEmpty()) {
+            message.append(" Appointment ID(s) ").append(deletedIds).append(" were deleted at another desk.");
+        }
+        message.append(" Check the selection and try again.");
+
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Error Dialog");
+        alert.setContentText(message.toString());
+        alert.showAndWait();
+    }
+
+    /** Swaps an appointment in the displayed list for its changed copy, keeping its row and selection.
+     * The cached list of all appointments is updated as well when a Week or Month view is displayed.
+     * @param oldAppointment The appointment currently in the list.
+     * @param newAppointment The changed appointment that replaces it. */
+    private void replaceAppointment(Appointment oldAppointment, Appointment newAppointment) {
+        boolean selected = Appointments.getSelectionModel().getSelectedItems().contains(oldAppointment);
+        if (source != null) {
+            replaceById(source, newAppointment);
+        }
+        if (source != appointments && appointments != null) {
+            replaceById(appointments, newAppointment);
+        }
+        if (selected) {
+            int index = indexOfId(Appointments.getItems(), newAppointment.getAppointmentId());
+            if (index >= 0) {
+                Appointments.getSelectionModel().select(index);
+            }
+        }
+    }
+
+    /** Adds a newly created appointment to the cached list so the table does not need to be reloaded.
+     * @param appointment The appointment that was created in the database. */
+    static void appointmentCreated(Appointment appointment) {
+        if (appointments != null) {
+            appointments.add(appointment);
+        }
+        focusAppointmentId = appointment.getAppointmentId();
+    }
+
+    /** Replaces an updated appointment in the cached list so the table does not need to be reloaded.
+     * @param appointment The appointment that was updated in the database. */
+    static void appointmentUpdated(Appointment appointment) {
+        if (appointments != null) {
+            replaceById(appointments, appointment);
+        }
+        focusAppointmentId = appointment.getAppointmentId();
+    }
+
+    /** Removes deleted appointments from the cached list so the table does not need to be reloaded.
+     * @param appointmentIds The IDs of the appointments that were deleted from the database. */
+    static void appointmentsDeleted(Collection<Integer> appointmentIds) {
+        if (appointments != null) {
+            appointments.removeIf(appointment -> appointmentIds.contains(appointment.getAppointmentId()));
+        }
+    }
+
+    /** Removes every appointment and recurring appointment of a deleted customer from the cached lists.
+     * @param customerId The ID of the customer whose appointments were deleted from the database. */
+    static void customerAppointmentsDeleted(int customerId) {
+        if (appointments != null) {
+            appointments.removeIf(appointment -> appointment.getCustomerId() == customerId);
+        }
+        if (series != null) {
+            series.removeIf(recurring -> recurring.getCustomerId() == customerId);
+        }
+    }
+
+    /** Adds a newly created recurring appointment to the cached list of series.
+     * @param created The series that was created in the database. */
+    static void seriesCreated(AppointmentSeries created) {
+        if (series != null) {
+            series.add(created);
+        }
+    }
+
+    /** Replaces an updated recurring appointment in the cached list of series.
+     * @param updated The series that was updated in the database. */
+    static void seriesUpdated(AppointmentSeries updated) {
+        if (series != null) {
+            for (int i = 0; i < series.size(); i++) {
+                if (series.get(i).getSeriesId() == updated.getSeriesId()) {
+                    series.set(i, updated);
+                }
+            }
+        }
+    }
+
+    /** Removes a deleted recurring appointment from the cached list of series.
+     * @param seriesId The ID of the series that was deleted from the database. */
+    static void seriesDeleted(int seriesId) {
+        if (series != null) {
+            series.removeIf(recurring -> recurring.getSeriesId() == seriesId);
+        }
+    }
+
+    /** Finds the recurring appointment an occurrence in the table was built from.
+     * @param occurrence An occurrence, with Appointment ID 0.
+     * @return The series, or null if none of the cached series has the occurrence.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    static AppointmentSeries seriesOf(Appointment occurrence) throws SQLException {
+        List<AppointmentSeries> recurring = currentSeries();
+        if (recurring != null) {
+            for (AppointmentSeries candidate : recurring) {
+                if (candidate.isOccurrence(occurrence)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Builds the occurrences of every recurring appointment that start within a range, to show with the appointments.
+     * Only the dates of the range are visited, so the range must be bounded.
+     * @param from LocalDateTime the range starts at
+     * @param to LocalDateTime the range ends before
+     * @return The occurrences, empty if the series could not be loaded. */
+    static List<Appointment> occurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        List<Appointment> occurrences = new ArrayList<>();
+        try {
+            List<AppointmentSeries> recurring = currentSeries();
+            if (recurring != null) {
+                for (AppointmentSeries candidate : recurring) {
+                    for (Appointment occurrence : candidate.getOccurrences(from.toLocalDate(), to.minusNanos(1).toLocalDate())) {
+                        if (!occurrence.getStartTime().isBefore(from) && occurrence.getStartTime().isBefore(to)) {
+                            occurrences.add(occurrence);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return occurrences;
+    }
+
+    /** Gets the recurring appointments, loading them the first time.
+     * @return The cached recurring appointments, or null if they could not be loaded.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    static ObservableList<AppointmentSeries> currentSeries() throws SQLException {
+        if (series == null) {
+            series = DBAppointmentSeries.getSeries();
+        }
+        return series;
+    }
+
+    /** Replaces the appointment with the same Appointment ID in a list.
+     * @param list The list to search.
+     * @param appointment The appointment to put in place of the old one.
+     * @return Returns the index that was replaced, or -1 if the appointment is not in the list. */
+    private static int replaceById(List<Appointment> list, Appointment appointment) {
+        int index = indexOfId(list, appointment.getAppointmentId());
+        if (index >= 0) {
+            list.set(index, appointment);
+        }
+        return index;
+    }
+
+    /** Finds the row of an appointment by its ID. The AppointmentStore and the AppointmentView are searched without building their rows.
+     * @param list The list to search.
+     * @param appointmentId The ID of the appointment.
+     * @return The row of the appointment, or -1 if it is not in the list. */
+    private static int indexOfId(List<Appointment> list, int appointmentId) {
+        if (list instanceof AppointmentStore) {
+            return ((AppointmentStore) list).indexOfId(appointmentId);
+        }
+        if (list instanceof AppointmentView) {
+            return ((AppointmentView) list).indexOfId(appointmentId);
+        }
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).getAppointmentId() == appointmentId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Gets the cached appointments, loading them if the Appointments view has not been opened yet,
+     * and starts bringing them up to date in the background. The changes are merged in when the poll is done.
+     * @return The cached appointments, or null if they could not be loaded.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    static AppointmentStore currentAppointments() throws SQLException {
+        if (appointments == null) {
+            appointments = ChangeFeed.loadAppointments();
+        }
+        ChangeFeed.requestPoll();
+        return appointments;
+    }
+
+    /** Finds an appointment, or an occurrence of a recurring appointment, that overlaps a time range and has the same customer, contact or user.
+     * The cached appointments answer it when they can be loaded, otherwise it is one query to the database.
+     * Recurring appointments are checked against their rule, without listing their occurrences.
+     * @param customerId Int value of Customer ID
+     * @param contactId Int value of Contact ID
+     * @param userId Int value of User ID
+     * @param start LocalDateTime start of the range
+     * @param end LocalDateTime end of the range
+     * @param ignoredAppointmentId Int value of an Appointment ID to leave out, such as the appointment being edited, or 0
+     * @return The conflicting Appointment, or null if there is none.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    static Appointment findConflict(int customerId, int contactId, int userId, LocalDateTime start, LocalDateTime end, int ignoredAppointmentId) throws SQLException {
+        return findConflict(customerId, contactId, userId, start, end, Set.of(ignoredAppointmentId));
+    }
+
+    /** Finds an appointment, or an occurrence of a recurring appointment, that overlaps a time range and has the same customer, contact or user,
+     * leaving out several appointments, such as the ones being shifted together.
+     * @param customerId Int value of Customer ID
+     * @param contactId Int value of Contact ID
+     * @param userId Int value of User ID
+     * @param start LocalDateTime start of the range
+     * @param end LocalDateTime end of the range
+     * @param ignoredAppointmentIds Appointment IDs to leave out
+     * @return The conflicting Appointment, or null if there is none.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    static Appointment findConflict(int customerId, int contactId, int userId, LocalDateTime start, LocalDateTime end, Set<Integer> ignoredAppointmentIds) throws SQLException {
+        AppointmentStore cached = currentAppointments();
+        if (cached == null) {
+            Appointment conflict = DBAppointments.findConflict(customerId, contactId, userId, start, end, ignoredAppointmentIds);
+            if (conflict != null) {
+                return conflict;
+            }
+        } else {
+            int row = cached.findConflict(customerId, contactId, userId, start, end, ignoredAppointmentIds);
+            if (row >= 0) {
+                return cached.get(row);
+            }
+        }
+
+        List<AppointmentSeries> recurring = currentSeries();
+        if (recurring != null) {
+            for (AppointmentSeries candidate : recurring) {
+                if (candidate.sharesAttendee(customerId, contactId, userId) && candidate.overlaps(start, end)) {
+                    for (Appointment occurrence : candidate.getOccurrences(start.toLocalDate().minusDays(1), end.toLocalDate())) {
+                        if (occurrence.getStartTime().isBefore(end) && start.isBefore(occurrence.getEndTime())) {
+                            return occurrence;
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Explains which of the customer, contact and user an appointment is double-booking.
+     * @param conflict The conflicting Appointment returned by findConflict.
+     * @param customerId Int value of Customer ID
+     * @param contactId Int value of Contact ID
+     * @param userId Int value of User ID
+     * @return Message for the error dialog. */
+    static String describeConflict(Appointment conflict, int customerId, int contactId, int userId) {
+        List<String> shared = new ArrayList<>();
+        if (conflict.getCustomerId() == customerId) {
+            shared.add("customer");
+        }
+        if (conflict.getContactId() == contactId) {
+            shared.add("contact");
+        }
+        if (conflict.getUserId() == userId) {
+            shared.add("user");
+        }
+        String existing = conflict.getAppointmentId() == 0 ? "a recurring " + conflict.getTitle() + " appointment" : "appointment " + conflict.getAppointmentId();
+        return "Appointments must not overlap. The " + String.join(", ", shared) + " already has " + existing
+                + " on " + conflict.getStartDate() + " from " + conflict.getStartTime().toLocalTime() + " to " + conflict.getEndTime().toLocalTime() + ".";
+    }
+
     /** Toggle View - All, Week, or Month.
      * The radio buttons dictate the display type.
-     * Catches SQL exceptions and prints stacktrace for debugging.
+     * Every view filters the cached appointments in memory, so toggling and sorting never query the database.
+     * Only when the cache could not be loaded are the appointments of the week or month queried on their own.
      * @param event ActionEvent updates Appointment Table when Radio Button is selected
      */
     @FXML
     void ViewToggle(ActionEvent event) {
+        try {
+            if (AllTimesDisplay.isSelected()) {
+                // Bring the cache up to date, it only asks for the rows changed since the last poll.
+                if (currentAppointments() != null && source != appointments) {
+                    showAppointments(appointments);
+                }
+            } else if (appointments == null) {
+                LocalDateTime[] window = viewWindow();
+                List<Appointment> range = DBAppointments.getAppointmentsBetween(window[0], window[1]);
+                if (range != null) {
+                    AppointmentStore rangeStore = new AppointmentStore(range.size());
+                    rangeStore.addAll(range);
+                    showAppointments(rangeStore);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        filterAppointments();
+    }
 
+    /** Shows a store of appointments in the table, filtered to the chosen view.
+     * @param store The appointments to show. */
+    private void showAppointments(AppointmentStore store) {
+        source = store;
+        filterAppointments();
+    }
+
+    /** Filters the table to the appointments that start in the chosen week or month, or shows all of them,
+     * with the occurrences of the recurring appointments in the same range, or within a year of today for all of them.
+     * The view filters and sorts the row numbers of the store, so only the rows on screen are built. */
+    private void filterAppointments() {
+        if (source == null) {
+            return;
+        }
+        List<Appointment> occurrences;
+        LocalDateTime[] window;
         if (AllTimesDisplay.isSelected()) {
-            try {
-                appointments = DBAppointments.getAppointments();
-                Appointments.setItems(appointments);
-                Appointments.refresh();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        } else if (ToggleView.getSelectedToggle().equals(MonthDisplay)) {
-            try {
-                appointments = DBAppointments.getAppointmentsByMonth();
-                Appointments.setItems(appointments);
-                Appointments.refresh();
-            } catch (SQLException e) {
-                e.printStackTrace();
+            // Every appointment is shown, but a series can repeat for years, so only its occurrences near today are.
+            LocalDate today = LocalDate.now();
+            occurrences = occurrencesBetween(today.minusMonths(ALL_VIEW_OCCURRENCE_MONTHS).atStartOfDay(), today.plusMonths(ALL_VIEW_OCCURRENCE_MONTHS).atStartOfDay());
+            window = new LocalDateTime[2];
+        } else {
+            window = viewWindow();
+            occurrences = occurrencesBetween(window[0], window[1]);
+        }
+        shownAppointments = new AppointmentView(source, occurrences, window[0], window[1]);
+        shownAppointments.setOrder(rowOrder(shownAppointments));
+        Appointments.setItems(shownAppointments);
+    }
+
+    /** Turns the table's sort columns into an order of the rows of a view.
+     * @param view The view the rows are in.
+     * @return The order, or null to keep the order of the store */
+    private AppointmentView.RowComparator rowOrder(AppointmentView view) {
+        AppointmentView.RowComparator order = null;
+        for (TableColumn<Appointment, ?> column : Appointments.getSortOrder()) {
+            AppointmentView.Column sortColumn = sortColumns.get(column);
+            if (sortColumn == null) {
+                continue;
             }
-        } else if (ToggleView.getSelectedToggle().equals(WeekDisplay)) {
-            try {
-                appointments = DBAppointments.getAppointmentsByWeek();
-                Appointments.setItems(appointments);
-                Appointments.refresh();
-            } catch (SQLException e) {
-                e.printStackTrace();
+            AppointmentView.RowComparator next = view.comparing(sortColumn);
+            if (column.getSortType() == TableColumn.SortType.DESCENDING) {
+                next = next.reversed();
             }
+            order = order == null ? next : order.thenComparing(next);
         }
+        return order;
+    }
+
+    /** Works out the time range of the chosen view: the week from Monday, or the month, that today is in.
+     * @return The start of the range and the end of the range, not included. */
+    private LocalDateTime[] viewWindow() {
+        LocalDate today = LocalDate.now();
+        LocalDate from;
+        LocalDate to;
+        if (MonthDisplay.isSelected()) {
+            from = today.withDayOfMonth(1);
+            to = from.plusMonths(1);
+        } else {
+            from = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            to = from.plusWeeks(1);
+        }
+        return new LocalDateTime[]{from.atStartOfDay(), to.atStartOfDay()};
     }
 
     /**This method is the initializer for the Appointments view.
@@ -251,21 +985,53 @@ public class AppointmentsController implements Initializable {
         AllTimesDisplay.setToggleGroup(ToggleView);
         WeekDisplay.setToggleGroup(ToggleView);
         MonthDisplay.setToggleGroup(ToggleView);
+        Appointments.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        sortColumns = Map.of(
+                ColumnAppointmentID, AppointmentView.Column.APPOINTMENT_ID,
+                ColumnTitle, AppointmentView.Column.TITLE,
+                ColumnDescription, AppointmentView.Column.DESCRIPTION,
+                ColumnLocation, AppointmentView.Column.LOCATION,
+                ColumnContact, AppointmentView.Column.CONTACT,
+                ColumnType, AppointmentView.Column.TYPE,
+                ColumnStart, AppointmentView.Column.START,
+                ColumnEnd, AppointmentView.Column.END,
+                ColumnCustomerID, AppointmentView.Column.CUSTOMER,
+                ColumnUserID, AppointmentView.Column.USER);
+        // The view sorts the row numbers on the store's columns instead of the table sorting the built rows.
+        Appointments.setSortPolicy(table -> {
+            if (shownAppointments != null) {
+                shownAppointments.setOrder(rowOrder(shownAppointments));
+            }
+            return true;
+        });
         try {
-            appointments = DBAppointments.getAppointments();
-
-            Appointments.setItems(appointments);
-            ColumnAppointmentID.setCellValueFactory(new PropertyValueFactory<>("appointmentId"));
-            ColumnTitle.setCellValueFactory(new PropertyValueFactory<>("title"));
-            ColumnDescription.setCellValueFactory(new PropertyValueFactory<>("description"));
-            ColumnLocation.setCellValueFactory(new PropertyValueFactory<>("location"));
-            ColumnContact.setCellValueFactory(new PropertyValueFactory<>("contactId"));
-            ColumnType.setCellValueFactory(new PropertyValueFactory<>("type"));
-            ColumnStart.setCellValueFactory(new PropertyValueFactory<>("startTime"));
-            ColumnEnd.setCellValueFactory(new PropertyValueFactory<>("endTime"));
-            ColumnCustomerID.setCellValueFactory(new PropertyValueFactory<>("customerId"));
-            ColumnUserID.setCellValueFactory(new PropertyValueFactory<>("userId"));
+            if (currentAppointments() != null) {
+                showAppointments(appointments);
+            } else {
+                showAppointments(new AppointmentStore());
+            }
+            // Typed getters instead of PropertyValueFactory, which looks each getter up by reflection on every cell update.
+            ColumnAppointmentID.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getAppointmentId()));
+            ColumnTitle.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getTitle()));
+            ColumnDescription.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getDescription()));
+            ColumnLocation.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getLocation()));
+            ColumnContact.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getContactId()));
+            ColumnType.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getType()));
+            ColumnStart.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getStartTime()));
+            ColumnEnd.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getEndTime()));
+            ColumnCustomerID.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getCustomerId()));
+            ColumnUserID.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getUserId()));
+            ColumnStart.setCellFactory(column -> new DateTimeTableCell<>());
+            ColumnEnd.setCellFactory(column -> new DateTimeTableCell<>());
 
+            if (focusAppointmentId != 0) {
+                int index = indexOfId(Appointments.getItems(), focusAppointmentId);
+                if (index >= 0) {
+                    Appointments.getSelectionModel().select(index);
+                    Appointments.scrollTo(index);
+                }
+                focusAppointmentId = 0;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
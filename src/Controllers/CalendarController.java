@@ -0,0 +1,367 @@
+package Controllers;
+
+import Models.Appointment;
+import Services.AppointmentRangeCache;
+import Services.BusinessHours;
+import Services.TimeSlot;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.fxml.Initializable;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.stage.Stage;
+
+import java.net.URL;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+
+/** This is the controller of the calendar, which shows the appointments of a day, a week or a month as a grid.
+ * Only the range on screen is queried, and the ranges before and after it are loaded in the background
+ * so moving to them is instant. The grid is a TableView, so only the rows that are visible get cells. */
+public class CalendarController implements Initializable {
+
+    /** Length of a row in the day and week views. */
+    private static final int SLOT_MINUTES = 30;
+
+    /** Appointments listed in a day of the month view before the rest are counted. */
+    private static final int MONTH_CELL_LINES = 3;
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    /** The loaded ranges are kept for as long as the calendar is open. */
+    private final AppointmentRangeCache ranges = new AppointmentRangeCache();
+
+    /** Reloads what is shown when the cached appointments change, such as when another desk saves one. */
+    private final InvalidationListener reloadOnChange = observable -> {
+        ranges.clear();
+        show();
+    };
+
+    /** A date within the range on screen. */
+    private LocalDate anchor = LocalDate.now();
+
+    /** Counts the ranges asked for, so a range that finishes loading after the user moved on is not drawn. */
+    private int generation;
+
+    @FXML
+    private TableView<CalendarRow> CalendarGrid;
+
+    @FXML
+    private RadioButton DayDisplay;
+
+    @FXML
+    private RadioButton WeekDisplay;
+
+    @FXML
+    private RadioButton MonthDisplay;
+
+    @FXML
+    private ToggleGroup ToggleView;
+
+    @FXML
+    private Label RangeLabel;
+
+    /** This class is one row of the calendar grid: a time of day or a week, and the text of each day in it. */
+    public static class CalendarRow {
+        private final String label;
+        private final String[] cells;
+
+        /** @param label Text of the first column.
+         * @param days Number of days in the row. */
+        CalendarRow(String label, int days) {
+            this.label = label;
+            this.cells = new String[days];
+            for (int i = 0; i < days; i++) {
+                cells[i] = "";
+            }
+        }
+
+        /** @return Text of the first column. */
+        public String getLabel() {
+            return label;
+        }
+
+        /** @param day Column of the day, from 0.
+         * @return Text of the day. */
+        public String getCell(int day) {
+            return cells[day];
+        }
+
+        private void addLine(int day, String line) {
+            cells[day] = cells[day].isEmpty() ? line : cells[day] + "\n" + line;
+        }
+    }
+
+    /** Moves to the previous day, week or month.
+     * @param event ActionEvent of the previous button */
+    @FXML
+    void Previous(ActionEvent event) {
+        anchor = step(anchor, -1);
+        show();
+    }
+
+    /** Moves to the next day, week or month.
+     * @param event ActionEvent of the next button */
+    @FXML
+    void Next(ActionEvent event) {
+        anchor = step(anchor, 1);
+        show();
+    }
+
+    /** Moves to the day, week or month of today.
+     * @param event ActionEvent of the today button */
+    @FXML
+    void Today(ActionEvent event) {
+        anchor = LocalDate.now();
+        show();
+    }
+
+    /** Switches between the day, week and month views.
+     * @param event ActionEvent updates the calendar when a Radio Button is selected */
+    @FXML
+    void ViewToggle(ActionEvent event) {
+        show();
+    }
+
+    /** This method takes the user back to the Appointments screen.
+     * @param event ActionEvent of the back button. */
+    @FXML
+    void BackToAppointments(ActionEvent event) {
+        try {
+            Stage stage = (Stage) ((Button) event.getSource()).getScene().getWindow();
+            Parent scene = FXMLLoader.load(getClass().getResource("/Views/Appointments.fxml"));
+            stage.setScene(new Scene(scene));
+            stage.setTitle("Appointments!!");
+            stage.show();
+        } catch (Exception e) {
+            e.printStackTrace();
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error Dialog");
+            alert.setContentText("Load Screen Error.");
+            alert.showAndWait();
+        }
+    }
+
+    /** Shows the range around the anchor date, drawing it at once if it is already loaded,
+     * and starts loading the ranges before and after it. */
+    private void show() {
+        LocalDate from = rangeStart(anchor);
+        LocalDate to = rangeEnd(anchor);
+        int shown = ++generation;
+        RangeLabel.setText(rangeTitle(anchor));
+
+        CompletableFuture<List<Appointment>> range = ranges.get(from, to);
+        if (!range.isDone()) {
+            CalendarGrid.setItems(FXCollections.observableArrayList());
+            CalendarGrid.setPlaceholder(new Label("Loading..."));
+        }
+        range.whenComplete((appointments, error) -> {
+            if (Platform.isFxApplicationThread()) {
+                draw(shown, from, to, appointments);
+            } else {
+                Platform.runLater(() -> draw(shown, from, to, appointments));
+            }
+        });
+
+        LocalDate previous = step(anchor, -1);
+        LocalDate next = step(anchor, 1);
+        ranges.prefetch(rangeStart(previous), rangeEnd(previous));
+        ranges.prefetch(rangeStart(next), rangeEnd(next));
+    }
+
+    /** Builds the grid of a range, unless the user has already moved to another one.
+     * @param shown The generation the range was asked for in.
+     * @param from First date of the range.
+     * @param to Last date of the range.
+     * @param appointments The appointments of the range, or null if they could not be loaded. */
+    private void draw(int shown, LocalDate from, LocalDate to, List<Appointment> appointments) {
+        if (shown != generation) {
+            return;
+        }
+        if (appointments == null) {
+            CalendarGrid.getItems().clear();
+            CalendarGrid.setPlaceholder(new Label("Could not load appointments."));
+            return;
+        }
+        if (MonthDisplay.isSelected()) {
+            drawMonth(from, to, appointments);
+        } else {
+            drawDays(from, to, appointments);
+        }
+    }
+
+    /** Fills the grid with a row for every half hour and a column for every day of the range. */
+    private void drawDays(LocalDate from, LocalDate to, List<Appointment> appointments) {
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        int slots = 24 * 60 / SLOT_MINUTES;
+
+        List<CalendarRow> rows = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            rows.add(new CalendarRow(String.format("%02d:%02d", slot * SLOT_MINUTES / 60, slot * SLOT_MINUTES % 60), days));
+        }
+
+        for (Appointment appointment : appointments) {
+            for (int day = 0; day < days; day++) {
+                LocalDateTime dayStart = from.plusDays(day).atStartOfDay();
+                LocalDateTime dayEnd = dayStart.plusDays(1);
+                if (!appointment.getStartTime().isBefore(dayEnd) || !appointment.getEndTime().isAfter(dayStart)) {
+                    continue;
+                }
+                LocalDateTime start = appointment.getStartTime().isBefore(dayStart) ? dayStart : appointment.getStartTime();
+                LocalDateTime end = appointment.getEndTime().isAfter(dayEnd) ? dayEnd : appointment.getEndTime();
+                int first = minuteOfDay(start, dayStart) / SLOT_MINUTES;
+                int last = (minuteOfDay(end, dayStart) - 1) / SLOT_MINUTES;
+                for (int slot = first; slot <= last && slot < slots; slot++) {
+                    rows.get(slot).addLine(day, slot == first
+                            ? appointment.getStartTime().format(TIME) + " " + appointment.getTitle()
+                            : "| " + appointment.getTitle());
+                }
+            }
+        }
+
+        List<TableColumn<CalendarRow, String>> columns = new ArrayList<>();
+        columns.add(labelColumn("Time", 60));
+        for (int day = 0; day < days; day++) {
+            LocalDate date = from.plusDays(day);
+            columns.add(dayColumn(date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.getDefault()) + " " + date.getMonthValue() + "/" + date.getDayOfMonth(), day));
+        }
+        setGrid(columns, rows);
+
+        // Open the day at the start of business hours rather than at midnight.
+        List<TimeSlot> hours = BusinessHours.getBusinessHours(from);
+        if (!hours.isEmpty()) {
+            CalendarGrid.scrollTo(minuteOfDay(hours.get(0).getStart(), from.atStartOfDay()) / SLOT_MINUTES);
+        }
+    }
+
+    /** Fills the grid with a row for every week and a column for every day of the week. */
+    private void drawMonth(LocalDate from, LocalDate to, List<Appointment> appointments) {
+        int weeks = (int) ((to.toEpochDay() - from.toEpochDay()) / 7) + 1;
+        List<CalendarRow> rows = new ArrayList<>(weeks);
+        int[] counts = new int[weeks * 7];
+        for (int week = 0; week < weeks; week++) {
+            CalendarRow row = new CalendarRow("", 7);
+            for (int day = 0; day < 7; day++) {
+                row.addLine(day, String.valueOf(from.plusDays(week * 7L + day).getDayOfMonth()));
+            }
+            rows.add(row);
+        }
+
+        for (Appointment appointment : appointments) {
+            long index = appointment.getStartDate().toEpochDay() - from.toEpochDay();
+            if (index < 0 || index >= counts.length) {
+                continue;
+            }
+            int count = ++counts[(int) index];
+            if (count <= MONTH_CELL_LINES) {
+                rows.get((int) index / 7).addLine((int) index % 7, appointment.getStartTime().format(TIME) + " " + appointment.getTitle());
+            }
+        }
+        for (int index = 0; index < counts.length; index++) {
+            if (counts[index] > MONTH_CELL_LINES) {
+                rows.get(index / 7).addLine(index % 7, "+" + (counts[index] - MONTH_CELL_LINES) + " more");
+            }
+        }
+
+        List<TableColumn<CalendarRow, String>> columns = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            columns.add(dayColumn(from.plusDays(day).getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.getDefault()), day));
+        }
+        setGrid(columns, rows);
+    }
+
+    private void setGrid(List<TableColumn<CalendarRow, String>> columns, List<CalendarRow> rows) {
+        ObservableList<CalendarRow> items = FXCollections.observableArrayList(rows);
+        CalendarGrid.getColumns().setAll(columns);
+        CalendarGrid.setItems(items);
+    }
+
+    private static TableColumn<CalendarRow, String> labelColumn(String title, double width) {
+        TableColumn<CalendarRow, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().getLabel()));
+        column.setPrefWidth(width);
+        column.setSortable(false);
+        return column;
+    }
+
+    private static TableColumn<CalendarRow, String> dayColumn(String title, int day) {
+        TableColumn<CalendarRow, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().getCell(day)));
+        column.setPrefWidth(125);
+        column.setSortable(false);
+        return column;
+    }
+
+    private static int minuteOfDay(LocalDateTime time, LocalDateTime dayStart) {
+        return (int) Duration.between(dayStart, time).toMinutes();
+    }
+
+    private LocalDate step(LocalDate date, int direction) {
+        if (DayDisplay.isSelected()) {
+            return date.plusDays(direction);
+        } else if (MonthDisplay.isSelected()) {
+            return date.plusMonths(direction);
+        }
+        return date.plusWeeks(direction);
+    }
+
+    /** First date of the range on screen: the day, the Monday of the week, or the Monday of the first week of the month. */
+    private LocalDate rangeStart(LocalDate date) {
+        if (DayDisplay.isSelected()) {
+            return date;
+        } else if (MonthDisplay.isSelected()) {
+            return date.withDayOfMonth(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /** Last date of the range on screen: the day, the Sunday of the week, or the Sunday of the last week of the month. */
+    private LocalDate rangeEnd(LocalDate date) {
+        if (DayDisplay.isSelected()) {
+            return date;
+        } else if (MonthDisplay.isSelected()) {
+            return date.with(TemporalAdjusters.lastDayOfMonth()).with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+        }
+        return date.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+    }
+
+    private String rangeTitle(LocalDate date) {
+        if (DayDisplay.isSelected()) {
+            return date.format(DateTimeFormatter.ofPattern("EEEE, MMMM d, yyyy"));
+        } else if (MonthDisplay.isSelected()) {
+            return date.format(DateTimeFormatter.ofPattern("MMMM yyyy"));
+        }
+        return rangeStart(date).format(DateTimeFormatter.ofPattern("MMM d")) + " - " + rangeEnd(date).format(DateTimeFormatter.ofPattern("MMM d, yyyy"));
+    }
+
+    /**This method initializes the calendar on the week of today.
+     * @param location The location to resolve the relative paths.
+     * @param resources The resources that will localize the initialization. */
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        CalendarGrid.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        // The grid never loads the full table itself, it only follows the cache when the Appointments view has loaded it.
+        if (AppointmentsController.appointments != null) {
+            AppointmentsController.appointments.addListener(new WeakInvalidationListener(reloadOnChange));
+        }
+        show();
+    }
+}
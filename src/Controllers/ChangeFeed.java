@@ -0,0 +1,363 @@
+package Controllers;
+
+import Database.DBAppointments;
+import Database.DBConnection;
+import Database.DBCustomers;
+import Database.LocalCache;
+import Models.Appointment;
+import Models.AppointmentStore;
+import Models.Customer;
+import Models.DivisionLookup;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.util.Duration;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** This class keeps the cached appointment and customer lists fresh with changes made at other desks.
+ * Every poll asks only for rows whose Last_Update is at or after the watermark of the previous poll, kept a margin
+ * behind the server time so rows committed late by a long transaction are not missed,
+ * plus a row count to notice deletions, instead of reloading the whole table.
+ * The queries run on a background thread with their own statements on the background connection, and what they found is merged into the
+ * cached lists on the JavaFX Application Thread, so a slow database never holds up the screens.
+ * What each poll merges is also added to the LocalCache on disk, so the next start shows the cached rows
+ * right away and only asks the database for what changed since. */
+public class ChangeFeed {
+
+    /** How often the database is polled for changes. */
+    private static final Duration POLL_INTERVAL = Duration.seconds(15);
+
+    /** One poller thread, so polls run one at a time and the watermarks are only moved by it. */
+    private static final ExecutorService poller = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "change-feed-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** How far the watermark is kept behind the server time. A row stamped with Last_Update=NOW() only shows once its
+     * transaction commits, which can be after a poll that started later, so each poll asks again for this many seconds
+     * before it started. This is longer than any transaction of the app takes. Rows that come back twice are merged
+     * over themselves. */
+    private static final long WATERMARK_MARGIN_SECONDS = 60;
+
+    private static Timeline timeline;
+
+    /** Set while a poll is queued or running, so asking again does not queue another behind it. Only used on the JavaFX Application Thread. */
+    private static boolean polling;
+
+    /** Set when the cached rows came from disk, so the next poll compares the IDs even if the count has not changed.
+     * Deletions made while this desk was closed can leave the count unchanged. Only used on the JavaFX Application Thread. */
+    private static boolean compareAppointmentIds;
+    private static boolean compareCustomerIds;
+
+    /** Server time taken just before the cached appointments were last brought up to date. */
+    private static volatile LocalDateTime appointmentWatermark;
+
+    /** Server time taken just before the cached customers were last brought up to date. */
+    private static volatile LocalDateTime customerWatermark;
+
+    /** What one poll found for a cached list, to be merged into it on the JavaFX Application Thread. */
+    private static final class Changes<T> {
+        /** Server time taken before the queries, null if the database could not be reached. */
+        LocalDateTime watermark;
+        /** Rows created or changed since the last poll, null if they could not be queried. */
+        List<T> changed;
+        /** Every ID in the database, or null if the IDs were not compared. */
+        Set<Integer> ids;
+        /** The IDs the cached list had when the poll was asked for, sorted. */
+        int[] knownIds;
+    }
+
+    /** This method starts polling. The timer runs on the JavaFX Application Thread and only starts each poll.
+     * Calling it more than once has no effect. */
+    public static void start() {
+        if (timeline != null) {
+            return;
+        }
+        timeline = new Timeline(new KeyFrame(POLL_INTERVAL, event -> requestPoll()));
+        timeline.setCycleCount(Animation.INDEFINITE);
+        timeline.play();
+    }
+
+    /** This method stops polling. */
+    public static void stop() {
+        if (timeline != null) {
+            timeline.stop();
+            timeline = null;
+        }
+    }
+
+    /** This method loads every appointment and records the watermark that later polls continue from.
+     * The appointments cached on disk are used when there are any, and the next poll queries only the changes since they were cached,
+     * so they are still returned if the database cannot be reached.
+     * @return Returns an AppointmentStore of appointments, or null if the load failed.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    static AppointmentStore loadAppointments() throws SQLException {
+        LocalCache.Snapshot<Appointment> cached = LocalCache.readAppointments();
+        if (cached != null) {
+            AppointmentStore appointments = new AppointmentStore(cached.getRows().size());
+            appointments.addAll(cached.getRows());
+            appointmentWatermark = cached.getWatermark();
+            compareAppointmentIds = true;
+            return appointments;
+        }
+
+        LocalDateTime watermark = watermarkNow();
+        AppointmentStore appointments = DBAppointments.getAppointmentStore();
+        if (appointments != null) {
+            appointmentWatermark = watermark;
+            if (watermark != null) {
+                LocalCache.writeAppointments(appointments, watermark);
+            }
+        }
+        return appointments;
+    }
+
+    /** This method loads every customer and records the watermark that later polls continue from.
+     * The customers cached on disk are used when there are any, and the next poll queries only the changes since they were cached,
+     * so they are still returned if the database cannot be reached.
+     * @return Returns an ObservableList list of customers, or null if the load failed.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    static ObservableList<Customer> loadCustomers() throws SQLException {
+        LocalCache.Snapshot<Customer> cached = LocalCache.readCustomers();
+        if (cached != null && (DivisionLookup.isLoaded() || LocalCache.readDivisions())) {
+            ObservableList<Customer> customers = FXCollections.observableArrayList(cached.getRows());
+            customerWatermark = cached.getWatermark();
+            compareCustomerIds = true;
+            return customers;
+        }
+
+        LocalDateTime watermark = watermarkNow();
+        ObservableList<Customer> customers = DBCustomers.getCustomers();
+        if (customers != null) {
+            customerWatermark = watermark;
+            if (watermark != null) {
+                LocalCache.writeCustomers(customers, watermark);
+            }
+        }
+        return customers;
+    }
+
+    /** Takes the watermark the next poll continues from, a margin behind the server time.
+     * @return LocalDateTime of the watermark, or null if the database cannot be reached. */
+    private static LocalDateTime watermarkNow() {
+        LocalDateTime serverTime = DBConnection.getServerTime();
+        return serverTime == null ? null : serverTime.minusSeconds(WATERMARK_MARGIN_SECONDS);
+    }
+
+    /** This method starts merging any changes since the last poll into the cached lists, without waiting for it.
+     * The queries run on the poller thread, and the merge on the JavaFX Application Thread once they are done.
+     * Nothing is queued if a poll is already on its way. Must be called on the JavaFX Application Thread. */
+    public static void requestPoll() {
+        AppointmentStore appointments = AppointmentsController.appointments;
+        ObservableList<Customer> customers = CustomersController.customers;
+        if (polling || (appointments == null && customers == null)) {
+            return;
+        }
+        polling = true;
+
+        int[] knownAppointmentIds = null;
+        if (appointments != null) {
+            knownAppointmentIds = new int[appointments.size()];
+            for (int i = 0; i < knownAppointmentIds.length; i++) {
+                knownAppointmentIds[i] = appointments.getAppointmentId(i);
+            }
+        }
+        int[] knownCustomerIds = null;
+        if (customers != null) {
+            knownCustomerIds = new int[customers.size()];
+            for (int i = 0; i < knownCustomerIds.length; i++) {
+                knownCustomerIds[i] = customers.get(i).getCustomerId();
+            }
+        }
+        boolean compareAppointments = compareAppointmentIds;
+        boolean compareCustomers = compareCustomerIds;
+        int[] appointmentIds = knownAppointmentIds;
+        int[] customerIds = knownCustomerIds;
+
+        CompletableFuture.runAsync(() -> {
+            Changes<Appointment> appointmentChanges = appointmentIds == null ? null : pollAppointments(appointmentIds, compareAppointments);
+            Changes<Customer> customerChanges = customerIds == null ? null : pollCustomers(customerIds, compareCustomers);
+            Platform.runLater(() -> {
+                polling = false;
+                if (appointmentChanges != null && appointmentChanges.watermark != null && appointmentChanges.changed != null) {
+                    compareAppointmentIds = compareAppointmentIds && appointmentChanges.ids == null;
+                    mergeAppointments(AppointmentsController.appointments, appointmentChanges);
+                }
+                if (customerChanges != null && customerChanges.watermark != null && customerChanges.changed != null) {
+                    compareCustomerIds = compareCustomerIds && customerChanges.ids == null;
+                    mergeCustomers(CustomersController.customers, customerChanges);
+                }
+            });
+        }, poller).exceptionally(error -> {
+            error.printStackTrace();
+            Platform.runLater(() -> polling = false);
+            return null;
+        });
+    }
+
+    /** Queries the appointments changed since the watermark, and every Appointment ID when some may have been deleted.
+     * Runs on the poller thread, which moves the watermark on once the changes are queried.
+     * @param knownIds The IDs of the cached appointments.
+     * @param compareIds Boolean true to look for deleted appointments even if the count has not changed.
+     * @return What the poll found. */
+    private static Changes<Appointment> pollAppointments(int[] knownIds, boolean compareIds) {
+        Changes<Appointment> changes = new Changes<>();
+        if (appointmentWatermark == null) {
+            return changes;
+        }
+
+        changes.watermark = watermarkNow();
+        if (changes.watermark == null) {
+            // The database cannot be reached, the cached rows are shown until it can.
+            return changes;
+        }
+        changes.changed = DBAppointments.getAppointmentsUpdatedSince(appointmentWatermark);
+        if (changes.changed == null) {
+            return changes;
+        }
+        if (compareIds || DBAppointments.getAppointmentCount() != knownIds.length) {
+            changes.ids = DBAppointments.getAppointmentIds();
+        }
+        Arrays.sort(knownIds);
+        changes.knownIds = knownIds;
+        appointmentWatermark = changes.watermark;
+        return changes;
+    }
+
+    /** Queries the customers changed since the watermark, and every Customer ID when some may have been deleted.
+     * Runs on the poller thread, which moves the watermark on once the changes are queried.
+     * @param knownIds The IDs of the cached customers.
+     * @param compareIds Boolean true to look for deleted customers even if the count has not changed.
+     * @return What the poll found. */
+    private static Changes<Customer> pollCustomers(int[] knownIds, boolean compareIds) {
+        Changes<Customer> changes = new Changes<>();
+        if (customerWatermark == null) {
+            return changes;
+        }
+
+        changes.watermark = watermarkNow();
+        if (changes.watermark == null) {
+            // The database cannot be reached, the cached rows are shown until it can.
+            return changes;
+        }
+        try {
+            changes.changed = DBCustomers.getCustomersUpdatedSince(customerWatermark);
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+        if (changes.changed == null) {
+            return changes;
+        }
+        if (compareIds || DBCustomers.getCustomerCount() != knownIds.length) {
+            changes.ids = DBCustomers.getCustomerIds();
+        }
+        Arrays.sort(knownIds);
+        changes.knownIds = knownIds;
+        customerWatermark = changes.watermark;
+        return changes;
+    }
+
+    /** Merges changed appointments into the cache and drops appointments deleted at other desks.
+     * Only rows the cache had when the poll was asked for can be dropped, and a changed row is not added back
+     * if it was deleted at this desk while the poll ran.
+     * @param appointments The cached appointments.
+     * @param changes What the poll found. */
+    private static void mergeAppointments(AppointmentStore appointments, Changes<Appointment> changes) {
+        if (appointments == null) {
+            return;
+        }
+
+        if (!changes.changed.isEmpty()) {
+            for (Appointment appointment : changes.changed) {
+                int index = appointments.indexOfId(appointment.getAppointmentId());
+                if (index < 0) {
+                    if (Arrays.binarySearch(changes.knownIds, appointment.getAppointmentId()) < 0) {
+                        appointments.add(appointment);
+                    }
+                } else if (!appointments.get(index).equals(appointment)) {
+                    // Rows saved at this desk come back from the poll unchanged and are left alone.
+                    appointments.set(index, appointment);
+                }
+            }
+        }
+
+        List<Integer> deletedIds = new ArrayList<>();
+        if (changes.ids != null) {
+            for (int i = 0; i < appointments.size(); i++) {
+                int appointmentId = appointments.getAppointmentId(i);
+                if (!changes.ids.contains(appointmentId) && Arrays.binarySearch(changes.knownIds, appointmentId) >= 0) {
+                    deletedIds.add(appointmentId);
+                }
+            }
+            if (!deletedIds.isEmpty()) {
+                Set<Integer> deleted = new HashSet<>(deletedIds);
+                appointments.removeIf(appointment -> deleted.contains(appointment.getAppointmentId()));
+            }
+        }
+
+        // The file is written on the poller thread, after the queries of this poll and before those of the next.
+        poller.execute(() -> LocalCache.appendAppointments(changes.changed, deletedIds, changes.watermark));
+    }
+
+    /** Merges changed customers into the cache and drops customers deleted at other desks.
+     * Only rows the cache had when the poll was asked for can be dropped, and a changed row is not added back
+     * if it was deleted at this desk while the poll ran.
+     * @param customers The cached customers.
+     * @param changes What the poll found. */
+    private static void mergeCustomers(ObservableList<Customer> customers, Changes<Customer> changes) {
+        if (customers == null) {
+            return;
+        }
+
+        if (!changes.changed.isEmpty()) {
+            Map<Integer, Integer> indexById = new HashMap<>();
+            for (int i = 0; i < customers.size(); i++) {
+                indexById.put(customers.get(i).getCustomerId(), i);
+            }
+            for (Customer customer : changes.changed) {
+                Integer index = indexById.get(customer.getCustomerId());
+                if (index == null) {
+                    if (Arrays.binarySearch(changes.knownIds, customer.getCustomerId()) < 0) {
+                        indexById.put(customer.getCustomerId(), customers.size());
+                        customers.add(customer);
+                    }
+                } else if (customer.getLastUpdate() == null || !customer.getLastUpdate().equals(customers.get(index).getLastUpdate())) {
+                    // Rows that come back unchanged within the watermark margin are left alone.
+                    customers.set(index, customer);
+                }
+            }
+        }
+
+        List<Integer> deletedIds = new ArrayList<>();
+        if (changes.ids != null) {
+            for (Customer customer : customers) {
+                if (!changes.ids.contains(customer.getCustomerId()) && Arrays.binarySearch(changes.knownIds, customer.getCustomerId()) >= 0) {
+                    deletedIds.add(customer.getCustomerId());
+                }
+            }
+            if (!deletedIds.isEmpty()) {
+                Set<Integer> deleted = new HashSet<>(deletedIds);
+                customers.removeIf(customer -> deleted.contains(customer.getCustomerId()));
+            }
+        }
+
+        // The file is written on the poller thread, after the queries of this poll and before those of the next.
+        poller.execute(() -> LocalCache.appendCustomers(changes.changed, deletedIds, changes.watermark));
+    }
+}
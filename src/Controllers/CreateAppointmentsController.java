@@ -1,12 +1,21 @@
 package Controllers;
+import Database.DBAppointmentSeries;
 import Database.DBAppointments;
 import Database.DBContacts;
 import Database.DBCustomers;
 import Database.DBUsers;
 import Models.Appointment;
+import Models.AppointmentSeries;
+import Models.AppointmentStore;
+import Models.AppointmentType;
 import Models.Contact;
 import Models.Customer;
+import Models.RecurrenceRule;
 import Models.User;
+import Services.BusinessHours;
+import Services.SchedulingEngine;
+import Services.SlotGenerator;
+import Services.TimeSlot;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -21,14 +30,50 @@ import javafx.stage.Stage;
 import java.net.URL;
 import java.sql.SQLException;
 import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
 /** Create Appointment Controller */
 public class CreateAppointmentsController implements Initializable {
 
-    private ZonedDateTime StartDateTimeConversion;
-    private ZonedDateTime EndDateTimeConversion;
+    /** Works out the free start and end times from the cached appointments. */
+    private SlotGenerator slotGenerator;
+
+    /** Finds the next times the contact and the customer are both free. */
+    private SchedulingEngine schedulingEngine;
+
+    /** Length of a suggested appointment when no start and end time have been chosen yet. */
+    private static final Duration DEFAULT_LENGTH = Duration.ofMinutes(30);
+
+    /** Number of days ahead to look for free times. */
+    private static final int SEARCH_DAYS = 30;
+
+    /** Number of free times to suggest. */
+    private static final int SUGGESTIONS = 10;
+
+    /** The Repeat choice that saves a single appointment. */
+    private static final String NO_REPEAT = "Does not repeat";
+
+    /** Contact IDs by contact name, filled in with the Contact combo box. */
+    private final Map<String, Integer> contactIds = new HashMap<>();
+
+    /** The recurring appointment the Appointments screen passed on to be edited, taken by the next screen opened. */
+    private static AppointmentSeries receivedSeries;
+
+    /** The recurring appointment being edited, or null when a new appointment is being created. */
+    private AppointmentSeries editedSeries;
+
+    /** Passes a recurring appointment from the Appointments screen to be edited on this screen.
+     * @param series The AppointmentSeries to edit. */
+    public static void receiveSeries(AppointmentSeries series) {
+        receivedSeries = series;
+    }
+
     @FXML
     private Button ButtonApptCancel;
 
@@ -38,6 +83,9 @@ public class CreateAppointmentsController implements Initializable {
     @FXML
     private Button ButtonApptSave;
 
+    @FXML
+    private Button ButtonFindSlot;
+
     @FXML
     private ComboBox<String > ComboContact;
 
@@ -50,6 +98,9 @@ public class CreateAppointmentsController implements Initializable {
     @FXML
     private ComboBox<String> ComboStartTime;
 
+    @FXML
+    private ComboBox<String> ComboRepeat;
+
     @FXML
     private ComboBox<String > ComboType;
 
@@ -104,9 +155,15 @@ public class CreateAppointmentsController implements Initializable {
     @FXML
     private TextField TextLocation;
 
+    @FXML
+    private TextField TextSkipDates;
+
     @FXML
     private TextField TextTitle;
 
+    @FXML
+    private DatePicker UntilDatePicker;
+
     @FXML
     private Label TitleLabel;
 
@@ -114,13 +171,6 @@ public class CreateAppointmentsController implements Initializable {
     private Label TitleLocation;
 
 
-    /** This method converts the time to EST.
-     * @param time The input time that is to be converted to EST.
-     * @return Returns ZonedDateTime to the EST. */
-    private ZonedDateTime convertToEST(LocalDateTime time) {
-        return ZonedDateTime.of(time, ZoneId.of("America/New_York"));
-    }
-
     /** This method takes the user back the main menu to choose a different path to choose.
      * @param event This ActionEvent takes the user back to the main menu. */
     public void BackToMain(ActionEvent event){
@@ -191,6 +241,7 @@ public class CreateAppointmentsController implements Initializable {
                     if (!contactComboList.contains(contact.getContactName())) {
                         contactComboList.add(contact.getContactName());
                     }
+                    contactIds.put(contact.getContactName(), contact.getContactId());
                 }
             }
         } catch (SQLException e) {
@@ -240,11 +291,63 @@ public class CreateAppointmentsController implements Initializable {
     private void populateTypeComboBox() {
         ObservableList<String> typeList = FXCollections.observableArrayList();
 
-        typeList.addAll("Planning Session", "De-Briefing", "Follow-up", "Pre-Briefing", "Open Session");
+        for (AppointmentType type : AppointmentType.values()) {
+            typeList.add(type.getLabel());
+        }
 
         ComboType.setItems(typeList);
     }
 
+    /** Populates Repeat defined Combo Box with how often an appointment can repeat.
+     * A recurring appointment being edited stays recurring, so it is not offered Does not repeat. */
+    private void populateRepeatComboBox() {
+        ComboRepeat.setItems(FXCollections.observableArrayList(NO_REPEAT, "Daily", "Weekly", "Every 2 weeks", "Monthly"));
+        if (editedSeries != null) {
+            ComboRepeat.getItems().remove(NO_REPEAT);
+        }
+        ComboRepeat.getSelectionModel().select(NO_REPEAT);
+    }
+
+    /** Fills the form with the recurring appointment being edited. */
+    private void showSeries() {
+        TextTitle.setText(editedSeries.getTitle());
+        TextDescription.setText(editedSeries.getDescription());
+        TextLocation.setText(editedSeries.getLocation());
+        ComboType.getSelectionModel().select(editedSeries.getType());
+        for (Map.Entry<String, Integer> contact : contactIds.entrySet()) {
+            if (contact.getValue() == editedSeries.getContactId()) {
+                ComboContact.getSelectionModel().select(contact.getKey());
+            }
+        }
+        ComboCustomerId.getSelectionModel().select(Integer.valueOf(editedSeries.getCustomerId()));
+        ComboUserId.getSelectionModel().select(Integer.valueOf(editedSeries.getUserId()));
+        StartDatePicker.setValue(editedSeries.getStartTime().toLocalDate());
+        EndDatePicker.setValue(editedSeries.getEndTime().toLocalDate());
+        refreshStartTimes();
+        ComboStartTime.getSelectionModel().select(editedSeries.getStartTime().toLocalTime().toString());
+        refreshEndTimes();
+        ComboEndTime.getSelectionModel().select(editedSeries.getEndTime().toLocalTime().toString());
+
+        RecurrenceRule rule = editedSeries.getRule();
+        switch (rule.getFrequency()) {
+            case DAILY:
+                ComboRepeat.getSelectionModel().select("Daily");
+                break;
+            case MONTHLY:
+                ComboRepeat.getSelectionModel().select("Monthly");
+                break;
+            default:
+                ComboRepeat.getSelectionModel().select(rule.getInterval() == 2 ? "Every 2 weeks" : "Weekly");
+                break;
+        }
+        UntilDatePicker.setValue(rule.getUntil());
+        List<String> skipped = new ArrayList<>();
+        for (LocalDate date : rule.getExceptions()) {
+            skipped.add(date.toString());
+        }
+        TextSkipDates.setText(String.join(", ", skipped));
+    }
+
     /** This method saves the appointment the database.
      * It calls a function that validates that all the fields are filled in.
      * @param event This ActionEvent saves the appointment parameters that were selected to the database. */
@@ -258,9 +361,11 @@ public class CreateAppointmentsController implements Initializable {
                 TextAppointmentId.getText()
         );
 
-        if (valid) {
+        if (valid && !NO_REPEAT.equals(ComboRepeat.getValue())) {
+            saveSeries(event);
+        } else if (valid) {
             try {
-                boolean success = DBAppointments.createAppointment(
+                Appointment created = DBAppointments.createAppointment(
                         ComboContact.getSelectionModel().getSelectedItem(),
                         TextTitle.getText(),
                         TextDescription.getText(),
@@ -271,24 +376,14 @@ public class CreateAppointmentsController implements Initializable {
                         ComboCustomerId.getSelectionModel().getSelectedItem(),
                         ComboUserId.getSelectionModel().getSelectedItem());
 
-                if (success) {
+                if (created != null) {
+                    AppointmentsController.appointmentCreated(created);
+
                     Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Successfully created new appointment");
                     Optional<ButtonType> result = alert.showAndWait();
 
                     if (result.isPresent() && (result.get() ==  ButtonType.OK)) {
-                        try {
-                            Stage stage = (Stage) ((Button) event.getSource()).getScene().getWindow();
-                            Parent scene = FXMLLoader.load(getClass().getResource("/Views/Appointments.fxml"));
-                            stage.setTitle("Appointments!!");
-                            stage.setScene(new Scene(scene));
-                            stage.show();
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                            alert = new Alert(Alert.AlertType.ERROR);
-                            alert.setTitle("Error Dialog");
-                            alert.setContentText("Load Screen Error.");
-                            alert.showAndWait();
-                        }
+                        showAppointments(event);
                     }
                 } else {
                     Alert alert = new Alert(Alert.AlertType.ERROR, "Failed to save new appointment");
@@ -302,6 +397,169 @@ public class CreateAppointmentsController implements Initializable {
         }
     }
 
+    /** This method saves a recurring appointment as one series, after checking that every one of its occurrences falls
+     * within business hours and none double-books the customer, the contact or the user of an existing appointment
+     * or of another recurring appointment.
+     * A recurring appointment being edited is saved over, and is not checked against itself.
+     * @param event This ActionEvent of the Save button. */
+    private void saveSeries(ActionEvent event) {
+        RecurrenceRule rule = repeatRule();
+        if (rule == null) {
+            return;
+        }
+
+        int customerId = ComboCustomerId.getSelectionModel().getSelectedItem();
+        int contactId = contactIds.get(ComboContact.getValue());
+        int userId = ComboUserId.getSelectionModel().getSelectedItem();
+        AppointmentSeries series = new AppointmentSeries(editedSeries == null ? 0 : editedSeries.getSeriesId(),
+                TextTitle.getText(),
+                TextDescription.getText(),
+                TextLocation.getText(),
+                ComboType.getSelectionModel().getSelectedItem(),
+                LocalDateTime.of(StartDatePicker.getValue(), LocalTime.parse(ComboStartTime.getSelectionModel().getSelectedItem())),
+                LocalDateTime.of(EndDatePicker.getValue(), LocalTime.parse(ComboEndTime.getSelectionModel().getSelectedItem())),
+                customerId,
+                userId,
+                contactId,
+                rule);
+
+        try {
+            AppointmentStore appointments = AppointmentsController.currentAppointments();
+            int row = appointments == null ? -1 : series.findConflict(appointments);
+            if (row >= 0) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error Dialog");
+                alert.setContentText(AppointmentsController.describeConflict(appointments.get(row), customerId, contactId, userId));
+                alert.showAndWait();
+                return;
+            }
+
+            // The other recurring appointments this one could double-book, those with an attendee in common and a date in common.
+            List<AppointmentSeries> others = new ArrayList<>();
+            List<AppointmentSeries> recurring = AppointmentsController.currentSeries();
+            if (recurring != null) {
+                for (AppointmentSeries other : recurring) {
+                    if (other.getSeriesId() != series.getSeriesId() && other.sharesAttendee(customerId, contactId, userId)
+                            && other.getStartTime().isBefore(series.getLastEndTime()) && series.getStartTime().isBefore(other.getLastEndTime())) {
+                        others.add(other);
+                    }
+                }
+            }
+
+            // Every occurrence must fall within business hours, which move against the user's time zone when only one of them
+            // changes for daylight saving time, and must not overlap an occurrence of another recurring appointment.
+            for (Appointment occurrence : series.getOccurrences(series.getStartTime().toLocalDate(), rule.getUntil())) {
+                if (!BusinessHours.isWithinBusinessHours(occurrence.getStartTime(), occurrence.getEndTime())) {
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Error Dialog");
+                    alert.setContentText("Appointments must be within business hours 8AM - 10PM EST. The occurrence on " + occurrence.getStartDate() + " is not.");
+                    alert.showAndWait();
+                    return;
+                }
+                for (AppointmentSeries other : others) {
+                    Appointment conflict = other.findOverlapping(occurrence.getStartTime(), occurrence.getEndTime());
+                    if (conflict != null) {
+                        Alert alert = new Alert(Alert.AlertType.ERROR);
+                        alert.setTitle("Error Dialog");
+                        alert.setContentText(AppointmentsController.describeConflict(conflict, customerId, contactId, userId));
+                        alert.showAndWait();
+                        return;
+                    }
+                }
+            }
+
+            if (editedSeries != null) {
+                if (DBAppointmentSeries.updateSeries(series)) {
+                    AppointmentsController.seriesUpdated(series);
+
+                    Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Successfully updated recurring appointment");
+                    Optional<ButtonType> result = alert.showAndWait();
+                    if (result.isPresent() && (result.get() ==  ButtonType.OK)) {
+                        showAppointments(event);
+                    }
+                } else {
+                    Alert alert = new Alert(Alert.AlertType.ERROR, "Failed to update recurring appointment");
+                    alert.showAndWait();
+                }
+                return;
+            }
+
+            AppointmentSeries created = DBAppointmentSeries.createSeries(series);
+            if (created != null) {
+                AppointmentsController.seriesCreated(created);
+
+                Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Successfully created new recurring appointment");
+                Optional<ButtonType> result = alert.showAndWait();
+                if (result.isPresent() && (result.get() ==  ButtonType.OK)) {
+                    showAppointments(event);
+                }
+            } else {
+                Alert alert = new Alert(Alert.AlertType.ERROR, "Failed to save new recurring appointment");
+                alert.showAndWait();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Builds the recurrence rule from the Repeat, Repeat Until and Skip Dates fields.
+     * It will throw an alert up to the user if Repeat Until or Skip Dates are not valid.
+     * @return The RecurrenceRule, or null if a field is not valid. */
+    private RecurrenceRule repeatRule() {
+        LocalDate until = UntilDatePicker.getValue();
+        if (until == null || until.isBefore(StartDatePicker.getValue())) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error Dialog");
+            alert.setContentText("Repeat Until must be on or after the Start Date.");
+            alert.showAndWait();
+            return null;
+        }
+
+        List<LocalDate> skipped = new ArrayList<>();
+        for (String date : TextSkipDates.getText().split(",")) {
+            if (!date.isBlank()) {
+                try {
+                    skipped.add(LocalDate.parse(date.trim()));
+                } catch (DateTimeParseException e) {
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Error Dialog");
+                    alert.setContentText("Skip Dates must be dates such as 2026-12-24, separated by commas.");
+                    alert.showAndWait();
+                    return null;
+                }
+            }
+        }
+
+        switch (ComboRepeat.getValue()) {
+            case "Daily":
+                return new RecurrenceRule(RecurrenceRule.Frequency.DAILY, 1, until, skipped);
+            case "Every 2 weeks":
+                return new RecurrenceRule(RecurrenceRule.Frequency.WEEKLY, 2, until, skipped);
+            case "Monthly":
+                return new RecurrenceRule(RecurrenceRule.Frequency.MONTHLY, 1, until, skipped);
+            default:
+                return new RecurrenceRule(RecurrenceRule.Frequency.WEEKLY, 1, until, skipped);
+        }
+    }
+
+    /** This method takes the user to the Appointments screen.
+     * @param event ActionEvent of the button that was clicked. */
+    private void showAppointments(ActionEvent event) {
+        try {
+            Stage stage = (Stage) ((Button) event.getSource()).getScene().getWindow();
+            Parent scene = FXMLLoader.load(getClass().getResource("/Views/Appointments.fxml"));
+            stage.setTitle("Appointments!!");
+            stage.setScene(new Scene(scene));
+            stage.show();
+        } catch (Exception e) {
+            e.printStackTrace();
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error Dialog");
+            alert.setContentText("Load Screen Error.");
+            alert.showAndWait();
+        }
+    }
+
     /** This function is used to validate that all the parameters are in place to save the appointment.
      *  It will throw an alert up to the user if something is a miss in their selections with specifics.
      * @param title The String value of the title of the appointment as specified by the user.
@@ -431,43 +689,31 @@ public class CreateAppointmentsController implements Initializable {
         };
 
         // This is to check to make sure that appointments do not overlap.
+        // A recurring appointment has every occurrence checked for overlaps and business hours when it is saved, the first one included.
 
         LocalDateTime selectedStart = startDate.atTime(startTime);
         LocalDateTime selectedEnd = endDate.atTime(endTime);
 
-        LocalDateTime possibleAppointmentStart;
-        LocalDateTime possibleAppointmentEnd;
-
-
-        try {
-            ObservableList<Appointment> appointments = DBAppointments.getAppointmentsByCustomerID(ComboCustomerId.getSelectionModel().getSelectedItem());
-            for (Appointment appointment: appointments) {
-                possibleAppointmentStart = appointment.getStartDate().atTime(appointment.getStartTime().toLocalTime());
-                possibleAppointmentEnd = appointment.getEndDate().atTime(appointment.getEndTime().toLocalTime());
-
-                if (possibleAppointmentStart.isAfter(selectedStart) && possibleAppointmentStart.isBefore(selectedEnd)) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error Dialog");
-                    alert.setContentText("Appointments must not overlap with existing customer appointments.");
-                    alert.showAndWait();
-                    return false;
-                } else if (possibleAppointmentEnd.isAfter(selectedStart) && possibleAppointmentEnd.isBefore(selectedEnd)) {
+        if (NO_REPEAT.equals(ComboRepeat.getValue())) {
+            try {
+                int customerId = ComboCustomerId.getSelectionModel().getSelectedItem();
+                int contactId = contactIds.get(ComboContact.getValue());
+                int userId = ComboUserId.getSelectionModel().getSelectedItem();
+                Appointment conflict = AppointmentsController.findConflict(customerId, contactId, userId, selectedStart, selectedEnd, 0);
+                if (conflict != null) {
                     Alert alert = new Alert(Alert.AlertType.ERROR);
                     alert.setTitle("Error Dialog");
-                    alert.setContentText("Appointments must not overlap with existing customer appointments.");
+                    alert.setContentText(AppointmentsController.describeConflict(conflict, customerId, contactId, userId));
                     alert.showAndWait();
                     return false;
                 }
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
 
         // This checks to make sure that the appointment is between business hours.
-        StartDateTimeConversion = convertToEST(LocalDateTime.of(StartDatePicker.getValue(), LocalTime.parse(ComboStartTime.getSelectionModel().getSelectedItem())));
-        EndDateTimeConversion = convertToEST(LocalDateTime.of(EndDatePicker.getValue(), LocalTime.parse(ComboEndTime.getSelectionModel().getSelectedItem())));
-
-        if (StartDateTimeConversion.toLocalTime().isAfter(LocalTime.of(22, 0))) {
+        if (!BusinessHours.isWithinBusinessHours(selectedStart, selectedEnd)) {
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error Dialog");
             alert.setContentText("Appointments must be within business hours 8AM - 10PM EST.");
@@ -475,53 +721,179 @@ public class CreateAppointmentsController implements Initializable {
             return false;
         }
 
-        if (EndDateTimeConversion.toLocalTime().isAfter(LocalTime.of(22, 0))) {
+        return true;
+    }
+
+    /** Moves the end date to the start date, since an appointment starts and ends on the same date, and offers the free times on it.
+     * @param event ActionEvent of the Start Date picker */
+    @FXML
+    void PickStartDate(ActionEvent event) {
+        EndDatePicker.setValue(StartDatePicker.getValue());
+        refreshStartTimes();
+    }
+    @FXML
+    void PickEndDate(ActionEvent event) {}
+    /** Offers the end times that fit after the chosen start time.
+     * @param event ActionEvent of the Start Time combo box */
+    @FXML
+    void SelectStartTime(ActionEvent event) {
+        refreshEndTimes();
+    }
+    @FXML
+    void SelectEndTime(ActionEvent event) {}
+    @FXML
+    void SelectType(ActionEvent event) {}
+    /** Offers the free times of the chosen contact.
+     * @param event ActionEvent of the Contact combo box */
+    @FXML
+    void SelectContact(ActionEvent event) {
+        refreshStartTimes();
+    }
+    /** Offers the free times of the chosen customer.
+     * @param event ActionEvent of the Customer ID combo box */
+    @FXML
+    void SelectCustomer(ActionEvent event) {
+        refreshStartTimes();
+    }
+    /** Offers the free times of the chosen user.
+     * @param event ActionEvent of the User ID combo box */
+    @FXML
+    void SelectUser(ActionEvent event) {
+        refreshStartTimes();
+    }
+
+    /** Suggests the next times the contact, the customer and the user are all free and fills in the date and times of the one picked.
+     * The suggestions are as long as the chosen start and end time, or thirty minutes, and start from the chosen date or now.
+     * @param event ActionEvent of the Find Next Slot button */
+    @FXML
+    void FindSlot(ActionEvent event) {
+        Integer contactId = contactIds.get(ComboContact.getValue());
+        Integer customerId = ComboCustomerId.getValue();
+        Integer userId = ComboUserId.getValue();
+        if (contactId == null || customerId == null || userId == null) {
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error Dialog");
-            alert.setContentText("Appointments must be within business hours 8AM - 10PM EST.");
+            alert.setContentText("Choose a Contact, a Customer ID and a User ID to find a free time.");
             alert.showAndWait();
-            return false;
+            return;
+        }
+        if (schedulingEngine == null) {
+            return;
         }
 
-        if (StartDateTimeConversion.toLocalTime().isBefore(LocalTime.of(8, 0))) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error Dialog");
-            alert.setContentText("Appointments must be within business hours 8AM - 10PM EST.");
-            alert.showAndWait();
-            return false;
+        Duration length = DEFAULT_LENGTH;
+        if (ComboStartTime.getValue() != null && ComboEndTime.getValue() != null) {
+            Duration chosen = Duration.between(LocalTime.parse(ComboStartTime.getValue()), LocalTime.parse(ComboEndTime.getValue()));
+            if (!chosen.isNegative() && !chosen.isZero()) {
+                length = chosen;
+            }
+        }
+        LocalDateTime from = LocalDateTime.now();
+        if (StartDatePicker.getValue() != null && StartDatePicker.getValue().atStartOfDay().isAfter(from)) {
+            from = StartDatePicker.getValue().atStartOfDay();
         }
 
-        if (EndDateTimeConversion.toLocalTime().isBefore(LocalTime.of(8, 0))) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error Dialog");
-            alert.setContentText("Appointments must be within business hours 8AM - 10PM EST.");
+        List<TimeSlot> slots = schedulingEngine.findFreeSlots(contactId, customerId, userId, length, from, SEARCH_DAYS, SUGGESTIONS);
+        if (slots.isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Find Next Slot");
+            alert.setContentText("No free time in the next " + SEARCH_DAYS + " days.");
             alert.showAndWait();
-            return false;
+            return;
         }
 
-        return true;
+        ChoiceDialog<TimeSlot> dialog = new ChoiceDialog<>(slots.get(0), slots);
+        dialog.setTitle("Find Next Slot");
+        dialog.setHeaderText("Next free times of " + ComboContact.getValue() + ", customer " + customerId + " and user " + userId);
+        dialog.setContentText("Time:");
+        Optional<TimeSlot> picked = dialog.showAndWait();
+        if (picked.isPresent()) {
+            TimeSlot slot = picked.get();
+            StartDatePicker.setValue(slot.getStart().toLocalDate());
+            EndDatePicker.setValue(slot.getEnd().toLocalDate());
+            refreshStartTimes();
+            ComboStartTime.getSelectionModel().select(slot.getStart().toLocalTime().toString());
+            refreshEndTimes();
+            ComboEndTime.getSelectionModel().select(slot.getEnd().toLocalTime().toString());
+        }
     }
 
-    @FXML
-    void PickStartDate(ActionEvent event) {}
-    @FXML
-    void PickEndDate(ActionEvent event) {}
-    @FXML
-    void SelectStartTime(ActionEvent event) {}
-    @FXML
-    void SelectEndTime(ActionEvent event) {}
-    @FXML
-    void SelectType(ActionEvent event) {}
+    /** Offers only the start times when the contact, the customer and the user are all free within business hours on the start date.
+     * The full list of times stays until a date, a contact, a customer and a user have been chosen. */
+    private void refreshStartTimes() {
+        LocalDate date = StartDatePicker.getValue();
+        Integer contactId = contactIds.get(ComboContact.getValue());
+        Integer customerId = ComboCustomerId.getValue();
+        Integer userId = ComboUserId.getValue();
+        if (slotGenerator == null || date == null || contactId == null || customerId == null || userId == null) {
+            return;
+        }
+        setTimes(ComboStartTime, slotGenerator.getStartTimes(date, contactId, customerId, userId, 0));
+        refreshEndTimes();
+    }
+
+    /** Offers only the end times from the chosen start time up to the next appointment of the contact, the customer or the user, or closing. */
+    private void refreshEndTimes() {
+        LocalDate date = StartDatePicker.getValue();
+        Integer contactId = contactIds.get(ComboContact.getValue());
+        Integer customerId = ComboCustomerId.getValue();
+        Integer userId = ComboUserId.getValue();
+        String start = ComboStartTime.getValue();
+        if (slotGenerator == null || date == null || contactId == null || customerId == null || userId == null || start == null) {
+            return;
+        }
+        setTimes(ComboEndTime, slotGenerator.getEndTimes(date, LocalTime.parse(start), contactId, customerId, userId, 0));
+    }
+
+    /** Replaces the times in a combo box, keeping the chosen time if it is still offered.
+     * @param comboBox The Start Time or End Time combo box.
+     * @param times The times to offer. */
+    private static void setTimes(ComboBox<String> comboBox, List<LocalTime> times) {
+        String selected = comboBox.getValue();
+        ObservableList<String> items = FXCollections.observableArrayList();
+        for (LocalTime time : times) {
+            items.add(time.toString());
+        }
+        comboBox.setItems(items);
+        if (selected != null && items.contains(selected)) {
+            comboBox.getSelectionModel().select(selected);
+        } else {
+            comboBox.getSelectionModel().clearSelection();
+        }
+    }
 
     /**This method initializes the combo boxes in the window and allows them to be populated.
      * @param location This is the locator for relative paths for navigation.
      * @param resources This is the resource bundle that localizes the root objects. */
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        editedSeries = receivedSeries;
+        receivedSeries = null;
+
         populateTimeComboBoxes();
         populateContactComboBox();
         populateCustomerIDComboBox();
         populateUserIDComboBox();
         populateTypeComboBox();
+        populateRepeatComboBox();
+
+        try {
+            AppointmentStore appointments = AppointmentsController.currentAppointments();
+            if (appointments != null) {
+                ObservableList<AppointmentSeries> recurring = AppointmentsController.currentSeries();
+                slotGenerator = new SlotGenerator(appointments, recurring);
+                schedulingEngine = new SchedulingEngine(appointments, recurring);
+                if (editedSeries != null) {
+                    // The series being edited does not keep its own times busy.
+                    slotGenerator.ignoreSeries(editedSeries.getSeriesId());
+                    schedulingEngine.ignoreSeries(editedSeries.getSeriesId());
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        if (editedSeries != null) {
+            showSeries();
+        }
     }
 }
@@ -4,6 +4,7 @@ import Database.DBCountry;
 import Database.DBCustomers;
 import Database.DBDivision;
 import Models.Country;
+import Models.Customer;
 import Models.Division;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -134,7 +135,7 @@ public class CreateCustomersController implements Initializable {
 
         if (valid) {
             try {
-                boolean success = DBCustomers.createCustomer(
+                Customer created = DBCustomers.createCustomer(
                         CustomerName.getText(),
                         CustomerAddress.getText(),
                         CustomerPostalCode.getText(),
@@ -142,7 +143,9 @@ public class CreateCustomersController implements Initializable {
                         DivisionBox.getValue());
 
 
-                if (success) {
+                if (created != null) {
+                    CustomersController.customerCreated(created);
+
                     Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Successfully created new customer");
                     Optional<ButtonType> result = alert.showAndWait();
 
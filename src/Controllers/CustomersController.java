@@ -1,7 +1,11 @@
 package Controllers;
 
+import Database.CustomerPage;
 import Database.DBCustomers;
 import Models.Customer;
+import Services.CustomerSearchIndex;
+import javafx.animation.PauseTransition;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -11,8 +15,8 @@ import javafx.fxml.Initializable;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.IOException;
 import java.net.URL;
@@ -23,8 +27,34 @@ import java.util.ResourceBundle;
 /** Customers Controller for Viewing and Manipulating Customers in the database. */
 public class CustomersController implements Initializable {
 
+    /** This is the observable list that caches all of the customers between visits to the view. */
     static ObservableList<Customer> customers;
 
+    /** The search index over the cached customers, kept current as the list changes. */
+    private static CustomerSearchIndex searchIndex;
+
+    /** The most customers a search displays. */
+    private static final int SEARCH_LIMIT = 500;
+
+    /** Above this many customers the view searches on the database server instead of caching and indexing every customer. */
+    private static final int CLIENT_SEARCH_LIMIT = 50000;
+
+    /** The number of customers fetched per page when searching on the database server. */
+    private static final int PAGE_SIZE = 100;
+
+    /** True if customers are searched on the database server, null until the customer count has been checked. */
+    private static Boolean serverSearch;
+
+    /** The last page fetched from the database server, and the search text it was fetched for. */
+    private CustomerPage lastPage;
+    private String lastPageText;
+
+    /** Waits for the user to stop typing before searching. */
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(200));
+
+    /** The Customer ID to select and scroll to the next time the view is opened, or 0 for none. */
+    private static int focusCustomerId;
+
     @FXML
     private Button CreateCustomer;
 
@@ -149,9 +179,9 @@ public class CustomersController implements Initializable {
 
     }
 
-    /** This method deletes the selected customer when clicked .
+    /** This method deletes the selected customer and all of their appointments when clicked.
      * If no customer is clicked, an error will pop up asking the user a question.
-     * Calls a validation function to verify Customer is allowed to be deleted by checking for current appointments.
+     * The customer and their appointments are deleted in one transaction so neither is left half deleted.
      * Catches Exception, throws alert, and prints stacktrace.
      * @param event ActionEvent deletes customer when clicked if all is correct and no appointments are present.
      */
@@ -163,20 +193,22 @@ public class CustomersController implements Initializable {
             alert.setContentText("Whom did you want to delete?");
             alert.showAndWait();
         } else if (Customers.getSelectionModel().getSelectedItem() != null) {
-            Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "This will delete the selected customer. Are you sure you want to do this?");
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "This will delete the selected customer and all of their appointments. Are you sure you want to do this?");
             Optional<ButtonType> result = alert.showAndWait();
             if (result.isPresent() && (result.get() == ButtonType.OK)) {
                 try {
-                    boolean deleteSuccessful = DBCustomers.deleteCustomer(Customers.getSelectionModel().getSelectedItem().getCustomerId());
+                    boolean deleteSuccessful = DBCustomers.deleteCustomerWithAppointments(selectedCustomer.getCustomerId());
 
                     if (deleteSuccessful) {
-                        customers = DBCustomers.getCustomers();
-                        Customers.setItems(customers);
-                        Customers.refresh();
+                        customerDeleted(selectedCustomer.getCustomerId());
+                        if (Customers.getItems() != customers) {
+                            Customers.getItems().remove(selectedCustomer);
+                        }
+                        AppointmentsController.customerAppointmentsDeleted(selectedCustomer.getCustomerId());
                     } else {
                         alert = new Alert(Alert.AlertType.ERROR);
                         alert.setTitle("Error Dialog");
-                        alert.setContentText("Could not delete customer because they have an appointment.");
+                        alert.setContentText("Could not delete customer.");
                         alert.showAndWait();
                     }
                 } catch (SQLException e) {
@@ -186,6 +218,88 @@ public class CustomersController implements Initializable {
         }
     }
 
+    /** Adds a newly created customer to the cached list so the table does not need to be reloaded.
+     * @param customer The customer that was created in the database. */
+    static void customerCreated(Customer customer) {
+        if (customers != null) {
+            customers.add(customer);
+        }
+        focusCustomerId = customer.getCustomerId();
+    }
+
+    /** Replaces an updated customer in the cached list so the table does not need to be reloaded.
+     * @param customer The customer that was updated in the database. */
+    static void customerUpdated(Customer customer) {
+        if (customers != null) {
+            for (int i = 0; i < customers.size(); i++) {
+                if (customers.get(i).getCustomerId() == customer.getCustomerId()) {
+                    customers.set(i, customer);
+                    break;
+                }
+            }
+        }
+        focusCustomerId = customer.getCustomerId();
+    }
+
+    /** Removes a deleted customer from the cached list so the table does not need to be reloaded.
+     * @param customerId The ID of the customer that was deleted from the database. */
+    static void customerDeleted(int customerId) {
+        if (customers != null) {
+            customers.removeIf(customer -> customer.getCustomerId() == customerId);
+        }
+    }
+
+    /** Searches the customers as soon as the Search button is clicked or Enter is pressed.
+     * @param event ActionEvent of the Search button */
+    @FXML
+    void SearchCustomers(ActionEvent event) {
+        searchDelay.stop();
+        if (Boolean.TRUE.equals(serverSearch) && lastPage != null && lastPage.hasMore()
+                && CustSearchText.getText().equals(lastPageText)) {
+            fetchPage(lastPageText, lastPage);
+        } else {
+            showSearchResults();
+        }
+    }
+
+    /** Displays the customers matching the search text, or every customer if the search text is empty. */
+    private void showSearchResults() {
+        if (Boolean.TRUE.equals(serverSearch)) {
+            Customers.getItems().clear();
+            fetchPage(CustSearchText.getText(), null);
+            return;
+        }
+        if (customers == null) {
+            return;
+        }
+        String query = CustSearchText.getText();
+        if (query == null || query.isBlank()) {
+            if (Customers.getItems() != customers) {
+                Customers.setItems(customers);
+            }
+            return;
+        }
+        Customers.setItems(FXCollections.observableArrayList(searchIndex.search(query, SEARCH_LIMIT)));
+    }
+
+    /** Fetches the next page of matching customers from the database server and adds it to the table.
+     * @param text The search text.
+     * @param after The last page already displayed, or null for the first page. */
+    private void fetchPage(String text, CustomerPage after) {
+        try {
+            CustomerPage page = DBCustomers.searchCustomers(text, after, PAGE_SIZE);
+            if (page == null) {
+                return;
+            }
+            Customers.getItems().addAll(page.getCustomers());
+            lastPage = page;
+            lastPageText = text;
+            CustSearchButton.setText(page.hasMore() ? "More" : "Search");
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**This method initializes the combo boxes in the window and allows them to be populated.
      * Catches Exception, throws alert, and prints stacktrace for debugging.
      * @param location This is the locator for relative paths for navigation.
@@ -193,16 +307,51 @@ public class CustomersController implements Initializable {
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         try {
-            customers = DBCustomers.getCustomers();
-
-            Customers.setItems(customers);
-            CustomerId.setCellValueFactory(new PropertyValueFactory<>("customerId"));
-            CustomerName.setCellValueFactory(new PropertyValueFactory<>("customerName"));
-            CustomerAddress.setCellValueFactory(new PropertyValueFactory<>("address"));
-            CustomerPostalCode.setCellValueFactory(new PropertyValueFactory<>("postalCode"));
-            CustomerPhone.setCellValueFactory(new PropertyValueFactory<>("phoneNumber"));
-            CustomerFLD.setCellValueFactory(new PropertyValueFactory<>("division"));
-            CustomerCountry.setCellValueFactory(new PropertyValueFactory<>("country"));
+            if (serverSearch == null) {
+                serverSearch = DBCustomers.getCustomerCount() > CLIENT_SEARCH_LIMIT;
+            }
+
+            searchDelay.setOnFinished(event -> showSearchResults());
+            CustSearchText.textProperty().addListener((observable, oldText, newText) -> {
+                CustSearchButton.setText("Search");
+                searchDelay.playFromStart();
+            });
+            CustSearchText.setOnAction(this::SearchCustomers);
+
+            if (serverSearch) {
+                Customers.setItems(FXCollections.observableArrayList());
+                fetchPage("", null);
+            } else {
+                if (customers == null) {
+                    customers = ChangeFeed.loadCustomers();
+                }
+                ChangeFeed.requestPoll();
+
+                Customers.setItems(customers);
+                if (searchIndex == null && customers != null) {
+                    searchIndex = CustomerSearchIndex.watch(customers);
+                }
+            }
+
+            CustomerId.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getCustomerId()));
+            CustomerName.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getCustomerName()));
+            CustomerAddress.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getAddress()));
+            CustomerPostalCode.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getPostalCode()));
+            CustomerPhone.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getPhoneNumber()));
+            CustomerFLD.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getDivision()));
+            CustomerCountry.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getCountry()));
+
+            if (focusCustomerId != 0) {
+                ObservableList<Customer> shown = Customers.getItems();
+                for (int i = 0; i < shown.size(); i++) {
+                    if (shown.get(i).getCustomerId() == focusCustomerId) {
+                        Customers.getSelectionModel().select(i);
+                        Customers.scrollTo(i);
+                        break;
+                    }
+                }
+                focusCustomerId = 0;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,17 @@
+package Controllers;
+
+import Services.DateTimeText;
+import javafx.scene.control.TableCell;
+
+import java.time.LocalDateTime;
+
+/** This class is a table cell that shows a date and time with the cached text of DateTimeText,
+ * while the column keeps the LocalDateTime itself so it still sorts by time. */
+class DateTimeTableCell<S> extends TableCell<S, LocalDateTime> {
+
+    @Override
+    protected void updateItem(LocalDateTime item, boolean empty) {
+        super.updateItem(item, empty);
+        setText(empty || item == null ? null : DateTimeText.format(item));
+    }
+}
@@ -0,0 +1,92 @@
+package Controllers;
+
+import Database.QueryStats;
+import Services.DiagnosticsServer;
+import Services.FxWatchdog;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.fxml.Initializable;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.stage.Stage;
+
+import java.net.URL;
+import java.util.ResourceBundle;
+
+/** Diagnostics screen Controller. Shows the freezes of the JavaFX Application Thread and which handler caused them,
+ * then how long the queries the app has run took, slowest in total first. */
+public class DiagnosticsController implements Initializable {
+
+    @FXML
+    private Label DiagnosticsTitle;
+
+    @FXML
+    private Button RefreshButton;
+
+    @FXML
+    private Button ResetButton;
+
+    @FXML
+    private Label SummaryLabel;
+
+    @FXML
+    private TextArea DiagnosticsText;
+
+    @FXML
+    private Button BackButton;
+
+    /** Shows the counts as they are now.
+     * @param event ActionEvent of the Refresh button. */
+    @FXML
+    void Refresh(ActionEvent event) {
+        showDiagnostics();
+    }
+
+    /** Forgets the counts and stalls so far, to measure a single screen or action.
+     * @param event ActionEvent of the Reset button. */
+    @FXML
+    void Reset(ActionEvent event) {
+        QueryStats.reset();
+        FxWatchdog.reset();
+        showDiagnostics();
+    }
+
+    /** Takes the user back to the Main Menu.
+     *  Catches Exception, throws alert, and prints a stacktrace to the console for debugging.
+     * @param event ActionEvent of the Back to Main Menu button. */
+    @FXML
+    void BackToMain(ActionEvent event) {
+        try {
+            Stage stage = (Stage) ((Button) event.getSource()).getScene().getWindow();
+            Parent scene = FXMLLoader.load(getClass().getResource("/Views/MainMenu.fxml"));
+            stage.setScene(new Scene(scene));
+            stage.setTitle("Main");
+            stage.show();
+        } catch (Exception e) {
+            e.printStackTrace();
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error Dialog");
+            alert.setContentText("Load Screen Error.");
+            alert.showAndWait();
+        }
+    }
+
+    private void showDiagnostics() {
+        String address = DiagnosticsServer.getAddress();
+        SummaryLabel.setText("UI stalls, then queries by total time." + (address == null ? "" : " Also at " + address + "/stalls and /queries"));
+        DiagnosticsText.setText(FxWatchdog.toText() + "\n\n" + QueryStats.toText());
+    }
+
+    /**This method shows the diagnostics when the screen opens.
+     * @param location This is the locator for relative paths for navigation.
+     * @param resources This is the resource bundle that localizes the root objects. */
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        showDiagnostics();
+    }
+}
@@ -1,8 +1,11 @@
 package Controllers;
 
+import Database.DBAppointmentSeries;
 import Database.DBAppointments;
 import Database.DBUsers;
 import Models.Appointment;
+import Models.AppointmentSeries;
+import Services.BusinessHours;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -21,7 +24,6 @@ import java.net.URL;
 import java.sql.*;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.Date;
@@ -151,6 +153,13 @@ public class LoginController implements Initializable {
             ObservableList<Appointment> appointments = DBAppointments.getAppointments();
 
             if (appointments != null) {
+                List<AppointmentSeries> series = DBAppointmentSeries.getSeriesBetween(localDateTime.toLocalDate(), addFifteen.toLocalDate());
+                if (series != null) {
+                    for (AppointmentSeries recurring : series) {
+                        appointments.addAll(recurring.getOccurrences(localDateTime.toLocalDate().minusDays(1), addFifteen.toLocalDate()));
+                    }
+                }
+
                 for (Appointment appointment: appointments) {
                     if (appointment.getStartTime().isAfter(localDateTime) && appointment.getStartTime().isBefore(addFifteen)) {
                         upcomingAppointments.add(appointment);
@@ -163,7 +172,7 @@ public class LoginController implements Initializable {
                                             "\n" +
                                             resourceBundle.getString("appointmentId") +
                                             " " +
-                                            + appointment.getAppointmentId() +
+                                            (appointment.getAppointmentId() != 0 ? String.valueOf(appointment.getAppointmentId()) : appointment.getTitle()) +
                                             "\n" +
                                             resourceBundle.getString("date") +
                                             " " +
@@ -268,7 +277,7 @@ public class LoginController implements Initializable {
             LabelLocation.setText(resourceBundle.getString("location"));
             LabelLocationDisplay.setText(resourceBundle.getString("country"));
             LabelTimeZone.setText(resourceBundle.getString("timezone"));
-            LabelTimeZoneDisplay.setText(String.valueOf(ZoneId.of(TimeZone.getDefault().getID())));
+            LabelTimeZoneDisplay.setText(String.valueOf(BusinessHours.getUserZone()));
             ButtonLogin.setText(resourceBundle.getString("login"));
             ButtonCancel.setText(resourceBundle.getString("cancel"));
 
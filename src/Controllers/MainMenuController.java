@@ -23,6 +23,9 @@ public class MainMenuController implements  Initializable{
     @FXML
     private Button ButtonCustomers;
 
+    @FXML
+    private Button ButtonDiagnostics;
+
     @FXML
     private Button ButtonLogout;
 
@@ -92,6 +95,25 @@ public class MainMenuController implements  Initializable{
         }
     }
 
+    /** Takes the user to the Diagnostics screen.
+     *  Catches Exception, throws alert, and prints a stacktrace to the console for debugging.
+     * @param event ActionEvent takes user to Diagnostics Screen when clicked. */
+    @FXML
+    void DiagnosticsMenu(ActionEvent event){
+        try {
+            Stage stage = (Stage) ((Button) event.getSource()).getScene().getWindow();
+            Parent scene = FXMLLoader.load(getClass().getResource("/Views/Diagnostics.fxml"));
+            stage.setScene(new Scene(scene));
+            stage.setTitle("Diagnostics!!!");
+            stage.show();
+        } catch (Exception e) {
+            e.printStackTrace();
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error Dialog");
+            alert.setContentText("Load Screen Error.");
+            alert.showAndWait();
+        }
+    }
 
     /** This method logs the user out when the Logout button is clicked.
      *  Catches Exception, throws alert, and prints a stacktrace to the console for debugging.
@@ -4,10 +4,15 @@ import Database.DBAppointments;
 import Database.DBContacts;
 import Database.DBCustomers;
 import Database.DBUsers;
+import Database.UpdateResult;
 import Models.Appointment;
+import Models.AppointmentStore;
+import Models.AppointmentType;
 import Models.Contact;
 import Models.Customer;
 import Models.User;
+import Services.BusinessHours;
+import Services.SlotGenerator;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -22,9 +27,11 @@ import javafx.stage.Stage;
 import java.net.URL;
 import java.sql.SQLException;
 import java.time.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
-import java.util.TimeZone;
 
 /** The Update Appointment controller */
 public class UpdateAppointmentController implements Initializable {
@@ -36,11 +43,18 @@ public class UpdateAppointmentController implements Initializable {
     }
 
 
-    private ZonedDateTime StartDateTimeConversion;
-    private ZonedDateTime EndDateTimeConversion;
 
     /** The appointment that was selected from the Appointment Controller display. */
     private static Appointment selectedAppointment;
+
+    /** Last Update of the appointment when it was loaded into the form, checked when saving. */
+    private LocalDateTime loadedVersion;
+
+    /** Works out the free start and end times from the cached appointments. */
+    private SlotGenerator slotGenerator;
+
+    /** Contact IDs by contact name, filled in with the Contact combo box. */
+    private final Map<String, Integer> contactIds = new HashMap<>();
     @FXML
     private Button ButtonApptCancel;
 
@@ -125,17 +139,6 @@ public class UpdateAppointmentController implements Initializable {
     @FXML
     private Label TitleLocation;
 
-    /** Time conversion to EST.
-     * @param time LocalDateTime time to convert
-     * @return Returns ZonedDateTime converted to EST */
-    private ZonedDateTime convertToEST(LocalDateTime time) {
-        return ZonedDateTime.of(time, ZoneId.of("America/New_York"));
-    }
-
-    private ZonedDateTime convertToTimeZone(LocalDateTime time, String zoneId) {
-        return ZonedDateTime.of(time, ZoneId.of(zoneId));
-    }
-
     @FXML
     void BackToMain(ActionEvent event) {
         try {
@@ -206,6 +209,7 @@ public class UpdateAppointmentController implements Initializable {
                     if (!contactComboList.contains(contact.getContactName())) {
                         contactComboList.add(contact.getContactName());
                     }
+                    contactIds.put(contact.getContactName(), contact.getContactId());
                 }
             }
         } catch (SQLException e) {
@@ -261,7 +265,9 @@ public class UpdateAppointmentController implements Initializable {
     private void populateTypeComboBox() {
         ObservableList<String> typeList = FXCollections.observableArrayList();
 
-        typeList.addAll("Planning Session", "De-Briefing", "Follow-up", "Pre-Briefing", "Open Session");
+        for (AppointmentType type : AppointmentType.values()) {
+            typeList.add(type.getLabel());
+        }
 
         ComboType.setItems(typeList);
     }
@@ -281,7 +287,7 @@ public class UpdateAppointmentController implements Initializable {
 
         if (valid) {
             try {
-                boolean success = DBAppointments.updateAppointment(
+                UpdateResult<Appointment> updateResult = DBAppointments.updateAppointment(
                         ComboContact.getSelectionModel().getSelectedItem(),
                         TextTitle.getText(),
                         TextDescription.getText(),
@@ -291,9 +297,14 @@ public class UpdateAppointmentController implements Initializable {
                         LocalDateTime.of(EndDatePicker.getValue(), LocalTime.parse(ComboEndTime.getSelectionModel().getSelectedItem())),
                         ComboCustomerId.getSelectionModel().getSelectedItem(),
                         ComboUserId.getSelectionModel().getSelectedItem(),
-                        Integer.parseInt(TextAppointmentId.getText()));
+                        Integer.parseInt(TextAppointmentId.getText()),
+                        loadedVersion);
+
+                if (updateResult.getStatus() == UpdateResult.Status.CONFLICT) {
+                    showConflict(event, updateResult.getEntity());
+                } else if (updateResult.getStatus() == UpdateResult.Status.UPDATED) {
+                    AppointmentsController.appointmentUpdated(updateResult.getEntity());
 
-                if (success) {
                     Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Successfully created new appointment");
                     Optional<ButtonType> result = alert.showAndWait();
 
@@ -324,6 +335,36 @@ public class UpdateAppointmentController implements Initializable {
         }
     }
 
+    /** Tells the user their save lost to a change made at another desk.
+     * If the appointment still exists its current details are loaded into the form so the user can review them and save again,
+     * otherwise the user is taken back to the Appointments screen.
+     * @param event ActionEvent of the Save button, used to navigate away if the appointment was deleted.
+     * @param current The appointment as it is in the database now, or null if it was deleted. */
+    private void showConflict(ActionEvent event, Appointment current) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Appointment Changed");
+        if (current != null) {
+            alert.setContentText("This appointment was changed at another desk after you opened it. Its current details have been loaded, please review them and save again.");
+            alert.showAndWait();
+            AppointmentsController.appointmentUpdated(current);
+            showAppointment(current);
+            return;
+        }
+
+        alert.setContentText("This appointment was deleted at another desk after you opened it.");
+        alert.showAndWait();
+        AppointmentsController.appointmentsDeleted(List.of(Integer.parseInt(TextAppointmentId.getText())));
+        try {
+            Stage stage = (Stage) ((Button) event.getSource()).getScene().getWindow();
+            Parent scene = FXMLLoader.load(getClass().getResource("/Views/Appointments.fxml"));
+            stage.setTitle("Appointments!!");
+            stage.setScene(new Scene(scene));
+            stage.show();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     /** Validation method that checks that all fields are filled and valid.
      * Throws alert if fields are not selected, if fields are empty, if there are overlapping appointments, and if appointment is outside of business hours
      * @param title String value of Appointment Title as per user input.
@@ -457,39 +498,25 @@ public class UpdateAppointmentController implements Initializable {
         LocalDateTime selectedStart = startDate.atTime(startTime);
         LocalDateTime selectedEnd = endDate.atTime(endTime);
 
-        LocalDateTime proposedAppointmentStart;
-        LocalDateTime proposedAppointmentEnd;
-
-
+        // The appointment being edited is left out so it does not overlap with itself.
         try {
-            ObservableList<Appointment> appointments = DBAppointments.getAppointmentsByCustomerID(ComboCustomerId.getSelectionModel().getSelectedItem());
-            for (Appointment appointment : appointments) {
-                proposedAppointmentStart = appointment.getStartDate().atTime(appointment.getStartTime().toLocalTime());
-                proposedAppointmentEnd = appointment.getEndDate().atTime(appointment.getEndTime().toLocalTime());
-
-                if (proposedAppointmentStart.isAfter(selectedStart) && proposedAppointmentStart.isBefore(selectedEnd)) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error Dialog");
-                    alert.setContentText("Appointments must not overlap with existing customer appointments.");
-                    alert.showAndWait();
-                    return false;
-                } else if (proposedAppointmentEnd.isAfter(selectedStart) && proposedAppointmentEnd.isBefore(selectedEnd)) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error Dialog");
-                    alert.setContentText("Appointments must not overlap with existing customer appointments.");
-                    alert.showAndWait();
-                    return false;
-                }
+            int customerId = ComboCustomerId.getSelectionModel().getSelectedItem();
+            int contactId = contactIds.get(ComboContact.getValue());
+            int userId = ComboUserId.getSelectionModel().getSelectedItem();
+            Appointment conflict = AppointmentsController.findConflict(customerId, contactId, userId, selectedStart, selectedEnd, Integer.parseInt(appointmentId));
+            if (conflict != null) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error Dialog");
+                alert.setContentText(AppointmentsController.describeConflict(conflict, customerId, contactId, userId));
+                alert.showAndWait();
+                return false;
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
 
-        // Business hours check
-        StartDateTimeConversion = convertToEST(LocalDateTime.of(StartDatePicker.getValue(), LocalTime.parse(ComboStartTime.getSelectionModel().getSelectedItem())));
-        EndDateTimeConversion = convertToEST(LocalDateTime.of(EndDatePicker.getValue(), LocalTime.parse(ComboEndTime.getSelectionModel().getSelectedItem())));
-
-        if (StartDateTimeConversion.toLocalTime().isAfter(LocalTime.of(22, 0))) {
+        // This checks to make sure that the appointment is between business hours.
+        if (!BusinessHours.isWithinBusinessHours(selectedStart, selectedEnd)) {
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error Dialog");
             alert.setContentText("Appointments must be within business hours 8AM - 10PM EST.");
@@ -497,38 +524,93 @@ public class UpdateAppointmentController implements Initializable {
             return false;
         }
 
-        if (EndDateTimeConversion.toLocalTime().isAfter(LocalTime.of(22, 0))) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error Dialog");
-            alert.setContentText("Appointments must be within business hours 8AM - 10PM EST.");
-            alert.showAndWait();
-            return false;
+        return true;
+    }
+
+    /** The next two methods are tied to the date combo boxes for selection*/
+    @FXML
+    void PickStartDate(ActionEvent event) {
+        EndDatePicker.setValue(StartDatePicker.getValue());
+        refreshStartTimes();
+    }
+    @FXML
+    void PickEndDate(ActionEvent event) {}
+    /** Offers the end times that fit after the chosen start time.
+     * @param event ActionEvent of the Start Time combo box */
+    @FXML
+    void SelectStartTime(ActionEvent event) {
+        refreshEndTimes();
+    }
+    /** Offers the free times of the chosen contact.
+     * @param event ActionEvent of the Contact combo box */
+    @FXML
+    void SelectContact(ActionEvent event) {
+        refreshStartTimes();
+    }
+    /** Offers the free times of the chosen customer.
+     * @param event ActionEvent of the Customer ID combo box */
+    @FXML
+    void SelectCustomer(ActionEvent event) {
+        refreshStartTimes();
+    }
+    /** Offers the free times of the chosen user.
+     * @param event ActionEvent of the User ID combo box */
+    @FXML
+    void SelectUser(ActionEvent event) {
+        refreshStartTimes();
+    }
+
+    /** Offers only the start times when the contact, the customer and the user are all free within business hours on the start date.
+     * The full list of times stays until a date, a contact, a customer and a user have been chosen. */
+    private void refreshStartTimes() {
+        LocalDate date = StartDatePicker.getValue();
+        Integer contactId = contactIds.get(ComboContact.getValue());
+        Integer customerId = ComboCustomerId.getValue();
+        Integer userId = ComboUserId.getValue();
+        if (slotGenerator == null || date == null || contactId == null || customerId == null || userId == null) {
+            return;
         }
+        setTimes(ComboStartTime, slotGenerator.getStartTimes(date, contactId, customerId, userId, editedAppointmentId()));
+        refreshEndTimes();
+    }
 
-        if (StartDateTimeConversion.toLocalTime().isBefore(LocalTime.of(8, 0))) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error Dialog");
-            alert.setContentText("Appointments must be within business hours 8AM - 10PM EST.");
-            alert.showAndWait();
-            return false;
+    /** Offers only the end times from the chosen start time up to the next appointment of the contact, the customer or the user, or closing. */
+    private void refreshEndTimes() {
+        LocalDate date = StartDatePicker.getValue();
+        Integer contactId = contactIds.get(ComboContact.getValue());
+        Integer customerId = ComboCustomerId.getValue();
+        Integer userId = ComboUserId.getValue();
+        String start = ComboStartTime.getValue();
+        if (slotGenerator == null || date == null || contactId == null || customerId == null || userId == null || start == null) {
+            return;
         }
+        setTimes(ComboEndTime, slotGenerator.getEndTimes(date, LocalTime.parse(start), contactId, customerId, userId, editedAppointmentId()));
+    }
 
-        if (EndDateTimeConversion.toLocalTime().isBefore(LocalTime.of(8, 0))) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error Dialog");
-            alert.setContentText("Appointments must be within business hours 8AM - 10PM EST.");
-            alert.showAndWait();
-            return false;
+    /** Replaces the times in a combo box, keeping the chosen time if it is still offered.
+     * @param comboBox The Start Time or End Time combo box.
+     * @param times The times to offer. */
+    private static void setTimes(ComboBox<String> comboBox, List<LocalTime> times) {
+        String selected = comboBox.getValue();
+        ObservableList<String> items = FXCollections.observableArrayList();
+        for (LocalTime time : times) {
+            items.add(time.toString());
+        }
+        comboBox.setItems(items);
+        if (selected != null && items.contains(selected)) {
+            comboBox.getSelectionModel().select(selected);
+        } else {
+            comboBox.getSelectionModel().clearSelection();
         }
+    }
 
-        return true;
+    /** Gets the ID of the appointment being edited, which is left out when looking for free times.
+     * @return Int value of Appointment ID, or 0 if none is loaded */
+    private int editedAppointmentId() {
+        String appointmentId = TextAppointmentId.getText();
+        return appointmentId == null || appointmentId.isEmpty() ? 0 : Integer.parseInt(appointmentId);
     }
 
-    /** The next two methods are tied to the date combo boxes for selection*/
-    @FXML
-    void PickStartDate(ActionEvent event) {}
-    @FXML
-    void PickEndDate(ActionEvent event) {}
 
     /** This method pulls the info from the Appointments screen to the Update and initializes the combo boxes in the Update Appointment view.
      * Catches Exception, throws alert, and prints stacktrace for debugging.
@@ -543,26 +625,37 @@ public class UpdateAppointmentController implements Initializable {
         populateTypeComboBox();
 
         try {
-            Appointment appointment = DBAppointments.getAppointmentByAppointmentID(selectedAppointment.getAppointmentId());
-
-            ZonedDateTime zonedStartTime = convertToTimeZone(appointment.getStartDate().atTime(appointment.getStartTime().toLocalTime()), String.valueOf(ZoneId.of(TimeZone.getDefault().getID())));
-            ZonedDateTime zonedEndTime = convertToTimeZone(appointment.getEndDate().atTime(appointment.getEndTime().toLocalTime()), String.valueOf(ZoneId.of(TimeZone.getDefault().getID())));
-
-            if (appointment != null) {
-                TextTitle.setText(appointment.getTitle());
-                TextDescription.setText(appointment.getDescription());
-                TextLocation.setText(appointment.getLocation());
-                ComboType.getSelectionModel().select(appointment.getType());
-                ComboUserId.getSelectionModel().select(Integer.valueOf(appointment.getUserId()));
-                TextAppointmentId.setText(String.valueOf(appointment.getAppointmentId()));
-                StartDatePicker.setValue(appointment.getStartDate());
-                ComboStartTime.getSelectionModel().select(String.valueOf(zonedStartTime.toLocalTime()));
-                EndDatePicker.setValue(appointment.getEndDate());
-                ComboEndTime.getSelectionModel().select(String.valueOf(zonedEndTime.toLocalTime()));
-                ComboCustomerId.getSelectionModel().select(Integer.valueOf(appointment.getCustomerId()));
+            AppointmentStore appointments = AppointmentsController.currentAppointments();
+            if (appointments != null) {
+                slotGenerator = new SlotGenerator(appointments, AppointmentsController.currentSeries());
             }
+            showAppointment(DBAppointments.getAppointmentByAppointmentID(selectedAppointment.getAppointmentId()));
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
+
+    /** Fills the form with an appointment and remembers its version for the next save.
+     * @param appointment The appointment to display. */
+    private void showAppointment(Appointment appointment) {
+        if (appointment != null) {
+            TextTitle.setText(appointment.getTitle());
+            TextDescription.setText(appointment.getDescription());
+            TextLocation.setText(appointment.getLocation());
+            ComboType.getSelectionModel().select(appointment.getType());
+            ComboUserId.getSelectionModel().select(Integer.valueOf(appointment.getUserId()));
+            for (Map.Entry<String, Integer> contact : contactIds.entrySet()) {
+                if (contact.getValue() == appointment.getContactId()) {
+                    ComboContact.getSelectionModel().select(contact.getKey());
+                }
+            }
+            TextAppointmentId.setText(String.valueOf(appointment.getAppointmentId()));
+            StartDatePicker.setValue(appointment.getStartDate());
+            ComboStartTime.getSelectionModel().select(String.valueOf(appointment.getStartTime().toLocalTime()));
+            EndDatePicker.setValue(appointment.getEndDate());
+            ComboEndTime.getSelectionModel().select(String.valueOf(appointment.getEndTime().toLocalTime()));
+            ComboCustomerId.getSelectionModel().select(Integer.valueOf(appointment.getCustomerId()));
+            loadedVersion = appointment.getLastUpdate();
+        }
+    }
 }
@@ -3,6 +3,7 @@ package Controllers;
 import Database.DBCountry;
 import Database.DBCustomers;
 import Database.DBDivision;
+import Database.UpdateResult;
 import Models.Country;
 import Models.Customer;
 import Models.Division;
@@ -19,12 +20,16 @@ import javafx.stage.Stage;
 
 import java.net.URL;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
 public class UpdateCustomersController implements Initializable {
     private static Customer selectedCustomer;
 
+    /** Last Update of the customer when they were loaded into the form, checked when saving. */
+    private LocalDateTime loadedVersion;
+
     @FXML
     private Label AddressLabel;
 
@@ -138,16 +143,20 @@ public class UpdateCustomersController implements Initializable {
 
         if (valid) {
             try {
-                boolean success = DBCustomers.updateCustomer(
+                UpdateResult<Customer> updateResult = DBCustomers.updateCustomer(
                         Integer.parseInt(CustomerID.getText()),
                         CustomerName.getText(),
                         CustomerAddress.getText(),
                         CustomerPostalCode.getText(),
                         CustomerPhone.getText(),
                         DivisionBox.getValue(),
-                        CountryBox.getValue());
+                        loadedVersion);
+
+                if (updateResult.getStatus() == UpdateResult.Status.CONFLICT) {
+                    showConflict(event, updateResult.getEntity());
+                } else if (updateResult.getStatus() == UpdateResult.Status.UPDATED) {
+                    CustomersController.customerUpdated(updateResult.getEntity());
 
-                if (success) {
                     Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Successfully updated customer");
                     Optional<ButtonType> result = alert.showAndWait();
 
@@ -178,6 +187,36 @@ public class UpdateCustomersController implements Initializable {
         }
     }
 
+    /** Tells the user their save lost to a change made at another desk.
+     * If the customer still exists their current details are loaded into the form so the user can review them and save again,
+     * otherwise the user is taken back to the Customers screen.
+     * @param event ActionEvent of the Save button, used to navigate away if the customer was deleted.
+     * @param current The customer as they are in the database now, or null if they were deleted. */
+    private void showConflict(ActionEvent event, Customer current) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Customer Changed");
+        if (current != null) {
+            alert.setContentText("This customer was changed at another desk after you opened them. Their current details have been loaded, please review them and save again.");
+            alert.showAndWait();
+            CustomersController.customerUpdated(current);
+            showCustomer(current);
+            return;
+        }
+
+        alert.setContentText("This customer was deleted at another desk after you opened them.");
+        alert.showAndWait();
+        CustomersController.customerDeleted(Integer.parseInt(CustomerID.getText()));
+        try {
+            Stage stage = (Stage) ((Button) event.getSource()).getScene().getWindow();
+            Parent scene = FXMLLoader.load(getClass().getResource("/Views/Customers.fxml"));
+            stage.setTitle("Customers!!");
+            stage.setScene(new Scene(scene));
+            stage.show();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     /** Populates Country Combo Box */
     private void setCountryCombo(){
         ObservableList<String> countryList = FXCollections.observableArrayList();
@@ -310,12 +349,19 @@ public class UpdateCustomersController implements Initializable {
         setDivisionCombo();
         setCountryCombo();
 
-        CustomerID.setText(Integer.toString(selectedCustomer.getCustomerId()));
-        CustomerName.setText(selectedCustomer.getCustomerName());
-        CustomerPostalCode.setText(selectedCustomer.getPostalCode());
-        CustomerAddress.setText(selectedCustomer.getAddress());
-        CustomerPhone.setText(selectedCustomer.getPhoneNumber());
-        CountryBox.getSelectionModel().select(selectedCustomer.getCountry());
-        DivisionBox.getSelectionModel().select(selectedCustomer.getDivision());
+        showCustomer(selectedCustomer);
+    }
+
+    /** Fills the form with a customer and remembers their version for the next save.
+     * @param customer The customer to display. */
+    private void showCustomer(Customer customer) {
+        CustomerID.setText(Integer.toString(customer.getCustomerId()));
+        CustomerName.setText(customer.getCustomerName());
+        CustomerPostalCode.setText(customer.getPostalCode());
+        CustomerAddress.setText(customer.getAddress());
+        CustomerPhone.setText(customer.getPhoneNumber());
+        CountryBox.getSelectionModel().select(customer.getCountry());
+        DivisionBox.getSelectionModel().select(customer.getDivision());
+        loadedVersion = customer.getLastUpdate();
     }
 }
@@ -0,0 +1,50 @@
+package Database;
+
+import Models.Customer;
+import javafx.collections.ObservableList;
+
+/** This class is one page of a customer search on the database server.
+ * The next page continues after the last Customer Name and Customer ID of this one instead of counting rows with an offset,
+ * so every page costs the same no matter how deep into the results it is. */
+public class CustomerPage {
+
+    private final ObservableList<Customer> customers;
+    private final String lastCustomerName;
+    private final int lastCustomerId;
+    private final boolean more;
+
+    /** @param customers The customers on the page, in Customer Name order.
+     * @param lastCustomerName The Customer Name the next page continues after, null if it has none.
+     * @param lastCustomerId The Customer ID the next page continues after among the customers of that name.
+     * @param more True if there are more matching customers after this page. */
+    CustomerPage(ObservableList<Customer> customers, String lastCustomerName, int lastCustomerId, boolean more) {
+        this.customers = customers;
+        this.lastCustomerName = lastCustomerName;
+        this.lastCustomerId = lastCustomerId;
+        this.more = more;
+    }
+
+    /** Gets the customers on the page.
+     * @return customers ObservableList of Customers in Customer Name order */
+    public ObservableList<Customer> getCustomers() {
+        return customers;
+    }
+
+    /** Gets the Customer Name of the last customer on the page, where the search for the next page continues.
+     * @return lastCustomerName String value of the last Customer Name on the page */
+    public String getLastCustomerName() {
+        return lastCustomerName;
+    }
+
+    /** Gets the Customer ID of the last customer on the page, where the search for the next page continues.
+     * @return lastCustomerId Int value of the last Customer ID on the page */
+    public int getLastCustomerId() {
+        return lastCustomerId;
+    }
+
+    /** Gets whether another page of matching customers follows this one.
+     * @return more Boolean true if there are more matching customers */
+    public boolean hasMore() {
+        return more;
+    }
+}
@@ -0,0 +1,210 @@
+package Database;
+
+import Models.AppointmentSeries;
+import Models.RecurrenceRule;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/** This class is the SQL connection to the appointment_series table, which holds one row per recurring appointment.
+ * The occurrences are never stored, they are built from the row when a range of dates is looked at. */
+public class DBAppointmentSeries {
+
+    /** Set once the table is known to exist, so it is only checked for once per run. */
+    private static volatile boolean tableChecked = false;
+
+    /** This method creates the appointment_series table if the database does not have it yet.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    static void ensureTable() throws SQLException {
+        ensureTable(DBConnection.getConnection());
+    }
+
+    /** This method creates the appointment_series table on a connection if the database does not have it yet.
+     * @param connection Connection to create it on, the background connection for a background thread.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    private static synchronized void ensureTable(Connection connection) throws SQLException {
+        if (tableChecked) {
+            return;
+        }
+        String createStatement = "CREATE TABLE IF NOT EXISTS appointment_series (" +
+                "Series_ID INT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "Title VARCHAR(50), " +
+                "Description VARCHAR(50), " +
+                "Location VARCHAR(50), " +
+                "Type VARCHAR(50), " +
+                "Start DATETIME NOT NULL, " +
+                "End DATETIME NOT NULL, " +
+                "Until DATE NOT NULL, " +
+                "Recurrence VARCHAR(1000) NOT NULL, " +
+                "Create_Date DATETIME, " +
+                "Last_Update TIMESTAMP, " +
+                "Customer_ID INT NOT NULL, " +
+                "User_ID INT NOT NULL, " +
+                "Contact_ID INT NOT NULL, " +
+                "INDEX series_range (Start, Until))";
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(createStatement);
+        }
+        tableChecked = true;
+    }
+
+    /** This method builds an AppointmentSeries from the current row of a result set.
+     * @param resultSet ResultSet positioned on an appointment_series row.
+     * @return Returns the AppointmentSeries for that row.
+     * @throws SQLException Thrown if a column cannot be read. */
+    private static AppointmentSeries mapSeries(ResultSet resultSet) throws SQLException {
+        return new AppointmentSeries(
+                resultSet.getInt("Series_ID"),
+                resultSet.getString("Title"),
+                resultSet.getString("Description"),
+                resultSet.getString("Location"),
+                resultSet.getString("Type"),
+                resultSet.getTimestamp("Start").toLocalDateTime(),
+                resultSet.getTimestamp("End").toLocalDateTime(),
+                resultSet.getInt("Customer_ID"),
+                resultSet.getInt("User_ID"),
+                resultSet.getInt("Contact_ID"),
+                RecurrenceRule.parse(resultSet.getString("Recurrence"))
+        );
+    }
+
+    /** This method retrieves every recurring appointment.
+     * @return Returns an ObservableList of series, or null if the query failed.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static ObservableList<AppointmentSeries> getSeries() throws SQLException {
+        ObservableList<AppointmentSeries> series = FXCollections.observableArrayList();
+
+        try {
+            ensureTable();
+            DBQuery.setPreparedStatement(DBConnection.getConnection(), "SELECT * FROM appointment_series;");
+            ResultSet resultSet = DBQuery.getPreparedStatement().executeQuery();
+            while (resultSet.next()) {
+                series.add(mapSeries(resultSet));
+            }
+            return series;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** This method retrieves the recurring appointments that can have occurrences within a range of dates.
+     * It uses its own statement on the background connection instead of the shared one in DBQuery, so it can run on a background thread.
+     * @param from LocalDate the range starts on.
+     * @param to LocalDate the range ends on, included.
+     * @return Returns a List of series, or null if the query failed. */
+    public static List<AppointmentSeries> getSeriesBetween(LocalDate from, LocalDate to) {
+        try {
+            ensureTable(DBConnection.getBackgroundConnection());
+            try (PreparedStatement preparedStatement = DBConnection.getBackgroundConnection().prepareStatement("SELECT * FROM appointment_series WHERE Start < ? AND Until >= ?;")) {
+                preparedStatement.setTimestamp(1, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+                preparedStatement.setDate(2, Date.valueOf(from));
+
+                List<AppointmentSeries> series = new ArrayList<>();
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        series.add(mapSeries(resultSet));
+                    }
+                }
+                return series;
+            }
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** This method saves a recurring appointment as one row.
+     * @param series The AppointmentSeries to save, its Series ID is ignored.
+     * @return Returns the saved AppointmentSeries with its generated Series ID, or null if it was not saved.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static AppointmentSeries createSeries(AppointmentSeries series) throws SQLException {
+        String insertStatement = "INSERT INTO appointment_series(Title, Description, Location, Type, Start, End, Until, Recurrence, Customer_ID, User_ID, Contact_ID, Create_Date, Last_Update) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())";
+
+        try {
+            ensureTable();
+            DBQuery.setPreparedStatement(DBConnection.getConnection(), insertStatement, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
+
+            preparedStatement.setString(1, series.getTitle());
+            preparedStatement.setString(2, series.getDescription());
+            preparedStatement.setString(3, series.getLocation());
+            preparedStatement.setString(4, series.getType());
+            preparedStatement.setTimestamp(5, Timestamp.valueOf(series.getStartTime()));
+            preparedStatement.setTimestamp(6, Timestamp.valueOf(series.getEndTime()));
+            preparedStatement.setDate(7, Date.valueOf(series.getRule().getUntil()));
+            preparedStatement.setString(8, series.getRule().toString());
+            preparedStatement.setInt(9, series.getCustomerId());
+            preparedStatement.setInt(10, series.getUserId());
+            preparedStatement.setInt(11, series.getContactId());
+
+            preparedStatement.execute();
+            ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+            if (generatedKeys.next()) {
+                return new AppointmentSeries(generatedKeys.getInt(1), series.getTitle(), series.getDescription(), series.getLocation(),
+                        series.getType(), series.getStartTime(), series.getEndTime(), series.getCustomerId(), series.getUserId(),
+                        series.getContactId(), series.getRule());
+            }
+            return null;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** This method saves the changes to a recurring appointment, such as a new rule that skips another date.
+     * @param series The AppointmentSeries to save, found by its Series ID.
+     * @return Returns true if the series was updated.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static boolean updateSeries(AppointmentSeries series) throws SQLException {
+        String updateStatement = "UPDATE appointment_series SET Title=?, Description=?, Location=?, Type=?, Start=?, End=?, Until=?, Recurrence=?, " +
+                "Customer_ID=?, User_ID=?, Contact_ID=?, Last_Update=NOW() WHERE Series_ID=?";
+
+        try {
+            ensureTable();
+            DBQuery.setPreparedStatement(DBConnection.getConnection(), updateStatement);
+            PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
+
+            preparedStatement.setString(1, series.getTitle());
+            preparedStatement.setString(2, series.getDescription());
+            preparedStatement.setString(3, series.getLocation());
+            preparedStatement.setString(4, series.getType());
+            preparedStatement.setTimestamp(5, Timestamp.valueOf(series.getStartTime()));
+            preparedStatement.setTimestamp(6, Timestamp.valueOf(series.getEndTime()));
+            preparedStatement.setDate(7, Date.valueOf(series.getRule().getUntil()));
+            preparedStatement.setString(8, series.getRule().toString());
+            preparedStatement.setInt(9, series.getCustomerId());
+            preparedStatement.setInt(10, series.getUserId());
+            preparedStatement.setInt(11, series.getContactId());
+            preparedStatement.setInt(12, series.getSeriesId());
+
+            return preparedStatement.executeUpdate() > 0;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** This method deletes a recurring appointment, and with it every occurrence.
+     * @param seriesId Int value of Series ID
+     * @return Returns true if the series was deleted.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static boolean deleteSeries(int seriesId) throws SQLException {
+        try {
+            ensureTable();
+            DBQuery.setPreparedStatement(DBConnection.getConnection(), "DELETE FROM appointment_series WHERE Series_ID=?");
+            PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
+            preparedStatement.setInt(1, seriesId);
+            return preparedStatement.executeUpdate() > 0;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+}
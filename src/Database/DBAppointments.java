@@ -1,17 +1,60 @@
 package Database;
 
 import Models.Appointment;
+import Models.AppointmentSeries;
+import Models.AppointmentStore;
+import Models.AppointmentType;
 import Models.Contact;
+import Models.RecurrenceRule;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 
 /** This class is the SQL connection to the appointments table that does the data CRUD stuff. */
 public class DBAppointments {
 
+    /** Shares one instance of each repeated title and location across the appointments read. */
+    private static final StringPool strings = new StringPool(4096);
+
+    /** This method builds an Appointment from the current row of a result set.
+     * @param resultSet ResultSet positioned on an appointments row.
+     * @return Returns the Appointment for that row.
+     * @throws SQLException Thrown if a column cannot be read. */
+    private static Appointment mapAppointment(ResultSet resultSet) throws SQLException {
+        String type = resultSet.getString("Type");
+        AppointmentType appointmentType = AppointmentType.fromLabel(type);
+        Timestamp lastUpdate = resultSet.getTimestamp("Last_Update");
+
+        return new Appointment(
+                resultSet.getInt("Appointment_ID"),
+                strings.canonical(resultSet.getString("Title")),
+                resultSet.getString("Description"),
+                strings.canonical(resultSet.getString("Location")),
+                appointmentType != null ? appointmentType.getLabel() : strings.canonical(type),
+                resultSet.getTimestamp("Start").toLocalDateTime(),
+                resultSet.getTimestamp("End").toLocalDateTime(),
+                resultSet.getInt("Customer_ID"),
+                resultSet.getInt("User_ID"),
+                resultSet.getInt("Contact_ID"),
+                lastUpdate == null ? null : lastUpdate.toLocalDateTime()
+        );
+    }
+
     /** This method retrieves all Appointment data from the database.
      * @return Returns an ObservableList list of appointments.
      * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
@@ -28,20 +71,7 @@ public class DBAppointments {
             ResultSet resultSet = preparedStatement.getResultSet();
 
             while (resultSet.next()) {
-                Appointment newAppointment = new Appointment(
-                        resultSet.getInt("Appointment_ID"),
-                        resultSet.getString("Title"),
-                        resultSet.getString("Description"),
-                        resultSet.getString("Location"),
-                        resultSet.getString("Type"),
-                        resultSet.getDate("Start").toLocalDate(),
-                        resultSet.getTimestamp("Start").toLocalDateTime(),
-                        resultSet.getDate("End").toLocalDate(),
-                        resultSet.getTimestamp("End").toLocalDateTime(),
-                        resultSet.getInt("Customer_ID"),
-                        resultSet.getInt("User_ID"),
-                        resultSet.getInt("Contact_ID")
-                );
+                Appointment newAppointment = mapAppointment(resultSet);
                 appointments.add(newAppointment);
             }
             return appointments;
@@ -51,39 +81,20 @@ public class DBAppointments {
         }
     }
 
-    /** This method retrieves a list of Appointments over the previous thirty days.
-     * @return Returns an ObservableList list of appointments.
+    /** This method retrieves all Appointment data from the database into a compact AppointmentStore.
+     * @return Returns an AppointmentStore of appointments, or null if the query failed.
      * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
-    public static ObservableList<Appointment> getAppointmentsByMonth() throws SQLException {
-        ObservableList<Appointment> appointments = FXCollections.observableArrayList();
-
-        String queryStatement = "SELECT * from appointments WHERE Start >=  (CURRENT_DATE) + INTERVAL 1 DAY - INTERVAL 1 MONTH AND Start < LAST_DAY(CURRENT_DATE) + INTERVAL 1 DAY;";
+    public static AppointmentStore getAppointmentStore() throws SQLException {
+        String queryStatement = "SELECT * FROM appointments;";
 
         DBQuery.setPreparedStatement(DBConnection.getConnection(), queryStatement);
         PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
 
-
         try {
-            preparedStatement.execute();
-            ResultSet resultSet = preparedStatement.getResultSet();
-
+            ResultSet resultSet = preparedStatement.executeQuery();
+            AppointmentStore appointments = new AppointmentStore();
             while (resultSet.next()) {
-                Appointment newAppointment = new Appointment(
-                        resultSet.getInt("Appointment_ID"),
-                        resultSet.getString("Title"),
-                        resultSet.getString("Description"),
-                        resultSet.getString("Location"),
-                        resultSet.getString("Type"),
-                        resultSet.getDate("Start").toLocalDate(),
-                        resultSet.getTimestamp("Start").toLocalDateTime(),
-                        resultSet.getDate("End").toLocalDate(),
-                        resultSet.getTimestamp("End").toLocalDateTime(),
-                        resultSet.getInt("Customer_ID"),
-                        resultSet.getInt("User_ID"),
-                        resultSet.getInt("Contact_ID")
-
-                );
-                appointments.add(newAppointment);
+                appointments.add(mapAppointment(resultSet));
             }
             return appointments;
         } catch (Exception e) {
@@ -92,40 +103,78 @@ public class DBAppointments {
         }
     }
 
-    /** This method retrieves a list of Appointments over the previous seven days.
-     * @return Returns an ObservableList list of appointments.
-     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
-    public static ObservableList<Appointment> getAppointmentsByWeek() throws SQLException {
-        ObservableList<Appointment> appointments = FXCollections.observableArrayList();
-
-        String queryStatement = "SELECT * from appointments WHERE YEARWEEK(`Start`, 1) = YEARWEEK(CURDATE(), 0);";
+    /** This method retrieves the Appointments that overlap a range of time, earliest first.
+     * It uses its own statement on the background connection instead of the shared one in DBQuery, so it can run on a background thread.
+     * @param from LocalDateTime the range starts at.
+     * @param to LocalDateTime the range ends at, not included.
+     * @return Returns a List of appointments, or null if the query failed. */
+    public static List<Appointment> getAppointmentsBetween(LocalDateTime from, LocalDateTime to) {
+        String queryStatement = "SELECT * FROM appointments WHERE Start < ? AND End > ? ORDER BY Start;";
+
+        try (PreparedStatement preparedStatement = DBConnection.getBackgroundConnection().prepareStatement(queryStatement)) {
+            preparedStatement.setTimestamp(1, Timestamp.valueOf(to));
+            preparedStatement.setTimestamp(2, Timestamp.valueOf(from));
+
+            List<Appointment> appointments = new ArrayList<>();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    appointments.add(mapAppointment(resultSet));
+                }
+            }
+            return appointments;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
 
-        DBQuery.setPreparedStatement(DBConnection.getConnection(), queryStatement);
-        PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
+    /** This method retrieves the Appointments that were created or changed at or after the watermark.
+     * It uses its own statement on the background connection instead of the shared one in DBQuery, so it can run on a background thread.
+     * @param watermark LocalDateTime of the last poll on the database server clock
+     * @return Returns a List of changed appointments, or null if the query failed. */
+    public static List<Appointment> getAppointmentsUpdatedSince(LocalDateTime watermark) {
+        String queryStatement = "SELECT * FROM appointments WHERE Last_Update >= ?;";
+
+        try (PreparedStatement preparedStatement = DBConnection.getBackgroundConnection().prepareStatement(queryStatement)) {
+            preparedStatement.setTimestamp(1, Timestamp.valueOf(watermark));
+
+            List<Appointment> appointments = new ArrayList<>();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    appointments.add(mapAppointment(resultSet));
+                }
+            }
+            return appointments;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
 
-        try {
-            preparedStatement.execute();
-            ResultSet resultSet = preparedStatement.getResultSet();
+    /** This method counts the Appointments in the database so deletions at other desks can be noticed.
+     * It uses its own statement on the background connection instead of the shared one in DBQuery, so it can run on a background thread.
+     * @return Returns the number of appointments, or -1 if the count failed. */
+    public static int getAppointmentCount() {
+        try (PreparedStatement preparedStatement = DBConnection.getBackgroundConnection().prepareStatement("SELECT COUNT(*) FROM appointments;");
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            return resultSet.next() ? resultSet.getInt(1) : -1;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return -1;
+        }
+    }
 
+    /** This method retrieves only the IDs of every Appointment in the database.
+     * It uses its own statement on the background connection instead of the shared one in DBQuery, so it can run on a background thread.
+     * @return Returns a Set of Appointment IDs, or null if the query failed. */
+    public static Set<Integer> getAppointmentIds() {
+        try (PreparedStatement preparedStatement = DBConnection.getBackgroundConnection().prepareStatement("SELECT Appointment_ID FROM appointments;");
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            Set<Integer> appointmentIds = new HashSet<>();
             while (resultSet.next()) {
-                Appointment newAppointment = new Appointment(
-                        resultSet.getInt("Appointment_ID"),
-                        resultSet.getString("Title"),
-                        resultSet.getString("Description"),
-                        resultSet.getString("Location"),
-                        resultSet.getString("Type"),
-                        resultSet.getDate("Start").toLocalDate(),
-                        resultSet.getTimestamp("Start").toLocalDateTime(),
-                        resultSet.getDate("End").toLocalDate(),
-                        resultSet.getTimestamp("End").toLocalDateTime(),
-                        resultSet.getInt("Customer_ID"),
-                        resultSet.getInt("User_ID"),
-                        resultSet.getInt("Contact_ID")
-                );
-
-                appointments.add(newAppointment);
+                appointmentIds.add(resultSet.getInt(1));
             }
-            return appointments;
+            return appointmentIds;
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
             return null;
@@ -142,15 +191,15 @@ public class DBAppointments {
      * @param end LocalDateTime value of Appointment End
      * @param customerId Int value of Customer ID
      * @param userID Int value of User ID
-     * @return Returns Boolean true if the appointment was successfully created and false if not.
+     * @return Returns the created Appointment with its generated Appointment ID, or null if it was not created.
      * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
-    public static boolean createAppointment(String contactName, String title, String description, String location, String type, LocalDateTime start, LocalDateTime end, Integer customerId, Integer userID) throws SQLException {
+    public static Appointment createAppointment(String contactName, String title, String description, String location, String type, LocalDateTime start, LocalDateTime end, Integer customerId, Integer userID) throws SQLException {
 
         Contact contact = DBContacts.getContactId(contactName);
 
-        String insertStatement = "INSERT INTO appointments(Title, Description, Location, Type, Start, End, Customer_ID, Contact_ID, User_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String insertStatement = "INSERT INTO appointments(Title, Description, Location, Type, Start, End, Customer_ID, Contact_ID, User_ID, Create_Date, Last_Update) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())";
 
-        DBQuery.setPreparedStatement(DBConnection.getConnection(), insertStatement);
+        DBQuery.setPreparedStatement(DBConnection.getConnection(), insertStatement, Statement.RETURN_GENERATED_KEYS);
         PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
 
         preparedStatement.setString(1, title);
@@ -170,10 +219,14 @@ public class DBAppointments {
             } else {
                 System.out.println("No change has occurred.");
             }
-            return true;
+            ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+            if (generatedKeys.next()) {
+                return getAppointmentByAppointmentID(generatedKeys.getInt(1));
+            }
+            return null;
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
-            return false;
+            return null;
         }
     }
 
@@ -214,12 +267,15 @@ public class DBAppointments {
      * @param customerId Int value of Customer ID
      * @param userID Int value of User ID
      * @param appointmentID Int value of Appointment ID
-     * @return Boolean Returns true if the appointment was successfully updated and false if the appointment update failed
+     * @param expectedVersion LocalDateTime value of Last Update when the appointment was read, the update only happens if it still matches
+     * @return Returns UPDATED with the saved Appointment, CONFLICT with the current Appointment (null if deleted) if it was changed at another desk, or FAILED
      * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
-    public static boolean updateAppointment(String contactName, String title, String description, String location, String type, LocalDateTime start, LocalDateTime end, Integer customerId, Integer userID, Integer appointmentID) throws SQLException {
+    public static UpdateResult<Appointment> updateAppointment(String contactName, String title, String description, String location, String type, LocalDateTime start, LocalDateTime end, Integer customerId, Integer userID, Integer appointmentID, LocalDateTime expectedVersion) throws SQLException {
         Contact contact = DBContacts.getContactId(contactName);
 
-        String updateStatement = "UPDATE appointments SET Title=?, Description=?, Location=?, Type=?, Start=?, End=?, Customer_ID=?, Contact_ID=?, User_ID=? WHERE Appointment_ID = ?;";
+        // Last_Update is the row version.
+        String updateStatement = "UPDATE appointments SET Title=?, Description=?, Location=?, Type=?, Start=?, End=?, Customer_ID=?, Contact_ID=?, User_ID=?, " +
+                "Last_Update=" + nextVersion() + " WHERE Appointment_ID = ? AND Last_Update " + DBConnection.getBackend().nullSafeEquals() + " ?;";
 
         DBQuery.setPreparedStatement(DBConnection.getConnection(), updateStatement);
         PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
@@ -234,21 +290,263 @@ public class DBAppointments {
         preparedStatement.setInt(8, contact.getContactId());
         preparedStatement.setInt(9, userID);
         preparedStatement.setInt(10, appointmentID);
+        setVersion(preparedStatement, 11, expectedVersion);
 
         try {
             preparedStatement.execute();
             if (preparedStatement.getUpdateCount() > 0) {
                 System.out.println("Rows affected: " + preparedStatement.getUpdateCount());
+                return UpdateResult.updated(getAppointmentByAppointmentID(appointmentID));
+            }
+            System.out.println("Appointment " + appointmentID + " was changed at another desk.");
+            return UpdateResult.conflict(getAppointmentByAppointmentID(appointmentID));
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return UpdateResult.failed();
+        }
+    }
+
+    /** This method deletes every Appointment in the list as one batched transaction.
+     * Either all of the appointments are deleted or none of them are.
+     * @param appointmentIds List of Appointment IDs to delete
+     * @return Boolean Returns true if the appointments were deleted and false if the batch was rolled back
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static boolean deleteAppointments(List<Integer> appointmentIds) throws SQLException {
+        String deleteStatement = "DELETE from appointments WHERE Appointment_ID=?";
+
+        DBQuery.setPreparedStatement(DBConnection.getConnection(), deleteStatement);
+        PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
+
+        for (Integer appointmentId : appointmentIds) {
+            preparedStatement.setInt(1, appointmentId);
+            preparedStatement.addBatch();
+        }
+
+        return executeBatch(preparedStatement);
+    }
+
+    /** This method moves every Appointment in the list by the same number of minutes as one batched transaction.
+     * Each row is only moved if it still has the Last_Update it was read with, otherwise none of them are.
+     * @param appointments List of Appointments to move, as they were read
+     * @param minutes Number of minutes to move each appointment, negative values move them earlier
+     * @return Returns UPDATED with the moved Appointments, CONFLICT with every Appointment of the list as it is now if any was changed
+     * or deleted at another desk (the deleted ones missing), or FAILED if the batch was rolled back
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static UpdateResult<List<Appointment>> shiftAppointments(List<Appointment> appointments, long minutes) throws SQLException {
+        String updateStatement = "UPDATE appointments SET Start=?, End=?, Last_Update=" + nextVersion() + " WHERE Appointment_ID=? AND Last_Update "
+                + DBConnection.getBackend().nullSafeEquals() + " ?";
+
+        DBQuery.setPreparedStatement(DBConnection.getConnection(), updateStatement);
+        PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
+
+        for (Appointment appointment : appointments) {
+            preparedStatement.setTimestamp(1, Timestamp.valueOf(appointment.getStartTime().plusMinutes(minutes)));
+            preparedStatement.setTimestamp(2, Timestamp.valueOf(appointment.getEndTime().plusMinutes(minutes)));
+            preparedStatement.setInt(3, appointment.getAppointmentId());
+            setVersion(preparedStatement, 4, appointment.getLastUpdate());
+            preparedStatement.addBatch();
+        }
+
+        return executeVersionedBatch(preparedStatement, appointments);
+    }
+
+    /** This method reassigns every Appointment in the list to a new Contact and/or User as one batched transaction.
+     * Each row is only reassigned if it still has the Last_Update it was read with, otherwise none of them are.
+     * @param appointments List of Appointments to reassign, as they were read
+     * @param contactId Int value of the new Contact ID, or null to keep each appointment's contact
+     * @param userId Int value of the new User ID, or null to keep each appointment's user
+     * @return Returns UPDATED with the reassigned Appointments, CONFLICT with every Appointment of the list as it is now if any was changed
+     * or deleted at another desk (the deleted ones missing), or FAILED if the batch was rolled back
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static UpdateResult<List<Appointment>> reassignAppointments(List<Appointment> appointments, Integer contactId, Integer userId) throws SQLException {
+        String updateStatement = "UPDATE appointments SET Contact_ID=COALESCE(?, Contact_ID), User_ID=COALESCE(?, User_ID), Last_Update=" + nextVersion()
+                + " WHERE Appointment_ID=? AND Last_Update " + DBConnection.getBackend().nullSafeEquals() + " ?";
+
+        DBQuery.setPreparedStatement(DBConnection.getConnection(), updateStatement);
+        PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
+
+        for (Appointment appointment : appointments) {
+            if (contactId == null) {
+                preparedStatement.setNull(1, Types.INTEGER);
             } else {
-                System.out.println("No change has occurred.");
+                preparedStatement.setInt(1, contactId);
             }
-            return true;
+            if (userId == null) {
+                preparedStatement.setNull(2, Types.INTEGER);
+            } else {
+                preparedStatement.setInt(2, userId);
+            }
+            preparedStatement.setInt(3, appointment.getAppointmentId());
+            setVersion(preparedStatement, 4, appointment.getLastUpdate());
+            preparedStatement.addBatch();
+        }
+
+        return executeVersionedBatch(preparedStatement, appointments);
+    }
+
+    /** The new Last_Update of a changed row. GREATEST makes sure two saves within the same second still change it. */
+    private static String nextVersion() {
+        return "GREATEST(NOW(), " + DBConnection.getBackend().addSeconds("COALESCE(Last_Update, NOW())", 1) + ")";
+    }
+
+    private static void setVersion(PreparedStatement preparedStatement, int parameter, LocalDateTime version) throws SQLException {
+        if (version == null) {
+            preparedStatement.setNull(parameter, Types.TIMESTAMP);
+        } else {
+            preparedStatement.setTimestamp(parameter, Timestamp.valueOf(version));
+        }
+    }
+
+    /** This method runs a batch of version-checked updates, one per appointment, inside a single transaction.
+     * A statement that updated no row means its appointment was changed or deleted at another desk, and the whole batch is then
+     * rolled back. A statement the driver ran without reporting a count is taken as updated.
+     * @param preparedStatement Prepared Statement with the batch already added, in the order of the appointments
+     * @param appointments List of Appointments the batch updates
+     * @return Returns UPDATED with the updated Appointments as they are now, CONFLICT with every Appointment of the batch as it is now
+     * (the deleted ones missing), or FAILED
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    private static UpdateResult<List<Appointment>> executeVersionedBatch(PreparedStatement preparedStatement, List<Appointment> appointments) throws SQLException {
+        List<Integer> updatedIds = new ArrayList<>();
+        List<Integer> staleIds = new ArrayList<>();
+        try (DBTransaction transaction = DBTransaction.begin()) {
+            int[] counts = preparedStatement.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    staleIds.add(appointments.get(i).getAppointmentId());
+                } else {
+                    updatedIds.add(appointments.get(i).getAppointmentId());
+                }
+            }
+            if (!staleIds.isEmpty()) {
+                // Closing the transaction without committing rolls the batch back.
+                System.out.println("Appointment(s) " + staleIds + " were changed at another desk.");
+            } else {
+                transaction.commit();
+                System.out.println("Rows affected: " + updatedIds.size());
+            }
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+            return UpdateResult.failed();
+        }
+
+        if (!staleIds.isEmpty()) {
+            List<Integer> batchIds = new ArrayList<>(updatedIds);
+            batchIds.addAll(staleIds);
+            List<Appointment> current = getAppointmentsByIds(batchIds);
+            return current == null ? UpdateResult.failed() : UpdateResult.conflict(current);
+        }
+        List<Appointment> updated = getAppointmentsByIds(updatedIds);
+        return updated == null ? UpdateResult.failed() : UpdateResult.updated(updated);
+    }
+
+    /** This method retrieves the Appointments with the given IDs in one query. IDs that no longer exist are left out.
+     * @param appointmentIds List of Appointment IDs
+     * @return Returns a List of appointments, or null if the query failed. */
+    public static List<Appointment> getAppointmentsByIds(List<Integer> appointmentIds) {
+        List<Appointment> appointments = new ArrayList<>();
+        if (appointmentIds.isEmpty()) {
+            return appointments;
+        }
+        String queryStatement = "SELECT * FROM appointments WHERE Appointment_ID IN ("
+                + String.join(", ", Collections.nCopies(appointmentIds.size(), "?")) + ");";
+
+        try (PreparedStatement preparedStatement = DBConnection.getConnection().prepareStatement(queryStatement)) {
+            for (int i = 0; i < appointmentIds.size(); i++) {
+                preparedStatement.setInt(i + 1, appointmentIds.get(i));
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    appointments.add(mapAppointment(resultSet));
+                }
+            }
+            return appointments;
         } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** This method runs the queued batch on the prepared statement inside a single transaction.
+     * The batch is rolled back if any statement fails. If the caller already has a DBTransaction open
+     * the batch becomes part of it.
+     * @param preparedStatement Prepared Statement with the batch already added
+     * @return Boolean Returns true if the batch was committed and false if it was rolled back
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    private static boolean executeBatch(PreparedStatement preparedStatement) throws SQLException {
+        try (DBTransaction transaction = DBTransaction.begin()) {
+            int[] counts = preparedStatement.executeBatch();
+            transaction.commit();
+            // A driver may report SUCCESS_NO_INFO instead of a count for a statement that ran.
+            int rows = 0;
+            int unknown = 0;
+            for (int count : counts) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    unknown++;
+                } else {
+                    rows += count;
+                }
+            }
+            System.out.println("Rows affected: " + rows + (unknown > 0 ? " plus " + unknown + " statement(s) that did not report a count" : ""));
+            return true;
+        } catch (SQLException e) {
             System.out.println("Error: " + e.getMessage());
             return false;
         }
     }
 
+    /** This method finds an appointment that overlaps a time range and shares its customer, its contact or its user with it,
+     * in one query, for when the appointments are not cached.
+     * @param customerId Int value of Customer ID
+     * @param contactId Int value of Contact ID
+     * @param userId Int value of User ID
+     * @param start LocalDateTime start of the range
+     * @param end LocalDateTime end of the range
+     * @param ignoredAppointmentId Int value of an Appointment ID to leave out, such as the appointment being edited, or 0
+     * @return The first conflicting Appointment, or null if there is none
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static Appointment findConflict(int customerId, int contactId, int userId, LocalDateTime start, LocalDateTime end, int ignoredAppointmentId) throws SQLException {
+        return findConflict(customerId, contactId, userId, start, end, Set.of(ignoredAppointmentId));
+    }
+
+    /** This method finds an appointment that overlaps a time range and shares its customer, its contact or its user with it,
+     * leaving out several appointments, such as ones being moved together.
+     * @param customerId Int value of Customer ID
+     * @param contactId Int value of Contact ID
+     * @param userId Int value of User ID
+     * @param start LocalDateTime start of the range
+     * @param end LocalDateTime end of the range
+     * @param ignoredAppointmentIds Appointment IDs to leave out, at least one
+     * @return The first conflicting Appointment, or null if there is none
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static Appointment findConflict(int customerId, int contactId, int userId, LocalDateTime start, LocalDateTime end, Set<Integer> ignoredAppointmentIds) throws SQLException {
+        String queryStatement = "SELECT * FROM appointments WHERE Start < ? AND End > ? AND Appointment_ID NOT IN ("
+                + String.join(", ", Collections.nCopies(ignoredAppointmentIds.size(), "?")) + ") " +
+                "AND (Customer_ID = ? OR Contact_ID = ? OR User_ID = ?) ORDER BY Start LIMIT 1;";
+
+        DBQuery.setPreparedStatement(DBConnection.getConnection(), queryStatement);
+        PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
+
+        int parameter = 1;
+        preparedStatement.setTimestamp(parameter++, Timestamp.valueOf(end));
+        preparedStatement.setTimestamp(parameter++, Timestamp.valueOf(start));
+        for (int ignoredAppointmentId : ignoredAppointmentIds) {
+            preparedStatement.setInt(parameter++, ignoredAppointmentId);
+        }
+        preparedStatement.setInt(parameter++, customerId);
+        preparedStatement.setInt(parameter++, contactId);
+        preparedStatement.setInt(parameter, userId);
+
+        try {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            if (resultSet.next()) {
+                return mapAppointment(resultSet);
+            }
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+        return null;
+    }
+
     /** This method gets an Appointment by Customer ID using a join function.
      * @param CustomerID Int value of Customer ID
      * @return ObservableList List of appointments
@@ -268,20 +566,7 @@ public class DBAppointments {
             ResultSet resultSet = preparedStatement.getResultSet();
 
             while (resultSet.next()) {
-                Appointment newAppointment = new Appointment(
-                        resultSet.getInt("Appointment_ID"),
-                        resultSet.getString("Title"),
-                        resultSet.getString("Description"),
-                        resultSet.getString("Location"),
-                        resultSet.getString("Type"),
-                        resultSet.getDate("Start").toLocalDate(),
-                        resultSet.getTimestamp("Start").toLocalDateTime(),
-                        resultSet.getDate("End").toLocalDate(),
-                        resultSet.getTimestamp("End").toLocalDateTime(),
-                        resultSet.getInt("Customer_ID"),
-                        resultSet.getInt("User_ID"),
-                        resultSet.getInt("Contact_ID")
-                );
+                Appointment newAppointment = mapAppointment(resultSet);
 
                 appointments.add(newAppointment);
             }
@@ -311,20 +596,7 @@ public class DBAppointments {
             ResultSet resultSet = preparedStatement.getResultSet();
 
             while (resultSet.next()) {
-                Appointment newAppointment = new Appointment(
-                        resultSet.getInt("Appointment_ID"),
-                        resultSet.getString("Title"),
-                        resultSet.getString("Description"),
-                        resultSet.getString("Location"),
-                        resultSet.getString("Type"),
-                        resultSet.getDate("Start").toLocalDate(),
-                        resultSet.getTimestamp("Start").toLocalDateTime(),
-                        resultSet.getDate("End").toLocalDate(),
-                        resultSet.getTimestamp("End").toLocalDateTime(),
-                        resultSet.getInt("Customer_ID"),
-                        resultSet.getInt("User_ID"),
-                        resultSet.getInt("Contact_ID")
-                );
+                Appointment newAppointment = mapAppointment(resultSet);
 
                 return newAppointment;
             }
@@ -334,7 +606,20 @@ public class DBAppointments {
         return null;
     }
 
+    /** This method retrieves the recurring appointments for a report, which counts their occurrences as appointments.
+     * @return Returns a List of series, empty if they could not be loaded. */
+    private static List<AppointmentSeries> reportSeries() {
+        try {
+            List<AppointmentSeries> series = DBAppointmentSeries.getSeries();
+            return series != null ? series : List.of();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
     /** This method delivers a report specified by the type and by the month.
+     * The occurrences of recurring appointments are counted with the appointments.
      * @return Report of the appointments by type and month */
 
      // Not the prettiest format. But, you work with what you've got.
@@ -342,17 +627,37 @@ public class DBAppointments {
         try {
             StringBuilder reportAppointmentPerTypeMonth = new StringBuilder("Month          |      Type         |           Total            ");
             reportAppointmentPerTypeMonth.append("\n");
-            String sql = "SELECT MONTHNAME(start) as Month, Type, COUNT(*)  as Amount FROM appointments GROUP BY MONTH(start), type";
+            List<AppointmentSeries> series = reportSeries();
+            String sql = "SELECT MONTH(start) as Month, Type, COUNT(*)  as Amount FROM appointments GROUP BY MONTH(start), type";
 
             PreparedStatement preparedStatement = DBConnection.getConnection().prepareStatement(sql);
 
+            // Amounts by month number, then by type in the order they come.
+            Map<Integer, Map<String, Integer>> amounts = new TreeMap<>();
             ResultSet resultSet = preparedStatement.executeQuery();
             while (resultSet.next()) {
-                String month = resultSet.getString("Month");
+                int month = resultSet.getInt("Month");
                 String type = resultSet.getString("Type");
-                String amount = resultSet.getString("Amount");
+                int amount = resultSet.getInt("Amount");
+                amounts.computeIfAbsent(month, key -> new LinkedHashMap<>()).merge(String.valueOf(type), amount, Integer::sum);
+            }
+            // Occurrences are counted from the rule one month at a time, never listed.
+            for (AppointmentSeries recurring : series) {
+                LocalDate until = recurring.getRule().getUntil();
+                for (LocalDate month = recurring.getStartTime().toLocalDate().withDayOfMonth(1); !month.isAfter(until); month = month.plusMonths(1)) {
+                    int occurrences = recurring.countOccurrences(month, month.withDayOfMonth(month.lengthOfMonth()));
+                    if (occurrences > 0) {
+                        amounts.computeIfAbsent(month.getMonthValue(), key -> new LinkedHashMap<>())
+                                .merge(String.valueOf(recurring.getType()), occurrences, Integer::sum);
+                    }
+                }
+            }
 
-                reportAppointmentPerTypeMonth.append(month + "\t\t\t" + type + "\t\t\t" + amount + "\n");
+            for (Map.Entry<Integer, Map<String, Integer>> month : amounts.entrySet()) {
+                String monthName = Month.of(month.getKey()).getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+                for (Map.Entry<String, Integer> type : month.getValue().entrySet()) {
+                    reportAppointmentPerTypeMonth.append(monthName + "\t\t\t" + type.getKey() + "\t\t\t" + type.getValue() + "\n");
+                }
             }
             return reportAppointmentPerTypeMonth.toString();
         } catch (SQLException e) {
@@ -362,6 +667,8 @@ public class DBAppointments {
     }
 
     /** This method delivers a report specified by the Contact in the database.
+     * Each recurring appointment is listed once after the appointments of its contact, as Series and the Series ID,
+     * with its first occurrence, how it repeats and how many times.
      * @return Report that shows amount of schedules by contact */
 
      //Also did the best I could on the formatting.
@@ -369,10 +676,13 @@ public class DBAppointments {
         try {
 
             StringBuilder reportAppointmentEachContact = new StringBuilder("Contact ID | Appointment ID | Customer ID | Title | Type | Description | Start | End\n");
+            List<AppointmentSeries> series = reportSeries();
             String sql = "SELECT Contact_ID, Appointment_ID, Customer_ID, Title, Type, Description, Start, End FROM appointments ORDER BY Contact_ID ";
 
             PreparedStatement preparedStatement = DBConnection.getConnection().prepareStatement(sql);
 
+            // Lines by Contact ID, so the occurrences can join the appointments of their contact.
+            Map<Integer, StringBuilder> lines = new TreeMap<>();
             ResultSet resultSet = preparedStatement.executeQuery();
 
             while (resultSet.next()) {
@@ -385,7 +695,19 @@ public class DBAppointments {
                 LocalDateTime start = resultSet.getTimestamp("Start").toLocalDateTime();
                 LocalDateTime end = resultSet.getTimestamp("End").toLocalDateTime();
 
-                reportAppointmentEachContact.append("\n\n" + contactID + "\t" + appointmentID + "\t" + customerID + "\t" + title + "\t" + type + "\t" + description + "\t" + start + "\t" + end + "\n");
+                lines.computeIfAbsent(contactID, key -> new StringBuilder())
+                        .append("\n\n" + contactID + "\t" + appointmentID + "\t" + customerID + "\t" + title + "\t" + type + "\t" + description + "\t" + start + "\t" + end + "\n");
+            }
+            for (AppointmentSeries recurring : series) {
+                RecurrenceRule rule = recurring.getRule();
+                int occurrences = recurring.countOccurrences(recurring.getStartTime().toLocalDate(), rule.getUntil());
+                lines.computeIfAbsent(recurring.getContactId(), key -> new StringBuilder())
+                        .append("\n\n" + recurring.getContactId() + "\tSeries " + recurring.getSeriesId() + "\t" + recurring.getCustomerId() + "\t" + recurring.getTitle() + "\t" + recurring.getType() + "\t" + recurring.getDescription() + "\t" + recurring.getStartTime() + "\t" + recurring.getEndTime()
+                                + "\t" + rule.getFrequency() + " every " + rule.getInterval() + " until " + rule.getUntil() + ", " + occurrences + " times\n");
+            }
+
+            for (StringBuilder contactLines : lines.values()) {
+                reportAppointmentEachContact.append(contactLines);
             }
             return reportAppointmentEachContact.toString();
         } catch (SQLException e) {
@@ -396,6 +718,7 @@ public class DBAppointments {
     }
 
     /** This method delivers a report specified by the Customer ID in the database.
+     * The occurrences of recurring appointments are counted with the appointments.
      * @return Report of amount of types by customerID. */
 
     //This formatting turned out nice.
@@ -404,17 +727,33 @@ public class DBAppointments {
         try {
             StringBuilder reportAppointmentPerTypeLocation = new StringBuilder("Customer ID     |     Total     |    Type   \n");
             reportAppointmentPerTypeLocation.append("\n");
+            List<AppointmentSeries> series = reportSeries();
 
             String sql = "SELECT Customer_ID, Type, COUNT(*)  as Amount FROM appointments GROUP BY Customer_ID, type";
 
             PreparedStatement preparedStatement = DBConnection.getConnection().prepareStatement(sql);
 
+            // Amounts by Customer ID in the order they come, then by type.
+            Map<Integer, Map<String, Integer>> amounts = new LinkedHashMap<>();
             ResultSet resultSet = preparedStatement.executeQuery();
             while (resultSet.next()) {
-                String customerId = resultSet.getString("Customer_ID");
+                int customerId = resultSet.getInt("Customer_ID");
                 String type = resultSet.getString("Type");
-                String amount = resultSet.getString("Amount");
-                reportAppointmentPerTypeLocation.append(customerId + "\t\t\t\t" + amount + "\t\t" + type + "\n");
+                int amount = resultSet.getInt("Amount");
+                amounts.computeIfAbsent(customerId, key -> new LinkedHashMap<>()).merge(String.valueOf(type), amount, Integer::sum);
+            }
+            for (AppointmentSeries recurring : series) {
+                int occurrences = recurring.countOccurrences(recurring.getStartTime().toLocalDate(), recurring.getRule().getUntil());
+                if (occurrences > 0) {
+                    amounts.computeIfAbsent(recurring.getCustomerId(), key -> new LinkedHashMap<>())
+                            .merge(String.valueOf(recurring.getType()), occurrences, Integer::sum);
+                }
+            }
+
+            for (Map.Entry<Integer, Map<String, Integer>> customer : amounts.entrySet()) {
+                for (Map.Entry<String, Integer> type : customer.getValue().entrySet()) {
+                    reportAppointmentPerTypeLocation.append(customer.getKey() + "\t\t\t\t" + type.getValue() + "\t\t" + type.getKey() + "\n");
+                }
             }
             return reportAppointmentPerTypeLocation.toString();
         } catch (SQLException e) {
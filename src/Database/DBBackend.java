@@ -0,0 +1,124 @@
+package Database;
+
+import java.util.Properties;
+
+/** This enum is the kind of database the app connects to, and the bits of SQL that differ between them.
+ * MYSQL is the shared client_schedule server every desk uses. EMBEDDED is an H2 database in a file under the
+ * user's home folder, for a single desk with no server, and MEMORY is an H2 database that only lasts as long as
+ * the app, for benchmarks and load tests. Both H2 kinds run in MySQL mode and get the schema and seed data the
+ * first time they are opened. The backend is picked with the db.backend setting of DBConfig, MYSQL if it is not set,
+ * and db.url, db.user and db.password replace the built-in connection details of the backend when they are set.
+ * No password is built in, so a MySQL site has to set db.password. */
+public enum DBBackend {
+
+    MYSQL("com.mysql.cj.jdbc.Driver",
+            "jdbc:mysql://localhost:3306/client_schedule?connectionTimeZone=SERVER",
+            "sqlUser",
+            "") {
+        @Override
+        public Properties connectionProperties() {
+            Properties properties = super.connectionProperties();
+            if (properties.getProperty("password").isEmpty()) {
+                System.out.println("Error: db.password is not set, connecting to MySQL without a password");
+            }
+            // Timeouts are in milliseconds, 0 waits forever.
+            properties.setProperty("connectTimeout", String.valueOf(DBConfig.getInt("db.connectTimeout", 10000)));
+            properties.setProperty("socketTimeout", String.valueOf(DBConfig.getInt("db.socketTimeout", 0)));
+            // Rows per round trip, 0 fetches whole results at once. Only used with useCursorFetch.
+            properties.setProperty("defaultFetchSize", String.valueOf(DBConfig.getInt("db.fetchSize", 0)));
+            properties.setProperty("useCursorFetch", String.valueOf(DBConfig.getBoolean("db.useCursorFetch", false)));
+            // The shared statement is prepared again for every query, the driver's cache makes that cheap.
+            properties.setProperty("cachePrepStmts", String.valueOf(DBConfig.getBoolean("db.cachePrepStmts", true)));
+            properties.setProperty("prepStmtCacheSize", String.valueOf(DBConfig.getInt("db.statementCacheSize", 250)));
+            properties.setProperty("prepStmtCacheSqlLimit", String.valueOf(DBConfig.getInt("db.statementCacheSqlLimit", 2048)));
+            properties.setProperty("useServerPrepStmts", String.valueOf(DBConfig.getBoolean("db.useServerPrepStmts", false)));
+            properties.setProperty("rewriteBatchedStatements", String.valueOf(DBConfig.getBoolean("db.rewriteBatchedStatements", true)));
+            return properties;
+        }
+
+        @Override
+        public String nullSafeEquals() {
+            return "<=>";
+        }
+
+        @Override
+        public String addSeconds(String expression, int seconds) {
+            return expression + " + INTERVAL " + seconds + " SECOND";
+        }
+    },
+
+    EMBEDDED("org.h2.Driver",
+            "jdbc:h2:~/.c195-scheduling/db/client_schedule;" + DBBackend.H2_MODE,
+            "sa",
+            ""),
+
+    MEMORY("org.h2.Driver",
+            "jdbc:h2:mem:client_schedule;DB_CLOSE_DELAY=-1;" + DBBackend.H2_MODE,
+            "sa",
+            "");
+
+    /** H2 settings that let the MySQL queries run unchanged, End and Month are column names here, not keywords. */
+    private static final String H2_MODE = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=END,MONTH";
+
+    private final String driver;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    DBBackend(String driver, String url, String username, String password) {
+        this.driver = driver;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    /** This method finds the backend named by the db.backend setting.
+     * @return The named DBBackend, or MYSQL if the setting is not set or names no backend. */
+    public static DBBackend fromConfig() {
+        String name = DBConfig.get("db.backend", "MYSQL");
+        try {
+            return valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: Unknown backend " + name + ", using MYSQL");
+            return MYSQL;
+        }
+    }
+
+    /** @return The class name of the JDBC driver. */
+    public String getDriver() {
+        return driver;
+    }
+
+    /** @return The JDBC URL of the database. */
+    public String getUrl() {
+        return DBConfig.get("db.url", url);
+    }
+
+    /** This method gives the user name, password and driver settings to connect with.
+     * @return Properties for DriverManager.getConnection. */
+    public Properties connectionProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("user", DBConfig.get("db.user", username));
+        properties.setProperty("password", DBConfig.get("db.password", password));
+        return properties;
+    }
+
+    /** @return Boolean true if the database runs inside the app and has to be given its schema by the app. */
+    public boolean isEmbedded() {
+        return this != MYSQL;
+    }
+
+    /** This method gives the operator that compares two values and treats two nulls as equal.
+     * @return The operator, to be placed between the two values. */
+    public String nullSafeEquals() {
+        return "IS NOT DISTINCT FROM";
+    }
+
+    /** This method gives an expression that adds seconds to a date and time.
+     * @param expression SQL expression of a date and time.
+     * @param seconds Number of seconds to add.
+     * @return The SQL expression of the later date and time. */
+    public String addSeconds(String expression, int seconds) {
+        return "DATEADD(SECOND, " + seconds + ", " + expression + ")";
+    }
+}
@@ -0,0 +1,80 @@
+package Database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/** This class reads the database settings of a site, so they can be tuned without rebuilding the app.
+ * Each setting is looked up, in order, in a system property (-Dc195.db.fetchSize), an environment variable
+ * (db.fetchSize is C195_DB_FETCHSIZE), and the settings file, before falling back to the built-in value,
+ * so a -D option given for one run overrides what the site sets in its environment.
+ * The settings file is the one named by the c195.config system property or C195_CONFIG environment variable,
+ * or else ~/.c195-scheduling/db.properties if there is one. */
+public class DBConfig {
+
+    private static final Properties file = loadFile();
+
+    /** This method reads a setting.
+     * @param key Name of the setting, such as db.url.
+     * @param defaultValue Value used when the setting is not set anywhere.
+     * @return The value of the setting. */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty("c195." + key);
+        if (value == null) {
+            value = System.getenv("C195_" + key.toUpperCase().replace('.', '_'));
+        }
+        if (value == null) {
+            value = file.getProperty(key);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /** This method reads a whole number setting.
+     * @param key Name of the setting.
+     * @param defaultValue Value used when the setting is not set anywhere, or is not a number.
+     * @return The value of the setting. */
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.out.println("Error: " + key + " is not a number: " + value);
+            return defaultValue;
+        }
+    }
+
+    /** This method reads a true or false setting.
+     * @param key Name of the setting.
+     * @param defaultValue Value used when the setting is not set anywhere.
+     * @return The value of the setting. */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    private static Properties loadFile() {
+        Properties properties = new Properties();
+        String name = System.getProperty("c195.config", System.getenv("C195_CONFIG"));
+        Path path = name != null ? Paths.get(name) : Paths.get(System.getProperty("user.home"), ".c195-scheduling", "db.properties");
+        if (!Files.exists(path)) {
+            if (name != null) {
+                System.out.println("Error: Settings file " + path + " does not exist");
+            }
+            return properties;
+        }
+
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+            System.out.println("Database settings read from " + path);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+        return properties;
+    }
+}
@@ -2,30 +2,65 @@ package Database;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 
-/**This class creates and closes the connection to a MySQL Database of the user's choice by changing the variable parameters. */
+/**This class creates and closes the connection to the database picked by the DBBackend, the MySQL server unless another backend is asked for.
+ * The connection details and driver settings come from DBConfig, so a site can change them without a rebuild.
+ * The JavaFX Application Thread has the connection to itself, with the transactions DBTransaction opens on it.
+ * Queries that run on background threads, such as change polling and range loading, use a second connection
+ * in auto-commit mode, so they never run inside those transactions or see their uncommitted rows. */
 public class DBConnection {
 
-    private static final String protocol = "jdbc";
-    private static final String vendorName = ":mysql";
-    private static final String ipAddress = "://localhost:3306/";
-    private static final String dbName = "client_schedule";
-    private static final String jdbcURL = protocol + vendorName + ipAddress + dbName + "?connectionTimeZone=SERVER";
-    private static final String MYSQLJDBCDriver = "com.mysql.cj.jdbc.Driver";
-    private static final String username = "sqlUser";
+    private static final DBBackend backend = DBBackend.fromConfig();
     private static Connection conn = null;
+    private static Connection backgroundConn = null;
     public static Connection getConnection(){
         return conn;
     }
 
-    /** This method begins a connection with the MYSQL Database specified above.
+    /** This method returns the connection for queries on background threads, opening it the first time.
+     * It is only used for reads in auto-commit mode, and the driver runs the queries of several threads on it one at a time.
+     * @return Connection for background threads, or null if it could not be opened */
+    public static synchronized Connection getBackgroundConnection() {
+        if (backgroundConn == null && conn != null) {
+            try {
+                backgroundConn = DriverManager.getConnection(backend.getUrl(), backend.connectionProperties());
+                if (DBConfig.getBoolean("db.instrument", true)) {
+                    backgroundConn = InstrumentedConnection.wrap(backgroundConn);
+                }
+            } catch (SQLException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+        return backgroundConn;
+    }
+
+    /** @return The backend the app connects to, which also gives the SQL that differs between databases. */
+    public static DBBackend getBackend() {
+        return backend;
+    }
+
+    /** @return The JDBC URL of the database, which tells apart the local caches of different databases. */
+    public static String getUrl() {
+        return backend.getUrl();
+    }
+
+    /** This method begins a connection with the database of the backend, and gives an embedded database its tables.
      * @return Connection conn to Database */
     public static Connection startConnection() {
         try {
-            Class.forName(MYSQLJDBCDriver);
+            Class.forName(backend.getDriver());
 
-            conn = DriverManager.getConnection(jdbcURL, username, "Passw0rd!");
+            conn = DriverManager.getConnection(backend.getUrl(), backend.connectionProperties());
+            if (DBConfig.getBoolean("db.instrument", true)) {
+                conn = InstrumentedConnection.wrap(conn);
+            }
+            if (backend.isEmbedded()) {
+                DBSchema.bootstrap(conn);
+            }
 
             System.out.println("Connection successful");
         } catch (SQLException e) {
@@ -36,9 +71,38 @@ public class DBConnection {
         return conn;
     }
 
-    /** This method closes the connection with the aforementioned MYSQL Database. */
-    public static void closeConnection() {
+    /** This method retrieves the current time on the database server clock, on the background connection.
+     * Change polling compares against the server clock so desks with drifting clocks still agree.
+     * @return LocalDateTime of the server's NOW(), or null if the query failed */
+    public static LocalDateTime getServerTime() {
+        Connection connection = getBackgroundConnection();
+        if (connection == null) {
+            return null;
+        }
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT NOW()");
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            return resultSet.next() ? resultSet.getTimestamp(1).toLocalDateTime() : null;
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
 
+    /** This method closes the connections with the database. */
+    public static void closeConnection() {
+        synchronized (DBConnection.class) {
+            if (backgroundConn != null) {
+                try {
+                    backgroundConn.close();
+                } catch (SQLException e) {
+                    System.out.println("Error: " + e.getMessage());
+                }
+                backgroundConn = null;
+            }
+        }
+        if (conn == null) {
+            return;
+        }
         try {
             conn.close();
             System.out.println("Connection closed");
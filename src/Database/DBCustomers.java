@@ -2,23 +2,65 @@ package Database;
 
 import Models.Customer;
 import Models.Division;
+import Models.DivisionLookup;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /** This class is the SQL connection to the customers table that does the data CRUD stuff. */
 public class DBCustomers {
 
-    /** This method retrieves all the Customers and First-Level-Division information joined on the Division ID.
+    /** The customers columns every query reads. Division and Country names come from the DivisionLookup instead of a join. */
+    private static final String COLUMNS = "Customer_ID, Customer_Name, Address, Postal_Code, Phone, Division_ID, Last_Update";
+
+    /** Loads the Division and Country names the first time customers are read.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    private static void loadDivisionNames() throws SQLException {
+        if (!DivisionLookup.isLoaded()) {
+            DBDivision.loadDivisionLookup();
+        }
+    }
+
+    /** This method builds a Customer from the current row of a customers query.
+     * @param resultSet ResultSet positioned on a customers row.
+     * @return Returns the Customer for that row.
+     * @throws SQLException Thrown if a column cannot be read. */
+    private static Customer mapCustomer(ResultSet resultSet) throws SQLException {
+        Customer customer = new Customer(
+                resultSet.getInt("Customer_ID"),
+                resultSet.getString("Customer_Name"),
+                resultSet.getString("Address"),
+                resultSet.getString("Postal_Code"),
+                resultSet.getString("Phone"),
+                resultSet.getInt("Division_ID")
+        );
+        Timestamp lastUpdate = resultSet.getTimestamp("Last_Update");
+        if (lastUpdate != null) {
+            customer.setLastUpdate(lastUpdate.toLocalDateTime());
+        }
+        return customer;
+    }
+
+    /** This method retrieves all the Customers. Their Division and Country names are resolved by Division ID when displayed.
      * @return Returns ObservableList list of Customers
      * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
     public static ObservableList<Customer> getCustomers() throws SQLException {
         ObservableList<Customer> customers = FXCollections.observableArrayList();
+        loadDivisionNames();
 
-        String searchStatement = "SELECT * FROM customers AS c INNER JOIN first_level_divisions AS d ON c.Division_ID = d.Division_ID INNER JOIN countries AS co ON co.Country_ID=d.Country_ID ORDER BY Customer_ID;";
+        String searchStatement = "SELECT " + COLUMNS + " FROM customers ORDER BY Customer_ID;";
 
         DBQuery.setPreparedStatement(DBConnection.getConnection(), searchStatement);
         PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
@@ -29,16 +71,7 @@ public class DBCustomers {
 
             while (resultSet.next()) {
 
-                Customer newCustomer = new Customer(
-                        resultSet.getInt("Customer_ID"),
-                        resultSet.getString("Customer_Name"),
-                        resultSet.getString("Address"),
-                        resultSet.getString("Postal_Code"),
-                        resultSet.getString("Phone"),
-                        resultSet.getString("Division"),
-                        resultSet.getString("Country"),
-                        resultSet.getInt("Division_ID")
-                        );
+                Customer newCustomer = mapCustomer(resultSet);
 
                 customers.add(newCustomer);
             }
@@ -49,21 +82,192 @@ public class DBCustomers {
         }
     }
 
+    /** This method retrieves the Customers that were created or changed at or after the watermark.
+     * It uses its own statement on the background connection instead of the shared one in DBQuery, so it can run on a background thread
+     * once the Division and Country names are loaded.
+     * @param watermark LocalDateTime of the last poll on the database server clock
+     * @return Returns a List of changed Customers, or null if the query failed.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static List<Customer> getCustomersUpdatedSince(LocalDateTime watermark) throws SQLException {
+        loadDivisionNames();
+
+        String searchStatement = "SELECT " + COLUMNS + " FROM customers WHERE Last_Update >= ?;";
+
+        try (PreparedStatement preparedStatement = DBConnection.getBackgroundConnection().prepareStatement(searchStatement)) {
+            preparedStatement.setTimestamp(1, Timestamp.valueOf(watermark));
+
+            List<Customer> customers = new ArrayList<>();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    customers.add(mapCustomer(resultSet));
+                }
+            }
+            return customers;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** This method searches the Customers on the database server for a name, phone number or postal code that starts with the text.
+     * Only the customers table is read, the division and country names are resolved from the DivisionLookup
+     * when the rows are displayed. Each column is matched in its own branch of a UNION, so an index on
+     * Customer_Name, Phone or Postal_Code can serve its branch as a range scan. The pages are in Customer Name order and
+     * continue after the name and ID the last page ended on, so the Customer_Name index returns the rows of a page in order
+     * instead of every row that matches being read and sorted by Customer ID.
+     * It uses its own statement instead of the shared one in DBQuery, which is closed when the search is done.
+     * @param text String value the name, phone number or postal code starts with, or empty for every customer
+     * @param after The previous page, or null for the first page
+     * @param pageSize Int value of the most customers to return
+     * @return Returns a CustomerPage of matching customers in Customer Name order, or null if the search failed.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static CustomerPage searchCustomers(String text, CustomerPage after, int pageSize) throws SQLException {
+        ObservableList<Customer> customers = FXCollections.observableArrayList();
+        loadDivisionNames();
+
+        // Rows with no name sort first, so after one of them only those with a higher ID or any name are left.
+        String afterCondition;
+        if (after == null) {
+            afterCondition = null;
+        } else if (after.getLastCustomerName() == null) {
+            afterCondition = "(Customer_Name IS NOT NULL OR Customer_ID > ?)";
+        } else {
+            afterCondition = "(Customer_Name > ? OR (Customer_Name = ? AND Customer_ID > ?))";
+        }
+        String columns = "SELECT " + COLUMNS + " FROM customers";
+        String order = " ORDER BY Customer_Name, Customer_ID LIMIT ?";
+        String searchStatement;
+        int branches;
+        if (text == null || text.isBlank()) {
+            searchStatement = columns + (afterCondition == null ? "" : " WHERE " + afterCondition) + order + ";";
+            branches = 1;
+        } else {
+            String branch = "(" + columns + " WHERE %s LIKE ?" + (afterCondition == null ? "" : " AND " + afterCondition) + order + ")";
+            searchStatement = String.format(branch, "Customer_Name") + " UNION " +
+                    String.format(branch, "Phone") + " UNION " +
+                    String.format(branch, "Postal_Code") + order + ";";
+            branches = 3;
+        }
+
+        try (PreparedStatement preparedStatement = DBConnection.getConnection().prepareStatement(searchStatement)) {
+            // One more row than the page holds tells whether another page follows.
+            int parameter = 1;
+            for (int i = 0; i < branches; i++) {
+                if (branches > 1) {
+                    preparedStatement.setString(parameter++, escapeLike(text.strip()) + "%");
+                }
+                if (after != null) {
+                    if (after.getLastCustomerName() != null) {
+                        preparedStatement.setString(parameter++, after.getLastCustomerName());
+                        preparedStatement.setString(parameter++, after.getLastCustomerName());
+                    }
+                    preparedStatement.setInt(parameter++, after.getLastCustomerId());
+                }
+                preparedStatement.setInt(parameter++, pageSize + 1);
+            }
+            if (branches > 1) {
+                preparedStatement.setInt(parameter, pageSize + 1);
+            }
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    customers.add(mapCustomer(resultSet));
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+
+        boolean more = customers.size() > pageSize;
+        if (more) {
+            customers.remove(pageSize);
+        }
+        if (customers.isEmpty()) {
+            return new CustomerPage(customers, null, 0, false);
+        }
+        Customer last = customers.get(customers.size() - 1);
+        return new CustomerPage(customers, last.getCustomerName(), last.getCustomerId(), more);
+    }
+
+    /** Escapes the LIKE wildcards in text so it only matches itself.
+     * @param text The text to escape.
+     * @return The text with backslash, percent and underscore escaped. */
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /** This method counts the Customers in the database so deletions at other desks can be noticed.
+     * It uses its own statement on the background connection instead of the shared one in DBQuery, so it can run on a background thread.
+     * @return Returns the number of customers, or -1 if the count failed. */
+    public static int getCustomerCount() {
+        try (PreparedStatement preparedStatement = DBConnection.getBackgroundConnection().prepareStatement("SELECT COUNT(*) FROM customers;");
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            return resultSet.next() ? resultSet.getInt(1) : -1;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /** This method retrieves only the IDs of every Customer in the database.
+     * It uses its own statement on the background connection instead of the shared one in DBQuery, so it can run on a background thread.
+     * @return Returns a Set of Customer IDs, or null if the query failed. */
+    public static Set<Integer> getCustomerIds() {
+        try (PreparedStatement preparedStatement = DBConnection.getBackgroundConnection().prepareStatement("SELECT Customer_ID FROM customers;");
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            Set<Integer> customerIds = new HashSet<>();
+            while (resultSet.next()) {
+                customerIds.add(resultSet.getInt(1));
+            }
+            return customerIds;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** This method retrieves a single Customer by Customer ID.
+     * @param customerId Int value of Customer ID
+     * @return Returns the Customer, or null if it does not exist
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static Customer getCustomerByCustomerID(int customerId) throws SQLException {
+        loadDivisionNames();
+        String searchStatement = "SELECT " + COLUMNS + " FROM customers WHERE Customer_ID=?;";
+
+        DBQuery.setPreparedStatement(DBConnection.getConnection(), searchStatement);
+        PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
+
+        preparedStatement.setInt(1, customerId);
+
+        try {
+            preparedStatement.execute();
+            ResultSet resultSet = preparedStatement.getResultSet();
+
+            while (resultSet.next()) {
+                return mapCustomer(resultSet);
+            }
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+        return null;
+    }
+
     /** This method creates a new Customer in the database from the information provided by the user.
      * @param name String value of Customer Name
      * @param address String value of Customer Address
      * @param postalCode String value of Customer Postal Code
      * @param phone String value of Customer Phone Number
      * @param division String value of Division Name
-     * @return Returns Boolean true if the customer was successfully created and false if not.
+     * @return Returns the created Customer with its generated Customer ID, or null if it was not created.
      * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
-    public static boolean createCustomer(String name, String address, String postalCode, String phone, String division) throws SQLException {
+    public static Customer createCustomer(String name, String address, String postalCode, String phone, String division) throws SQLException {
 
         Division newDivision = DBDivision.getDivisionName(division);
 
-        String insertStatement = "INSERT INTO customers(Customer_Name, Address, Postal_Code, Phone, Division_ID) VALUES (?, ?, ?, ?, ?)";
+        String insertStatement = "INSERT INTO customers(Customer_Name, Address, Postal_Code, Phone, Division_ID, Create_Date, Last_Update) VALUES (?, ?, ?, ?, ?, NOW(), NOW())";
 
-        DBQuery.setPreparedStatement(DBConnection.getConnection(), insertStatement);
+        DBQuery.setPreparedStatement(DBConnection.getConnection(), insertStatement, Statement.RETURN_GENERATED_KEYS);
         PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
 
         preparedStatement.setString(1, name);
@@ -79,11 +283,15 @@ public class DBCustomers {
             } else {
                 System.out.println("No change has occurred.");
             }
-            return true;
+            ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+            if (generatedKeys.next()) {
+                return getCustomerByCustomerID(generatedKeys.getInt(1));
+            }
+            return null;
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return null;
         }
     }
 
@@ -94,12 +302,16 @@ public class DBCustomers {
      * @param postalCode String value of Customer Postal Code
      * @param phone String value of Customer Phone Number
      * @param division String value of Division Name
-     * @return Returns Boolean true if the customer was successfully updated and false if not
+     * @param expectedVersion LocalDateTime value of Last Update when the customer was read, the update only happens if it still matches
+     * @return Returns UPDATED with the saved Customer, CONFLICT with the current Customer (null if deleted) if it was changed at another desk, or FAILED
      * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
-    public static boolean updateCustomer(int customerId, String name, String address, String postalCode, String phone, String division, String value) throws SQLException {
+    public static UpdateResult<Customer> updateCustomer(int customerId, String name, String address, String postalCode, String phone, String division, LocalDateTime expectedVersion) throws SQLException {
         Division newDivision = DBDivision.getDivisionName(division);
 
-        String insertStatement = "UPDATE customers SET Customer_Name=?, Address=?, Postal_Code=?, Phone=?, Division_ID=? WHERE Customer_ID=?";
+        // Last_Update is the row version. GREATEST makes sure two saves within the same second still change it.
+        DBBackend backend = DBConnection.getBackend();
+        String insertStatement = "UPDATE customers SET Customer_Name=?, Address=?, Postal_Code=?, Phone=?, Division_ID=?, " +
+                "Last_Update=GREATEST(NOW(), " + backend.addSeconds("COALESCE(Last_Update, NOW())", 1) + ") WHERE Customer_ID=? AND Last_Update " + backend.nullSafeEquals() + " ?";
 
         DBQuery.setPreparedStatement(DBConnection.getConnection(), insertStatement);
         PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
@@ -110,18 +322,23 @@ public class DBCustomers {
         preparedStatement.setString(4, phone);
         preparedStatement.setInt(5, newDivision.getDivisionId());
         preparedStatement.setInt(6, customerId);
+        if (expectedVersion == null) {
+            preparedStatement.setNull(7, Types.TIMESTAMP);
+        } else {
+            preparedStatement.setTimestamp(7, Timestamp.valueOf(expectedVersion));
+        }
 
         try {
             preparedStatement.execute();
             if (preparedStatement.getUpdateCount() > 0) {
                 System.out.println("Rows affected: " + preparedStatement.getUpdateCount());
-            } else {
-                System.out.println("No change has occurred.");
+                return UpdateResult.updated(getCustomerByCustomerID(customerId));
             }
-            return true;
+            System.out.println("Customer " + customerId + " was changed at another desk.");
+            return UpdateResult.conflict(getCustomerByCustomerID(customerId));
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
-            return false;
+            return UpdateResult.failed();
         }
     }
 
@@ -152,4 +369,40 @@ public class DBCustomers {
         }
     }
 
+    /** This method deletes an existing Customer together with all of their Appointments and recurring appointments as one transaction.
+     * Either the customer and every one of their appointments are deleted or nothing is.
+     * @param customerId Int of Customer ID
+     * @return Returns Boolean true if the customer was deleted and false if the transaction was rolled back.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static boolean deleteCustomerWithAppointments(int customerId) throws SQLException {
+        // Table creation commits implicitly in MySQL, so it has to happen before the transaction starts.
+        DBAppointmentSeries.ensureTable();
+
+        try (DBTransaction transaction = DBTransaction.begin(Connection.TRANSACTION_READ_COMMITTED)) {
+            Connection connection = transaction.getConnection();
+
+            try (PreparedStatement appointmentStatement = connection.prepareStatement("DELETE from appointments WHERE Customer_ID=?");
+                 PreparedStatement seriesStatement = connection.prepareStatement("DELETE from appointment_series WHERE Customer_ID=?");
+                 PreparedStatement customerStatement = connection.prepareStatement("DELETE from customers WHERE Customer_ID=?")) {
+                appointmentStatement.setInt(1, customerId);
+                int appointmentCount = appointmentStatement.executeUpdate();
+
+                seriesStatement.setInt(1, customerId);
+                appointmentCount += seriesStatement.executeUpdate();
+
+                customerStatement.setInt(1, customerId);
+                if (customerStatement.executeUpdate() == 0) {
+                    System.out.println("No change has occurred.");
+                    return false;
+                }
+
+                transaction.commit();
+                System.out.println("Rows affected: " + (appointmentCount + 1));
+                return true;
+            }
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
 }
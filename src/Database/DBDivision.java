@@ -2,6 +2,7 @@ package Database;
 
 import Models.Country;
 import Models.Division;
+import Models.DivisionLookup;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
@@ -43,6 +44,39 @@ public class DBDivision {
         }
     }
 
+    /** This method loads the name of every Division and its Country into the DivisionLookup that Customers resolve their names from.
+     * @return Returns Boolean true if the names were loaded and false if not.
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+    public static boolean loadDivisionLookup() throws SQLException {
+        String queryStatement = "SELECT d.Division_ID, d.Division, co.Country FROM first_level_divisions AS d INNER JOIN countries AS co ON co.Country_ID=d.Country_ID ORDER BY d.Division_ID DESC;";
+
+        DBQuery.setPreparedStatement(DBConnection.getConnection(), queryStatement);
+        PreparedStatement preparedStatement = DBQuery.getPreparedStatement();
+
+        try {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            String[] divisionNames = new String[0];
+            String[] countryNames = new String[0];
+
+            // The highest Division ID comes first and sizes the arrays.
+            while (resultSet.next()) {
+                int divisionId = resultSet.getInt("Division_ID");
+                if (divisionNames.length == 0) {
+                    divisionNames = new String[divisionId + 1];
+                    countryNames = new String[divisionId + 1];
+                }
+                divisionNames[divisionId] = resultSet.getString("Division");
+                countryNames[divisionId] = resultSet.getString("Country");
+            }
+            DivisionLookup.update(divisionNames, countryNames);
+            LocalCache.writeDivisions(divisionNames, countryNames);
+            return true;
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+
     /** This method retrieves a Division by the Divisions Name
      * @param division String value of Division Name
      * @return Returns Division Object
@@ -18,6 +18,16 @@ public class DBQuery {
         statement = connection.prepareStatement(sqlStatement);
     }
 
+    /** This method sets the Prepared Statement and asks the driver to return any auto-generated keys.
+     * @param connection Database Connection
+     * @param sqlStatement SQL Statement string to be replaced in method calls.
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS
+     * @throws SQLException Catches SQLException, prints stacktrace, and error message for debugging. */
+
+    public static void setPreparedStatement(Connection connection, String sqlStatement, int autoGeneratedKeys) throws SQLException {
+        statement = connection.prepareStatement(sqlStatement, autoGeneratedKeys);
+    }
+
     /** This method returns the Prepared Statement object that was specified.
      * @return Prepared Statement */
     public static PreparedStatement getPreparedStatement() {
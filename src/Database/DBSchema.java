@@ -0,0 +1,63 @@
+package Database;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/** This class gives an embedded database the client_schedule tables, and the seed data if it has none yet.
+ * The statements are read from schema.sql and seed.sql next to this class, which also set up a new MySQL server. */
+public class DBSchema {
+
+    /** This method creates any missing tables and seeds an empty database.
+     * @param connection Connection to the database.
+     * @throws SQLException Thrown if a statement fails or a script cannot be read. */
+    public static void bootstrap(Connection connection) throws SQLException {
+        runScript(connection, "schema.sql");
+        DBAppointmentSeries.ensureTable();
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users;")) {
+            if (resultSet.next() && resultSet.getInt(1) > 0) {
+                return;
+            }
+        }
+        runScript(connection, "seed.sql");
+        System.out.println("Seeded the embedded database");
+    }
+
+    /** This method runs every statement of a script, each ending with a semicolon at the end of a line.
+     * @param connection Connection to the database.
+     * @param name File name of the script next to this class.
+     * @throws SQLException Thrown if a statement fails or the script cannot be read. */
+    private static void runScript(Connection connection, String name) throws SQLException {
+        InputStream script = DBSchema.class.getResourceAsStream(name);
+        if (script == null) {
+            throw new SQLException("Missing script " + name);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(script, StandardCharsets.UTF_8));
+             Statement statement = connection.createStatement()) {
+            StringBuilder sql = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                sql.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    statement.execute(sql.toString());
+                    sql.setLength(0);
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("Could not read script " + name, e);
+        }
+    }
+}
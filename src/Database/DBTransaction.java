@@ -0,0 +1,129 @@
+package Database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/** This class groups several statements on the shared connection into one unit of work.
+ * Use it in a try-with-resources block and call commit() at the end; anything not committed when the block
+ * closes is rolled back. A transaction begun while another one is open joins it through a savepoint, so
+ * methods that use their own transaction can also be combined into a bigger one by the caller. */
+public class DBTransaction implements AutoCloseable {
+
+    /** The outermost transaction the thread has open on the connection, none if the connection is in auto-commit mode.
+     * Only the JavaFX Application Thread uses the shared connection, and a transaction is never joined from another thread. */
+    private static final ThreadLocal<DBTransaction> current = new ThreadLocal<>();
+
+    private final Connection connection;
+    private final DBTransaction outer;
+    private final Savepoint nestedSavepoint;
+    private final boolean previousAutoCommit;
+    private final int previousIsolation;
+    private boolean finished;
+
+    private DBTransaction(Connection connection, DBTransaction outer, Savepoint nestedSavepoint, boolean previousAutoCommit, int previousIsolation) {
+        this.connection = connection;
+        this.outer = outer;
+        this.nestedSavepoint = nestedSavepoint;
+        this.previousAutoCommit = previousAutoCommit;
+        this.previousIsolation = previousIsolation;
+    }
+
+    /** This method begins a transaction with the connection's default isolation level.
+     * @return DBTransaction The open transaction
+     * @throws SQLException Thrown if auto-commit cannot be turned off. */
+    public static DBTransaction begin() throws SQLException {
+        return begin(-1);
+    }
+
+    /** This method begins a transaction, or joins the one that is already open.
+     * @param isolation One of the Connection.TRANSACTION_* levels, or -1 to keep the current level. Ignored when joining.
+     * @return DBTransaction The open transaction
+     * @throws SQLException Thrown if auto-commit or the isolation level cannot be changed. */
+    public static DBTransaction begin(int isolation) throws SQLException {
+        Connection connection = DBConnection.getConnection();
+
+        DBTransaction outer = current.get();
+        if (outer != null) {
+            return new DBTransaction(connection, outer, connection.setSavepoint(), false, -1);
+        }
+
+        boolean previousAutoCommit = connection.getAutoCommit();
+        int previousIsolation = connection.getTransactionIsolation();
+        if (isolation != -1 && isolation != previousIsolation) {
+            connection.setTransactionIsolation(isolation);
+        }
+        connection.setAutoCommit(false);
+
+        DBTransaction transaction = new DBTransaction(connection, null, null, previousAutoCommit, previousIsolation);
+        current.set(transaction);
+        return transaction;
+    }
+
+    /** This method returns the connection the transaction runs on.
+     * @return Connection the shared database connection */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /** This method marks a point that the transaction can later roll back to without losing earlier work.
+     * @param name Name of the savepoint
+     * @return Savepoint to pass to rollbackTo
+     * @throws SQLException Thrown if the driver cannot create the savepoint. */
+    public Savepoint setSavepoint(String name) throws SQLException {
+        return connection.setSavepoint(name);
+    }
+
+    /** This method undoes everything done after the savepoint and keeps the transaction open.
+     * @param savepoint Savepoint returned by setSavepoint
+     * @throws SQLException Thrown if the driver cannot roll back to the savepoint. */
+    public void rollbackTo(Savepoint savepoint) throws SQLException {
+        connection.rollback(savepoint);
+    }
+
+    /** This method commits the transaction. A joined transaction only releases its savepoint and
+     * leaves the commit to the outermost one.
+     * @throws SQLException Thrown if the commit fails, the transaction is then rolled back on close. */
+    public void commit() throws SQLException {
+        if (finished) {
+            return;
+        }
+        if (outer != null) {
+            connection.releaseSavepoint(nestedSavepoint);
+        } else {
+            connection.commit();
+        }
+        finished = true;
+    }
+
+    /** This method rolls back the transaction. A joined transaction only rolls back to where it began.
+     * @throws SQLException Thrown if the rollback fails. */
+    public void rollback() throws SQLException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (outer != null) {
+            connection.rollback(nestedSavepoint);
+        } else {
+            connection.rollback();
+        }
+    }
+
+    /** This method rolls back anything that was not committed and puts the connection back the way it was.
+     * @throws SQLException Thrown if the rollback or restoring the connection settings fails. */
+    @Override
+    public void close() throws SQLException {
+        try {
+            rollback();
+        } finally {
+            if (outer == null) {
+                current.remove();
+                connection.setAutoCommit(previousAutoCommit);
+                if (connection.getTransactionIsolation() != previousIsolation) {
+                    connection.setTransactionIsolation(previousIsolation);
+                }
+            }
+        }
+    }
+}
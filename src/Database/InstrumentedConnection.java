@@ -0,0 +1,156 @@
+package Database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/** This class wraps the database connection so every statement run on it is counted in QueryStats.
+ * Both the shared statement in DBQuery and the statements the background loaders prepare for themselves
+ * come from the connection, so wrapping it is enough to see every query without changing any of them.
+ * A statement is timed while it executes, and its result set counts the rows and the bytes of the values read from it. */
+class InstrumentedConnection {
+
+    /** This method wraps a connection.
+     * @param connection The connection to the database.
+     * @return A Connection that counts every statement run on it. */
+    static Connection wrap(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = forward(connection, method, args);
+            String name = method.getName();
+            if (name.equals("prepareCall")) {
+                return proxy(CallableStatement.class, new StatementHandler(result, QueryStats.of((String) args[0])));
+            }
+            if (name.equals("prepareStatement")) {
+                return proxy(PreparedStatement.class, new StatementHandler(result, QueryStats.of((String) args[0])));
+            }
+            if (name.equals("createStatement")) {
+                return proxy(Statement.class, new StatementHandler(result, null));
+            }
+            return result;
+        });
+    }
+
+    /** Times the executes of one statement. A plain Statement has no SQL until it runs, so it is looked up then. */
+    private static class StatementHandler implements InvocationHandler {
+        private final Object statement;
+        private QueryStats stats;
+
+        StatementHandler(Object statement, QueryStats stats) {
+            this.statement = statement;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = forward(statement, method, args);
+                return name.equals("getResultSet") ? wrapResultSet(result) : result;
+            }
+
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                stats = QueryStats.of((String) args[0]);
+            }
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = forward(statement, method, args);
+                failed = false;
+                if (stats == null) {
+                    return result;
+                }
+                if (result instanceof Integer || result instanceof Long) {
+                    stats.recordRowsChanged(((Number) result).longValue());
+                } else if (result instanceof int[]) {
+                    for (int count : (int[]) result) {
+                        stats.recordRowsChanged(count);
+                    }
+                }
+                return wrapResultSet(result);
+            } finally {
+                if (stats != null) {
+                    stats.recordExecution(System.nanoTime() - start, failed);
+                }
+            }
+        }
+
+        private Object wrapResultSet(Object result) {
+            if (result instanceof ResultSet && stats != null) {
+                return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, stats));
+            }
+            return result;
+        }
+    }
+
+    /** Counts the rows a result set moves to and the bytes of the column values read from it. */
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final QueryStats stats;
+        private long rowBytes;
+
+        ResultSetHandler(ResultSet resultSet, QueryStats stats) {
+            this.resultSet = resultSet;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = forward(resultSet, method, args);
+            String name = method.getName();
+            if (name.equals("next") || name.equals("close")) {
+                // The bytes are handed over a row at a time instead of on every read.
+                if (rowBytes > 0) {
+                    stats.recordBytes(rowBytes);
+                    rowBytes = 0;
+                }
+                if (Boolean.TRUE.equals(result)) {
+                    stats.recordRow();
+                }
+            } else if (name.startsWith("get") && args != null && args.length > 0) {
+                rowBytes += sizeOf(result);
+            }
+            return result;
+        }
+
+        private static long sizeOf(Object value) {
+            if (value == null) {
+                return 0;
+            }
+            if (value instanceof String) {
+                return ((String) value).length();
+            }
+            if (value instanceof byte[]) {
+                return ((byte[]) value).length;
+            }
+            if (value instanceof Boolean || value instanceof Byte) {
+                return 1;
+            }
+            if (value instanceof Short) {
+                return 2;
+            }
+            if (value instanceof Integer || value instanceof Float) {
+                return 4;
+            }
+            return 8;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedConnection.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
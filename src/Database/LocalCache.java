@@ -0,0 +1,369 @@
+package Database;
+
+import Models.Appointment;
+import Models.AppointmentStore;
+import Models.Customer;
+import Models.DivisionLookup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** This class keeps a copy of the appointments, customers and division names on the local disk,
+ * so the app can show them as soon as it starts and keep showing them while the database cannot be reached.
+ * Appointments and customers are each kept in an append-only file of changed rows, deleted IDs and watermarks:
+ * every poll appends what it merged, and the file is rewritten as a single snapshot when it has grown well past
+ * the rows it holds. A file cut short by a crash is read up to its last whole record, and the next poll
+ * fetches again everything since the last watermark that was read. */
+public class LocalCache {
+
+    private static final int MAGIC = 0x43313935;
+    /** 2 keeps the nanoseconds of every date and time, since Last_Update is compared as the row version. */
+    private static final int VERSION = 2;
+
+    private static final byte UPSERT = 1;
+    private static final byte DELETE = 2;
+    private static final byte WATERMARK = 3;
+
+    /** A file is compacted once it holds this many times more records than rows. */
+    private static final int COMPACT_RATIO = 2;
+
+    /** Files smaller than this many records are never compacted. */
+    private static final int COMPACT_MINIMUM = 1000;
+
+    private static final String APPOINTMENTS = "appointments.log";
+    private static final String CUSTOMERS = "customers.log";
+    private static final String DIVISIONS = "divisions.bin";
+
+    /** This class is the rows read from a cache file and the watermark they are current as of. */
+    public static final class Snapshot<T> {
+        private final List<T> rows;
+        private final LocalDateTime watermark;
+
+        Snapshot(List<T> rows, LocalDateTime watermark) {
+            this.rows = rows;
+            this.watermark = watermark;
+        }
+
+        /** @return The cached rows. */
+        public List<T> getRows() {
+            return rows;
+        }
+
+        /** @return The server time the rows are current as of, to poll for later changes from. */
+        public LocalDateTime getWatermark() {
+            return watermark;
+        }
+    }
+
+    /** How the rows of one table are written to and read from a cache file. */
+    private interface RowCodec<T> {
+        int id(T row);
+
+        void write(DataOutputStream out, T row) throws IOException;
+
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private static final RowCodec<Appointment> APPOINTMENT_CODEC = new RowCodec<>() {
+        @Override
+        public int id(Appointment appointment) {
+            return appointment.getAppointmentId();
+        }
+
+        @Override
+        public void write(DataOutputStream out, Appointment appointment) throws IOException {
+            out.writeInt(appointment.getAppointmentId());
+            writeString(out, appointment.getTitle());
+            writeString(out, appointment.getDescription());
+            writeString(out, appointment.getLocation());
+            writeString(out, appointment.getType());
+            writeDateTime(out, appointment.getStartTime());
+            writeDateTime(out, appointment.getEndTime());
+            out.writeInt(appointment.getCustomerId());
+            out.writeInt(appointment.getUserId());
+            out.writeInt(appointment.getContactId());
+            writeDateTime(out, appointment.getLastUpdate());
+        }
+
+        @Override
+        public Appointment read(DataInputStream in) throws IOException {
+            return new Appointment(in.readInt(), readString(in), readString(in), readString(in), readString(in),
+                    readDateTime(in), readDateTime(in), in.readInt(), in.readInt(), in.readInt(), readDateTime(in));
+        }
+    };
+
+    private static final RowCodec<Customer> CUSTOMER_CODEC = new RowCodec<>() {
+        @Override
+        public int id(Customer customer) {
+            return customer.getCustomerId();
+        }
+
+        @Override
+        public void write(DataOutputStream out, Customer customer) throws IOException {
+            out.writeInt(customer.getCustomerId());
+            writeString(out, customer.getCustomerName());
+            writeString(out, customer.getAddress());
+            writeString(out, customer.getPostalCode());
+            writeString(out, customer.getPhoneNumber());
+            out.writeInt(customer.getDivisionId());
+            writeDateTime(out, customer.getLastUpdate());
+        }
+
+        @Override
+        public Customer read(DataInputStream in) throws IOException {
+            Customer customer = new Customer(in.readInt(), readString(in), readString(in), readString(in), readString(in), in.readInt());
+            customer.setLastUpdate(readDateTime(in));
+            return customer;
+        }
+    };
+
+    /** This method reads the cached appointments.
+     * @return The appointments and their watermark, or null if there is no usable cache. */
+    public static Snapshot<Appointment> readAppointments() {
+        return read(APPOINTMENTS, APPOINTMENT_CODEC);
+    }
+
+    /** This method replaces the cached appointments with every appointment as of a watermark.
+     * @param appointments Every appointment.
+     * @param watermark Server time the appointments are current as of. */
+    public static void writeAppointments(List<Appointment> appointments, LocalDateTime watermark) {
+        write(APPOINTMENTS, APPOINTMENT_CODEC, appointments, watermark);
+    }
+
+    /** This method adds the changes of one poll to the cached appointments.
+     * @param changed Appointments created or changed since the previous watermark.
+     * @param deletedIds Appointment IDs deleted since the previous watermark.
+     * @param watermark Server time the changes are current as of. */
+    public static void appendAppointments(Collection<Appointment> changed, Collection<Integer> deletedIds, LocalDateTime watermark) {
+        append(APPOINTMENTS, APPOINTMENT_CODEC, changed, deletedIds, watermark);
+    }
+
+    /** This method reads the cached customers.
+     * @return The customers and their watermark, or null if there is no usable cache. */
+    public static Snapshot<Customer> readCustomers() {
+        return read(CUSTOMERS, CUSTOMER_CODEC);
+    }
+
+    /** This method replaces the cached customers with every customer as of a watermark.
+     * @param customers Every customer.
+     * @param watermark Server time the customers are current as of. */
+    public static void writeCustomers(List<Customer> customers, LocalDateTime watermark) {
+        write(CUSTOMERS, CUSTOMER_CODEC, customers, watermark);
+    }
+
+    /** This method adds the changes of one poll to the cached customers.
+     * @param changed Customers created or changed since the previous watermark.
+     * @param deletedIds Customer IDs deleted since the previous watermark.
+     * @param watermark Server time the changes are current as of. */
+    public static void appendCustomers(Collection<Customer> changed, Collection<Integer> deletedIds, LocalDateTime watermark) {
+        append(CUSTOMERS, CUSTOMER_CODEC, changed, deletedIds, watermark);
+    }
+
+    /** This method saves the Division and Country names indexed by Division ID.
+     * @param divisionNames Array of Division names by Division ID
+     * @param countryNames Array of Country names by Division ID */
+    public static void writeDivisions(String[] divisionNames, String[] countryNames) {
+        Path file = directory().resolve(DIVISIONS);
+        Path temporary = directory().resolve(DIVISIONS + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(divisionNames.length);
+            for (int i = 0; i < divisionNames.length; i++) {
+                writeString(out, divisionNames[i]);
+                writeString(out, countryNames[i]);
+            }
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        replace(temporary, file);
+    }
+
+    /** This method fills the DivisionLookup from the saved Division and Country names.
+     * @return Boolean true if the names were read and false if there are none saved. */
+    public static boolean readDivisions() {
+        Path file = directory().resolve(DIVISIONS);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            int length = in.readInt();
+            String[] divisionNames = new String[length];
+            String[] countryNames = new String[length];
+            for (int i = 0; i < length; i++) {
+                divisionNames[i] = readString(in);
+                countryNames[i] = readString(in);
+            }
+            DivisionLookup.update(divisionNames, countryNames);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static <T> Snapshot<T> read(String name, RowCodec<T> codec) {
+        Path file = directory().resolve(name);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        Map<Integer, T> rows = new LinkedHashMap<>();
+        LocalDateTime watermark = null;
+        int records = 0;
+        boolean damaged = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            while (true) {
+                int kind = in.read();
+                if (kind < 0) {
+                    break;
+                }
+                if (kind == UPSERT) {
+                    T row = codec.read(in);
+                    rows.put(codec.id(row), row);
+                } else if (kind == DELETE) {
+                    rows.remove(in.readInt());
+                } else if (kind == WATERMARK) {
+                    watermark = readDateTime(in);
+                } else {
+                    damaged = true;
+                    break;
+                }
+                records++;
+            }
+        } catch (EOFException e) {
+            // A record cut short by a crash, everything before it is still good.
+            damaged = true;
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+        if (watermark == null) {
+            if (damaged) {
+                delete(file);
+            }
+            return null;
+        }
+
+        // A damaged tail is rewritten away, or every later append would land after it and never be read.
+        List<T> list = new ArrayList<>(rows.values());
+        if (damaged || records > COMPACT_MINIMUM && records > COMPACT_RATIO * (list.size() + 1)) {
+            write(name, codec, list, watermark);
+        }
+        return new Snapshot<>(list, watermark);
+    }
+
+    private static <T> void write(String name, RowCodec<T> codec, List<T> rows, LocalDateTime watermark) {
+        Path file = directory().resolve(name);
+        Path temporary = directory().resolve(name + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (T row : rows) {
+                out.writeByte(UPSERT);
+                codec.write(out, row);
+            }
+            out.writeByte(WATERMARK);
+            writeDateTime(out, watermark);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        replace(temporary, file);
+    }
+
+    private static <T> void append(String name, RowCodec<T> codec, Collection<T> changed, Collection<Integer> deletedIds, LocalDateTime watermark) {
+        Path file = directory().resolve(name);
+        if (!Files.exists(file)) {
+            // Without the rows before these changes the file would be wrong, a full load writes it instead.
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)))) {
+            for (T row : changed) {
+                out.writeByte(UPSERT);
+                codec.write(out, row);
+            }
+            for (int id : deletedIds) {
+                out.writeByte(DELETE);
+                out.writeInt(id);
+            }
+            out.writeByte(WATERMARK);
+            writeDateTime(out, watermark);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private static void replace(Path temporary, Path file) {
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /** The cache folder of the database the app is connected to, so two databases never share a cache. */
+    private static Path directory() {
+        Path directory = Paths.get(System.getProperty("user.home"), ".c195-scheduling", "cache",
+                Integer.toHexString(DBConnection.getUrl().hashCode()));
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+        return directory;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : AppointmentStore.toSeconds(value));
+        if (value != null) {
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return seconds == Long.MIN_VALUE ? null : AppointmentStore.toDateTime(seconds).withNano(in.readInt());
+    }
+}
@@ -0,0 +1,204 @@
+package Database;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** This class counts how every SQL statement the app runs performs: how often it runs, how long it takes,
+ * how many rows and bytes it fetches and how often it fails. Statements are grouped by their SQL with the
+ * parameters still as question marks, so every run of the same query adds to the same counts.
+ * A statement slower than the db.slowQueryMillis setting is also written to slow_query_log.txt. */
+public class QueryStats {
+
+    /** Upper bounds of the latency buckets in milliseconds, the last bucket holds everything slower. */
+    private static final long[] BUCKET_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private static final String SLOW_QUERY_LOG = "slow_query_log.txt";
+
+    private static final long slowQueryNanos = DBConfig.getInt("db.slowQueryMillis", 500) * 1_000_000L;
+
+    private static final Map<String, QueryStats> statements = new ConcurrentHashMap<>();
+
+    private final String sql;
+    private final long[] buckets = new long[BUCKET_MILLIS.length + 1];
+    private long executions;
+    private long errors;
+    private long totalNanos;
+    private long maxNanos;
+    private long rows;
+    private long bytes;
+
+    private QueryStats(String sql) {
+        this.sql = sql;
+    }
+
+    /** This method finds the counts of a statement, starting them if it has not run before.
+     * @param sql SQL of the statement.
+     * @return The QueryStats of the statement. */
+    static QueryStats of(String sql) {
+        String template = sql.trim().replaceAll("\\s+", " ");
+        return statements.computeIfAbsent(template, QueryStats::new);
+    }
+
+    /** This method counts one run of the statement.
+     * @param nanos How long it took in nanoseconds.
+     * @param failed Boolean true if it threw an exception. */
+    void recordExecution(long nanos, boolean failed) {
+        int bucket = 0;
+        while (bucket < BUCKET_MILLIS.length && nanos > BUCKET_MILLIS[bucket] * 1_000_000L) {
+            bucket++;
+        }
+        synchronized (this) {
+            executions++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            if (failed) {
+                errors++;
+            }
+            buckets[bucket]++;
+        }
+
+        if (nanos >= slowQueryNanos) {
+            logSlowQuery(nanos, failed);
+        }
+    }
+
+    /** This method counts a row the statement fetched. */
+    synchronized void recordRow() {
+        rows++;
+    }
+
+    /** This method counts bytes of column values read from the rows the statement fetched.
+     * @param count Bytes read, a character of text counts as one. */
+    synchronized void recordBytes(long count) {
+        bytes += count;
+    }
+
+    /** This method counts the rows an update, insert or delete changed.
+     * @param count Rows changed. */
+    synchronized void recordRowsChanged(long count) {
+        if (count > 0) {
+            rows += count;
+        }
+    }
+
+    private void logSlowQuery(long nanos, boolean failed) {
+        String line = new SimpleDateFormat("dd-MM-yyyy HH:mm:ss").format(new Date()) + " " + nanos / 1_000_000 + " ms"
+                + (failed ? " FAILED " : " ") + sql;
+        System.out.println("Slow query: " + line);
+        try (FileWriter fileWriter = new FileWriter(SLOW_QUERY_LOG, true)) {
+            fileWriter.write(line + "\n");
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /** This method forgets every count, to measure from now on. */
+    public static void reset() {
+        statements.clear();
+    }
+
+    /** This method lists the counts of every statement as text, the statements that took the most time in total first.
+     * @return One block of lines per statement. */
+    public static String toText() {
+        StringBuilder text = new StringBuilder();
+        for (QueryStats stats : sorted()) {
+            synchronized (stats) {
+                text.append(stats.sql).append('\n');
+                text.append(String.format("    runs %d  errors %d  total %.1f ms  mean %.2f ms  p50 %s  p95 %s  p99 %s  max %.2f ms  rows %d  bytes %d%n",
+                        stats.executions, stats.errors, stats.totalNanos / 1e6, stats.meanMillis(),
+                        stats.percentileText(0.50), stats.percentileText(0.95), stats.percentileText(0.99),
+                        stats.maxNanos / 1e6, stats.rows, stats.bytes));
+                text.append("    ms");
+                for (int i = 0; i < stats.buckets.length; i++) {
+                    if (stats.buckets[i] > 0) {
+                        text.append("  ").append(i < BUCKET_MILLIS.length ? "<=" + BUCKET_MILLIS[i] : ">" + BUCKET_MILLIS[BUCKET_MILLIS.length - 1])
+                                .append(':').append(stats.buckets[i]);
+                    }
+                }
+                text.append("\n\n");
+            }
+        }
+        return text.length() == 0 ? "No queries have run yet.\n" : text.toString();
+    }
+
+    /** This method lists the counts of every statement as JSON, the statements that took the most time in total first.
+     * @return A JSON array with one object per statement. */
+    public static String toJson() {
+        StringBuilder json = new StringBuilder("[");
+        for (QueryStats stats : sorted()) {
+            synchronized (stats) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append("\n  {\"sql\": \"").append(escape(stats.sql)).append('"')
+                        .append(", \"executions\": ").append(stats.executions)
+                        .append(", \"errors\": ").append(stats.errors)
+                        .append(", \"totalMillis\": ").append(String.format(Locale.ROOT, "%.3f", stats.totalNanos / 1e6))
+                        .append(", \"maxMillis\": ").append(String.format(Locale.ROOT, "%.3f", stats.maxNanos / 1e6))
+                        .append(", \"rows\": ").append(stats.rows)
+                        .append(", \"bytes\": ").append(stats.bytes)
+                        .append(", \"histogram\": {");
+                for (int i = 0; i < stats.buckets.length; i++) {
+                    json.append(i == 0 ? "" : ", ").append('"')
+                            .append(i < BUCKET_MILLIS.length ? "le" + BUCKET_MILLIS[i] : "gt" + BUCKET_MILLIS[BUCKET_MILLIS.length - 1])
+                            .append("\": ").append(stats.buckets[i]);
+                }
+                json.append("}}");
+            }
+        }
+        return json.append("\n]\n").toString();
+    }
+
+    private static List<QueryStats> sorted() {
+        // The totals are read once, a query finishing during the sort must not change the order.
+        Map<QueryStats, Long> totals = new HashMap<>();
+        for (QueryStats stats : statements.values()) {
+            synchronized (stats) {
+                totals.put(stats, stats.totalNanos);
+            }
+        }
+        List<QueryStats> list = new ArrayList<>(totals.keySet());
+        list.sort(Comparator.comparing(totals::get, Comparator.reverseOrder()));
+        return list;
+    }
+
+    private double meanMillis() {
+        return executions == 0 ? 0 : totalNanos / 1e6 / executions;
+    }
+
+    /** The upper bound of the bucket the percentile falls in, the histogram does not keep exact times. */
+    private String percentileText(double percentile) {
+        long rank = (long) Math.ceil(percentile * executions);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank && seen > 0) {
+                return i < BUCKET_MILLIS.length ? "<=" + BUCKET_MILLIS[i] + " ms" : ">" + BUCKET_MILLIS[BUCKET_MILLIS.length - 1] + " ms";
+            }
+        }
+        return "-";
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package Database;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** This class hands out one shared instance for equal strings read from the database,
+ * so the same title or location repeated across thousands of rows is only kept in memory once.
+ * The pool holds at most a fixed number of strings and forgets the least recently used one when it is full,
+ * and long strings such as descriptions, which rarely repeat, are not pooled at all.
+ * The pool is synchronized, since rows are also read on the calendar's background loader. */
+public class StringPool {
+
+    /** Strings longer than this are returned as they are. */
+    private static final int MAX_LENGTH = 64;
+
+    private final Map<String, String> strings;
+
+    /** @param capacity The most strings the pool keeps. */
+    public StringPool(int capacity) {
+        this.strings = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** This method returns the pooled instance equal to a string, adding the string to the pool if it is new.
+     * @param value The string to canonicalize, may be null.
+     * @return The shared instance equal to value, or value itself if it is null or too long to pool. */
+    public synchronized String canonical(String value) {
+        if (value == null || value.length() > MAX_LENGTH) {
+            return value;
+        }
+        String pooled = strings.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+
+    /** This method returns the number of strings in the pool.
+     * @return Number of pooled strings */
+    public synchronized int size() {
+        return strings.size();
+    }
+}
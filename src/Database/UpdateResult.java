@@ -0,0 +1,58 @@
+package Database;
+
+/** This class is the outcome of a version-checked update.
+ * An update only succeeds if the row still has the Last_Update it had when it was read,
+ * so a change saved at another desk in the meantime is reported instead of being overwritten.
+ * @param <T> The type of row that was updated. */
+public class UpdateResult<T> {
+
+    /** The possible outcomes of an update. */
+    public enum Status {
+        /** The row was updated. */
+        UPDATED,
+        /** The row was changed or deleted at another desk after it was read. */
+        CONFLICT,
+        /** The update failed for another reason. */
+        FAILED
+    }
+
+    private final Status status;
+    private final T entity;
+
+    private UpdateResult(Status status, T entity) {
+        this.status = status;
+        this.entity = entity;
+    }
+
+    /** @param entity The row as it is in the database after the update.
+     * @param <T> The type of row that was updated.
+     * @return Returns an UPDATED result. */
+    public static <T> UpdateResult<T> updated(T entity) {
+        return new UpdateResult<>(Status.UPDATED, entity);
+    }
+
+    /** @param current The row as it is in the database now, or null if it was deleted.
+     * @param <T> The type of row that was updated.
+     * @return Returns a CONFLICT result. */
+    public static <T> UpdateResult<T> conflict(T current) {
+        return new UpdateResult<>(Status.CONFLICT, current);
+    }
+
+    /** @param <T> The type of row that was updated.
+     * @return Returns a FAILED result. */
+    public static <T> UpdateResult<T> failed() {
+        return new UpdateResult<>(Status.FAILED, null);
+    }
+
+    /** Gets the outcome of the update.
+     * @return status Status of the update */
+    public Status getStatus() {
+        return status;
+    }
+
+    /** Gets the updated row for UPDATED, the current row for CONFLICT, or null.
+     * @return entity The row */
+    public T getEntity() {
+        return entity;
+    }
+}
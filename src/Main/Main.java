@@ -1,6 +1,9 @@
 package Main;
 
+import Controllers.ChangeFeed;
 import Database.DBConnection;
+import Services.DiagnosticsServer;
+import Services.FxWatchdog;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -23,10 +26,12 @@ public class Main extends Application {
     @Override
     public void start(Stage primaryStage) throws Exception{
         try {
+            FxWatchdog.start(Thread.currentThread());
             Parent root = FXMLLoader.load(getClass().getResource("/Views/Login.fxml"));
             primaryStage.setTitle("Greatest Thing Ever!");
             primaryStage.setScene(new Scene(root, 600, 400));
             primaryStage.show();
+            ChangeFeed.start();
         } catch (IllegalStateException e) {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -44,7 +49,9 @@ public class Main extends Application {
         obj.show();
 
         DBConnection.startConnection();
+        DiagnosticsServer.start();
         launch(args);
+        DiagnosticsServer.stop();
         DBConnection.closeConnection();
     }
 }
\ No newline at end of file
@@ -2,65 +2,84 @@ package Models;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
-/** This class is an object constructor used to create appointment objects in the database and get/set their values.*/
-public class Appointment {
-    private int appointmentId;
-    private String title;
-    private String description;
-    private String location;
-    private String type;
-    private LocalDate startDate;
-    private LocalDateTime startTime;
-    private LocalDate endDate;
-    private LocalDateTime endTime;
-    private int customerId;
-    private int userId;
-    private int contactId;
-
+/** This class is an immutable appointment as it is stored in the database.
+ * An appointment never changes once it is built, so the same instance can be shared between caches, lists and threads.
+ * Use toBuilder() to make a changed copy. Two appointments are equal when every field is equal,
+ * so a reloaded row that did not change can be told apart from one that did. */
+public final class Appointment {
+    private final int appointmentId;
+    private final String title;
+    private final String description;
+    private final String location;
+    private final String type;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final int customerId;
+    private final int userId;
+    private final int contactId;
+    private final LocalDateTime lastUpdate;
+    private final int hash;
 
     /** @param appointmentId Int value of Appointment ID
      * @param title String value of Title
      * @param description String value of Description
      * @param location String value of Location
      * @param type String value of Type
-     * @param startDate LocalDate value of Start Date
      * @param startTime LocalDateTime value of Start Time
-     * @param endDate LocalDate value of End Date
      * @param endTime LocalDateTime value of End Time
      * @param customerId Int value of Customer ID
      * @param userId Int value of User ID
-     * @param contactId Int value of Contact ID */
+     * @param contactId Int value of Contact ID
+     * @param lastUpdate LocalDateTime value of Last Update, or null if it is not known */
     public Appointment(int appointmentId,
-                    String title,
-                    String description,
-                    String location,
-                    String type,
-                    LocalDate startDate,
-                    LocalDateTime startTime,
-                    LocalDate endDate,
-                    LocalDateTime endTime,
-                    int customerId,
-                    int userId,
-                    int contactId
+                       String title,
+                       String description,
+                       String location,
+                       String type,
+                       LocalDateTime startTime,
+                       LocalDateTime endTime,
+                       int customerId,
+                       int userId,
+                       int contactId,
+                       LocalDateTime lastUpdate
     ) {
         this.appointmentId = appointmentId;
         this.title = title;
         this.description = description;
         this.location = location;
         this.type = type;
-        this.startDate = startDate;
-        this.startTime = startTime;
-        this.endDate = endDate;
-        this.endTime = endTime;
+        this.startTime = Objects.requireNonNull(startTime, "startTime");
+        this.endTime = Objects.requireNonNull(endTime, "endTime");
         this.customerId = customerId;
         this.userId = userId;
         this.contactId = contactId;
-     }
-
+        this.lastUpdate = lastUpdate;
+        this.hash = Objects.hash(appointmentId, title, description, location, type, startTime, endTime, customerId, userId, contactId, lastUpdate);
+    }
 
-    public Appointment(int appointment_id, String title, String description, String location, int customer_id, String type, LocalDate start, LocalDateTime start1, LocalDate end, LocalDateTime end1, int user_id, int contact_id) {
+    /** Starts building a new appointment.
+     * @return Builder with every field empty */
+    public static Builder builder() {
+        return new Builder();
+    }
 
+    /** Starts building a changed copy of this appointment.
+     * @return Builder with every field set from this appointment */
+    public Builder toBuilder() {
+        return new Builder()
+                .appointmentId(appointmentId)
+                .title(title)
+                .description(description)
+                .location(location)
+                .type(type)
+                .startTime(startTime)
+                .endTime(endTime)
+                .customerId(customerId)
+                .userId(userId)
+                .contactId(contactId)
+                .lastUpdate(lastUpdate);
     }
 
     /** Gets Appointment ID parameter from database.
@@ -69,70 +88,34 @@ public class Appointment {
         return appointmentId;
     }
 
-    /** Sets Appointment ID parameter in database.
-     * @param appointmentId Integer value of Appointment ID*/
-    public void setAppointmentId(int appointmentId) {
-        this.appointmentId = appointmentId;
-    }
-
     /** Gets Appointment Title parameter from database.
      * @return title String value of Appointment Name */
     public String getTitle() {
         return title;
     }
 
-    /** Sets Appointment Title parameter in database.
-     * @param title String value of Appointment Title*/
-    public void setTitle(String title) {
-        this.title = title;
-    }
-
     /** Gets Appointment Description parameter from database.
      * @return description String value of Appointment Description */
     public String getDescription() {
         return description;
     }
 
-    /** Sets Appointment Description parameter in database.
-     * @param description String value of Appointment Description*/
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
     /** Gets Appointment Location parameter from database.
      * @return location String value of Appointment Location */
     public String getLocation() {
         return location;
     }
 
-    /** Sets Appointment Location parameter in database.
-     * @param location String value of Appointment Location*/
-    public void setLocation(String location) {
-        this.location = location;
-    }
-
     /** Gets Appointment Type parameter from database.
      * @return type String value of Appointment Type */
     public String getType() {
         return type;
     }
 
-    /** Sets Appointment Type parameter in database.
-     * @param type String value of Appointment Type*/
-    public void setType(String type) {
-        this.type = type;
-    }
-
-    /** Gets Start Date parameter from database.
+    /** Gets Start Date, the date of the Start Time.
      * @return startDate LocalDate value of Appointment Start Date */
     public LocalDate getStartDate() {
-        return startDate;
-    }
-
-    /** Sets Appointment Start Date parameter in database.
-     * @param startDate LocalDate value of Appointment Start Date*/
-    public void setStartDate(LocalDate startDate) {
-        this.startDate = startDate;
+        return startTime.toLocalDate();
     }
 
     /** Gets Start Time parameter from database.
@@ -141,22 +124,10 @@ public class Appointment {
         return startTime;
     }
 
-    /** Sets Appointment Start Time parameter in database.
-     * @param startTime LocalDateTime value of Appointment Start Time*/
-    public void setStartTime(LocalDateTime startTime) {
-        this.startTime = startTime;
-    }
-
-    /** Gets End Date parameter from database.
+    /** Gets End Date, the date of the End Time.
      * @return endDate LocalDate value of Appointment End Date */
     public LocalDate getEndDate() {
-        return endDate;
-    }
-
-    /** Sets Appointment End Date parameter in database.
-     * @param endDate LocalDate value of Appointment End Date*/
-    public void setEndDate(LocalDate endDate) {
-        this.endDate = endDate;
+        return endTime.toLocalDate();
     }
 
     /** Gets End Time parameter from database.
@@ -165,45 +136,163 @@ public class Appointment {
         return endTime;
     }
 
-    /** Sets Appointment End Time parameter in database.
-     * @param endTime LocalDateTime value of Appointment End Time*/
-    public void setEndTime(LocalDateTime endTime) {
-        this.endTime = endTime;
-    }
-
     /** Gets Customer ID parameter from database.
      * @return customerId Integer value of Customer ID*/
     public int getCustomerId() {
         return customerId;
     }
 
-    /** Sets Customer ID parameter in database.
-     * @param customerId Integer value of Customer ID*/
-    public void setCustomerId(int customerId) {
-        this.customerId = customerId;
-    }
-
     /** Gets User ID parameter from database.
      * @return userId Integer value of User ID*/
     public int getUserId() {
         return userId;
     }
 
-    /** Sets User ID parameter in database.
-     * @param userId Integer value of User ID*/
-    public void setUserId(int userId) {
-        this.userId = userId;
-    }
-
     /** Gets Contact ID parameter from database.
      * @return contactId Integer value of Contact ID*/
     public int getContactId() {
         return contactId;
     }
 
-    /** Sets Contact ID parameter in database.
-     * @param contactId Integer value of Contact ID*/
-    public void setContactId(int contactId) {
-        this.contactId = contactId;
+    /** Gets Last Update parameter from database, used as the row version when saving changes.
+     * @return lastUpdate LocalDateTime value of Last Update, or null if it is not known */
+    public LocalDateTime getLastUpdate() {
+        return lastUpdate;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Appointment)) {
+            return false;
+        }
+        Appointment that = (Appointment) other;
+        // The hash is computed once, so most unequal appointments are told apart without comparing any fields.
+        return hash == that.hash
+                && appointmentId == that.appointmentId
+                && customerId == that.customerId
+                && userId == that.userId
+                && contactId == that.contactId
+                && startTime.equals(that.startTime)
+                && endTime.equals(that.endTime)
+                && Objects.equals(lastUpdate, that.lastUpdate)
+                && Objects.equals(title, that.title)
+                && Objects.equals(type, that.type)
+                && Objects.equals(location, that.location)
+                && Objects.equals(description, that.description);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "Appointment " + appointmentId + " " + title + " " + startTime + " - " + endTime;
+    }
+
+    /** This class collects the fields of an appointment before it is built. */
+    public static final class Builder {
+        private int appointmentId;
+        private String title;
+        private String description;
+        private String location;
+        private String type;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private int customerId;
+        private int userId;
+        private int contactId;
+        private LocalDateTime lastUpdate;
+
+        private Builder() {
+        }
+
+        /** @param appointmentId Int value of Appointment ID
+         * @return this Builder */
+        public Builder appointmentId(int appointmentId) {
+            this.appointmentId = appointmentId;
+            return this;
+        }
+
+        /** @param title String value of Title
+         * @return this Builder */
+        public Builder title(String title) {
+            this.title = title;
+            return this;
+        }
+
+        /** @param description String value of Description
+         * @return this Builder */
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        /** @param location String value of Location
+         * @return this Builder */
+        public Builder location(String location) {
+            this.location = location;
+            return this;
+        }
+
+        /** @param type String value of Type
+         * @return this Builder */
+        public Builder type(String type) {
+            this.type = type;
+            return this;
+        }
+
+        /** @param startTime LocalDateTime value of Start Time
+         * @return this Builder */
+        public Builder startTime(LocalDateTime startTime) {
+            this.startTime = startTime;
+            return this;
+        }
+
+        /** @param endTime LocalDateTime value of End Time
+         * @return this Builder */
+        public Builder endTime(LocalDateTime endTime) {
+            this.endTime = endTime;
+            return this;
+        }
+
+        /** @param customerId Int value of Customer ID
+         * @return this Builder */
+        public Builder customerId(int customerId) {
+            this.customerId = customerId;
+            return this;
+        }
+
+        /** @param userId Int value of User ID
+         * @return this Builder */
+        public Builder userId(int userId) {
+            this.userId = userId;
+            return this;
+        }
+
+        /** @param contactId Int value of Contact ID
+         * @return this Builder */
+        public Builder contactId(int contactId) {
+            this.contactId = contactId;
+            return this;
+        }
+
+        /** @param lastUpdate LocalDateTime value of Last Update, or null if it is not known
+         * @return this Builder */
+        public Builder lastUpdate(LocalDateTime lastUpdate) {
+            this.lastUpdate = lastUpdate;
+            return this;
+        }
+
+        /** Builds the appointment.
+         * @return Appointment with the collected fields */
+        public Appointment build() {
+            return new Appointment(appointmentId, title, description, location, type, startTime, endTime,
+                    customerId, userId, contactId, lastUpdate);
+        }
     }
-}
\ No newline at end of file
+}
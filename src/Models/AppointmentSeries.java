@@ -0,0 +1,240 @@
+package Models;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/** This class is a recurring appointment as it is stored in the database: one definition and a RecurrenceRule
+ * instead of a row per occurrence. Occurrences are only built for the dates they are asked for,
+ * and the overlap checks work out from the rule whether an occurrence falls on a date instead of listing them. */
+public final class AppointmentSeries {
+    private final int seriesId;
+    private final String title;
+    private final String description;
+    private final String location;
+    private final String type;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final int customerId;
+    private final int userId;
+    private final int contactId;
+    private final RecurrenceRule rule;
+
+    /** @param seriesId Int value of Series ID, or 0 if it has not been saved
+     * @param title String value of Title
+     * @param description String value of Description
+     * @param location String value of Location
+     * @param type String value of Type
+     * @param startTime LocalDateTime value of the Start Time of the first occurrence
+     * @param endTime LocalDateTime value of the End Time of the first occurrence
+     * @param customerId Int value of Customer ID
+     * @param userId Int value of User ID
+     * @param contactId Int value of Contact ID
+     * @param rule RecurrenceRule of when the appointment repeats */
+    public AppointmentSeries(int seriesId,
+                             String title,
+                             String description,
+                             String location,
+                             String type,
+                             LocalDateTime startTime,
+                             LocalDateTime endTime,
+                             int customerId,
+                             int userId,
+                             int contactId,
+                             RecurrenceRule rule
+    ) {
+        this.seriesId = seriesId;
+        this.title = title;
+        this.description = description;
+        this.location = location;
+        this.type = type;
+        this.startTime = Objects.requireNonNull(startTime, "startTime");
+        this.endTime = Objects.requireNonNull(endTime, "endTime");
+        this.customerId = customerId;
+        this.userId = userId;
+        this.contactId = contactId;
+        this.rule = Objects.requireNonNull(rule, "rule");
+    }
+
+    /** Gets Series ID parameter from database.
+     * @return seriesId Integer value of Series ID */
+    public int getSeriesId() {
+        return seriesId;
+    }
+
+    /** @return title String value of Title */
+    public String getTitle() {
+        return title;
+    }
+
+    /** @return description String value of Description */
+    public String getDescription() {
+        return description;
+    }
+
+    /** @return location String value of Location */
+    public String getLocation() {
+        return location;
+    }
+
+    /** @return type String value of Type */
+    public String getType() {
+        return type;
+    }
+
+    /** @return startTime LocalDateTime value of the Start Time of the first occurrence */
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    /** @return endTime LocalDateTime value of the End Time of the first occurrence */
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    /** @return customerId Integer value of Customer ID */
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    /** @return userId Integer value of User ID */
+    public int getUserId() {
+        return userId;
+    }
+
+    /** @return contactId Integer value of Contact ID */
+    public int getContactId() {
+        return contactId;
+    }
+
+    /** @return rule RecurrenceRule of when the appointment repeats */
+    public RecurrenceRule getRule() {
+        return rule;
+    }
+
+    /** Gets the date and time after which the series has no more occurrences.
+     * @return LocalDateTime the last possible occurrence ends */
+    public LocalDateTime getLastEndTime() {
+        return rule.getUntil().atTime(startTime.toLocalTime()).plus(Duration.between(startTime, endTime));
+    }
+
+    /** Builds the occurrences of the series on the dates from one date to another. Occurrences are not stored rows,
+     * so their Appointment ID is 0.
+     * @param from LocalDate the range starts on.
+     * @param to LocalDate the range ends on, included.
+     * @return List of the occurrences that start in the range, earliest first. */
+    public List<Appointment> getOccurrences(LocalDate from, LocalDate to) {
+        List<Appointment> occurrences = new ArrayList<>();
+        Duration length = Duration.between(startTime, endTime);
+        for (LocalDate date : rule.occurrencesBetween(startTime.toLocalDate(), from, to)) {
+            LocalDateTime start = date.atTime(startTime.toLocalTime());
+            occurrences.add(new Appointment(0, title, description, location, type, start, start.plus(length),
+                    customerId, userId, contactId, null));
+        }
+        return occurrences;
+    }
+
+    /** Counts the occurrences of the series on the dates from one date to another, without building them.
+     * @param from LocalDate the range starts on.
+     * @param to LocalDate the range ends on, included.
+     * @return Number of occurrences that start in the range. */
+    public int countOccurrences(LocalDate from, LocalDate to) {
+        return rule.countBetween(startTime.toLocalDate(), from, to);
+    }
+
+    /** Checks whether an occurrence of the series overlaps a time range. Only the dates the range touches are checked.
+     * Ranges that only touch, where one ends as the other starts, do not overlap.
+     * @param start LocalDateTime start of the range
+     * @param end LocalDateTime end of the range
+     * @return True if an occurrence overlaps the range. */
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Duration length = Duration.between(startTime, endTime);
+        LocalDate first = startTime.toLocalDate();
+        // An occurrence that started on an earlier date can still run into the range.
+        LocalDate date = start.minus(length).toLocalDate();
+        for (; !date.isAfter(end.toLocalDate()); date = date.plusDays(1)) {
+            if (rule.occursOn(first, date)) {
+                LocalDateTime occurrenceStart = date.atTime(startTime.toLocalTime());
+                if (occurrenceStart.isBefore(end) && start.isBefore(occurrenceStart.plus(length))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Finds a cached appointment that an occurrence of the series would double-book, one with the same customer,
+     * contact or user at an overlapping time. The appointments of the customer, contact and user between the first and the last
+     * occurrence are looked up in the store's index, and each is checked against the rule, so the series is never expanded.
+     * @param appointments The cached appointments.
+     * @return The row of the first conflicting appointment, or -1 if there is none */
+    public int findConflict(AppointmentStore appointments) {
+        long firstStart = AppointmentStore.toSeconds(startTime);
+        long lastEnd = AppointmentStore.toSeconds(getLastEndTime());
+        int[] ids = {customerId, contactId, userId};
+        for (AppointmentStore.Attendee attendee : AppointmentStore.Attendee.values()) {
+            for (int row : appointments.findOverlapping(attendee, ids[attendee.ordinal()], firstStart, lastEnd)) {
+                if (overlaps(AppointmentStore.toDateTime(appointments.getStartSeconds(row)), AppointmentStore.toDateTime(appointments.getEndSeconds(row)))) {
+                    return row;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** Finds the occurrence of the series that overlaps a time range, such as an occurrence of another series.
+     * Only the dates the range touches are checked, as in overlaps.
+     * @param start LocalDateTime start of the range
+     * @param end LocalDateTime end of the range
+     * @return The first overlapping occurrence, or null if there is none */
+    public Appointment findOverlapping(LocalDateTime start, LocalDateTime end) {
+        if (!overlaps(start, end)) {
+            return null;
+        }
+        Duration length = Duration.between(startTime, endTime);
+        for (Appointment occurrence : getOccurrences(start.minus(length).toLocalDate(), end.toLocalDate())) {
+            if (occurrence.getStartTime().isBefore(end) && start.isBefore(occurrence.getEndTime())) {
+                return occurrence;
+            }
+        }
+        return null;
+    }
+
+    /** Checks whether an appointment is one of the occurrences of the series, as getOccurrences builds them.
+     * @param appointment The Appointment to check.
+     * @return True if it is an occurrence of the series. */
+    public boolean isOccurrence(Appointment appointment) {
+        return appointment.getAppointmentId() == 0
+                && appointment.getCustomerId() == customerId
+                && appointment.getContactId() == contactId
+                && appointment.getUserId() == userId
+                && Objects.equals(appointment.getTitle(), title)
+                && appointment.getStartTime().toLocalTime().equals(startTime.toLocalTime())
+                && Duration.between(appointment.getStartTime(), appointment.getEndTime()).equals(Duration.between(startTime, endTime))
+                && rule.occursOn(startTime.toLocalDate(), appointment.getStartTime().toLocalDate());
+    }
+
+    /** Copies the series with another rule, such as one that skips another date.
+     * @param rule RecurrenceRule of when the copy repeats
+     * @return The copy */
+    public AppointmentSeries withRule(RecurrenceRule rule) {
+        return new AppointmentSeries(seriesId, title, description, location, type, startTime, endTime, customerId, userId, contactId, rule);
+    }
+
+    /** Checks whether the series shares a customer, contact or user with an appointment.
+     * @param customerId Int value of Customer ID
+     * @param contactId Int value of Contact ID
+     * @param userId Int value of User ID
+     * @return True if any of them match. */
+    public boolean sharesAttendee(int customerId, int contactId, int userId) {
+        return this.customerId == customerId || this.contactId == contactId || this.userId == userId;
+    }
+
+    @Override
+    public String toString() {
+        return "Series " + seriesId + " " + title + " " + startTime + " - " + endTime + " " + rule;
+    }
+}
@@ -0,0 +1,592 @@
+package Models;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** This class is an observable list of appointments that keeps every field in its own array instead of one object per appointment.
+ * Start and end are stored as seconds of their date and time, the IDs as plain ints and the type as the ordinal
+ * of its AppointmentType, so a large list takes a fraction of the heap a list of Appointment objects does.
+ * An Appointment is only built when a row is asked for, such as when the TableView draws it,
+ * and the primitive getters let scans like the overlap check read the arrays without building any.
+ * The rows built last are kept, so the rows on screen are built once and not again on every cell update.
+ * The rows of a customer, contact or user are indexed by start the first time that one is asked about,
+ * so the overlap checks and the free time searches look at that one's appointments around the time alone.
+ * The row of each Appointment ID is kept in a hash table of ints, so finding an appointment does not scan the store. */
+public class AppointmentStore extends ModifiableObservableListBase<Appointment> {
+
+    /** Who an appointment is booked for, to look up the appointments of one customer, contact or user. */
+    public enum Attendee { CUSTOMER, CONTACT, USER }
+
+    /** The rows of one customer, contact or user sorted by start, and the latest end among each row and the rows before it,
+     * which tells a search going back in time when no earlier row can reach a time any more. */
+    private static final class AttendeeRows {
+        final int[] rows;
+        final long[] latestEnds;
+
+        AttendeeRows(int[] rows, long[] latestEnds) {
+            this.rows = rows;
+            this.latestEnds = latestEnds;
+        }
+    }
+
+    /** An open addressing hash table from Appointment ID to row, two int arrays instead of a boxed entry per row.
+     * It counts on the Appointment IDs of a store being unique. */
+    private static final class IdIndex {
+        private static final int FREE = -1;
+
+        private int[] keys;
+        private int[] values;
+        private int count;
+
+        IdIndex(int capacity) {
+            int slots = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) * 2;
+            keys = new int[slots];
+            values = new int[slots];
+            Arrays.fill(values, FREE);
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; values[slot] != FREE; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return FREE;
+        }
+
+        void put(int key, int value) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (values[slot] != FREE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == FREE) {
+                count++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            // Kept at most half full, so a lookup seldom looks at more than a slot or two.
+            if (count * 2 > keys.length) {
+                rehash();
+            }
+        }
+
+        void remove(int key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (values[slot] != FREE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == FREE) {
+                return;
+            }
+            values[slot] = FREE;
+            count--;
+            // Moves back the keys after the freed slot that could not go in their own slot, so no lookup stops short of them.
+            for (int next = (slot + 1) & mask; values[next] != FREE; next = (next + 1) & mask) {
+                int home = hash(keys[next]) & mask;
+                if (((next - home) & mask) >= ((next - slot) & mask)) {
+                    keys[slot] = keys[next];
+                    values[slot] = values[next];
+                    values[next] = FREE;
+                    slot = next;
+                }
+            }
+        }
+
+        private void rehash() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(values, FREE);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != FREE) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(int key) {
+            // Appointment IDs count up, so they are spread over the table rather than filling one run of slots.
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /** Type code of a Type that is not one of the AppointmentType labels, its text is kept in otherTypes. */
+    private static final byte OTHER_TYPE = -1;
+
+    /** Last update value of an appointment that has none. */
+    private static final long NO_LAST_UPDATE = Long.MIN_VALUE;
+
+    private static final AppointmentType[] TYPES = AppointmentType.values();
+
+    /** Number of built rows kept, more than a table shows at once. Must be a power of two. */
+    private static final int RECENT_ROWS = 256;
+
+    private int size;
+    private int[] appointmentIds;
+    private String[] titles;
+    private String[] descriptions;
+    private String[] locations;
+    private byte[] types;
+    private String[] otherTypes;
+    private long[] starts;
+    private long[] ends;
+    private int[] customerIds;
+    private int[] userIds;
+    private int[] contactIds;
+    /** Last_Update as nanoseconds, see toNanos. It is the row version, so none of its precision is dropped. */
+    private long[] lastUpdates;
+
+    /** Built rows by row modulo RECENT_ROWS, and the row each one was built from. */
+    private final Appointment[] recent = new Appointment[RECENT_ROWS];
+    private final int[] recentRows = new int[RECENT_ROWS];
+    private boolean anyRecent;
+
+    /** The indexed rows of each customer, contact and user asked about since the store last changed, by Attendee ordinal. */
+    private final List<Map<Integer, AttendeeRows>> attendeeRows = List.of(new HashMap<>(), new HashMap<>(), new HashMap<>());
+
+    /** The row of each Appointment ID. Adding or removing a row moves the rows after it, and rather than
+     * putting them in the table again on every change, as removeIf would for each row it removes,
+     * the rows from indexedRows on are put again on the next lookup. */
+    private final IdIndex rowsById;
+    private int indexedRows;
+
+    /** Creates an empty store. */
+    public AppointmentStore() {
+        this(16);
+    }
+
+    /** @param capacity The number of appointments to make room for up front. */
+    public AppointmentStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        appointmentIds = new int[capacity];
+        titles = new String[capacity];
+        descriptions = new String[capacity];
+        locations = new String[capacity];
+        types = new byte[capacity];
+        starts = new long[capacity];
+        ends = new long[capacity];
+        customerIds = new int[capacity];
+        userIds = new int[capacity];
+        contactIds = new int[capacity];
+        lastUpdates = new long[capacity];
+        rowsById = new IdIndex(capacity);
+    }
+
+    /** Converts a date and time to the seconds it is stored as.
+     * @param dateTime The date and time.
+     * @return Seconds since 1970-01-01T00:00 on the same clock as dateTime */
+    public static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /** Converts stored seconds back to a date and time.
+     * @param seconds Seconds returned by toSeconds.
+     * @return LocalDateTime for the seconds */
+    public static LocalDateTime toDateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    /** Converts a date and time to nanoseconds, which hold the dates of the years 1678 to 2262. */
+    private static long toNanos(LocalDateTime dateTime) {
+        return Math.addExact(Math.multiplyExact(toSeconds(dateTime), 1_000_000_000L), dateTime.getNano());
+    }
+
+    private static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    @Override
+    public Appointment get(int index) {
+        checkIndex(index);
+        int slot = index & (RECENT_ROWS - 1);
+        Appointment appointment = recent[slot];
+        if (appointment == null || recentRows[slot] != index) {
+            appointment = build(index);
+            recent[slot] = appointment;
+            recentRows[slot] = index;
+            anyRecent = true;
+        }
+        return appointment;
+    }
+
+    private Appointment build(int index) {
+        return new Appointment(
+                appointmentIds[index],
+                titles[index],
+                descriptions[index],
+                locations[index],
+                getType(index),
+                toDateTime(starts[index]),
+                toDateTime(ends[index]),
+                customerIds[index],
+                userIds[index],
+                contactIds[index],
+                lastUpdates[index] == NO_LAST_UPDATE ? null : fromNanos(lastUpdates[index])
+        );
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    protected void doAdd(int index, Appointment appointment) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == appointmentIds.length) {
+            grow();
+        }
+        move(index, index + 1, size - index);
+        size++;
+        write(index, appointment);
+        // A load adds every row at the end, which moves no other row, so the table is kept up to date as it goes.
+        if (indexedRows == index && index == size - 1) {
+            rowsById.put(appointmentIds[index], index);
+            indexedRows = size;
+        } else {
+            indexedRows = Math.min(indexedRows, index);
+        }
+        // The rows after the new one have moved, so the built rows no longer match their row numbers.
+        forgetRecent();
+        forgetIndex();
+    }
+
+    @Override
+    protected Appointment doSet(int index, Appointment appointment) {
+        Appointment old = get(index);
+        rowsById.remove(appointmentIds[index]);
+        write(index, appointment);
+        rowsById.put(appointmentIds[index], index);
+        recent[index & (RECENT_ROWS - 1)] = null;
+        forgetIndex();
+        return old;
+    }
+
+    @Override
+    protected Appointment doRemove(int index) {
+        Appointment old = get(index);
+        rowsById.remove(appointmentIds[index]);
+        move(index + 1, index, size - index - 1);
+        size--;
+        clear(size);
+        indexedRows = Math.min(indexedRows, index);
+        forgetRecent();
+        forgetIndex();
+        return old;
+    }
+
+    /** Gets the Appointment ID of a row without building the Appointment.
+     * @param index The row.
+     * @return appointmentId Integer value of Appointment ID */
+    public int getAppointmentId(int index) {
+        checkIndex(index);
+        return appointmentIds[index];
+    }
+
+    /** Gets the Title of a row without building the Appointment.
+     * @param index The row.
+     * @return title String value of Title */
+    public String getTitle(int index) {
+        checkIndex(index);
+        return titles[index];
+    }
+
+    /** Gets the Description of a row without building the Appointment.
+     * @param index The row.
+     * @return description String value of Description */
+    public String getDescription(int index) {
+        checkIndex(index);
+        return descriptions[index];
+    }
+
+    /** Gets the Location of a row without building the Appointment.
+     * @param index The row.
+     * @return location String value of Location */
+    public String getLocation(int index) {
+        checkIndex(index);
+        return locations[index];
+    }
+
+    /** Gets the Type of a row without building the Appointment.
+     * @param index The row.
+     * @return type String value of Type */
+    public String getType(int index) {
+        checkIndex(index);
+        byte type = types[index];
+        return type == OTHER_TYPE ? otherTypes[index] : TYPES[type].getLabel();
+    }
+
+    /** Gets the Customer ID of a row without building the Appointment.
+     * @param index The row.
+     * @return customerId Integer value of Customer ID */
+    public int getCustomerId(int index) {
+        checkIndex(index);
+        return customerIds[index];
+    }
+
+    /** Gets the User ID of a row without building the Appointment.
+     * @param index The row.
+     * @return userId Integer value of User ID */
+    public int getUserId(int index) {
+        checkIndex(index);
+        return userIds[index];
+    }
+
+    /** Gets the Contact ID of a row without building the Appointment.
+     * @param index The row.
+     * @return contactId Integer value of Contact ID */
+    public int getContactId(int index) {
+        checkIndex(index);
+        return contactIds[index];
+    }
+
+    /** Gets the start of a row as seconds, see toSeconds.
+     * @param index The row.
+     * @return Start of the appointment in seconds */
+    public long getStartSeconds(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    /** Gets the end of a row as seconds, see toSeconds.
+     * @param index The row.
+     * @return End of the appointment in seconds */
+    public long getEndSeconds(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /** Finds the row of an appointment with a lookup in the hash table of IDs.
+     * @param appointmentId Int value of Appointment ID
+     * @return The row of the appointment, or -1 if it is not in the store */
+    public int indexOfId(int appointmentId) {
+        for (; indexedRows < size; indexedRows++) {
+            rowsById.put(appointmentIds[indexedRows], indexedRows);
+        }
+        return rowsById.get(appointmentId);
+    }
+
+    /** Finds an appointment that overlaps a time range and shares its customer, its contact or its user with it.
+     * Each of the three is looked up in its index by start, so only its appointments around the range are looked at.
+     * Ranges that only touch, where one ends as the other starts, do not overlap.
+     * @param customerId Int value of Customer ID
+     * @param contactId Int value of Contact ID
+     * @param userId Int value of User ID
+     * @param start LocalDateTime start of the range
+     * @param end LocalDateTime end of the range
+     * @param ignoredAppointmentId Int value of an Appointment ID to leave out, such as the appointment being edited, or 0
+     * @return The row of a conflicting appointment, or -1 if there is none */
+    public int findConflict(int customerId, int contactId, int userId, LocalDateTime start, LocalDateTime end, int ignoredAppointmentId) {
+        return findConflict(customerId, contactId, userId, start, end, Set.of(ignoredAppointmentId));
+    }
+
+    /** Finds an appointment that overlaps a time range and shares its customer, its contact or its user with it,
+     * leaving out several appointments, such as ones being moved together.
+     * @param customerId Int value of Customer ID
+     * @param contactId Int value of Contact ID
+     * @param userId Int value of User ID
+     * @param start LocalDateTime start of the range
+     * @param end LocalDateTime end of the range
+     * @param ignoredAppointmentIds Appointment IDs to leave out
+     * @return The row of a conflicting appointment, or -1 if there is none */
+    public int findConflict(int customerId, int contactId, int userId, LocalDateTime start, LocalDateTime end, Set<Integer> ignoredAppointmentIds) {
+        long startSeconds = toSeconds(start);
+        long endSeconds = toSeconds(end);
+        int[] ids = {customerId, contactId, userId};
+        for (Attendee attendee : Attendee.values()) {
+            for (int row : findOverlapping(attendee, ids[attendee.ordinal()], startSeconds, endSeconds)) {
+                if (!ignoredAppointmentIds.contains(appointmentIds[row])) {
+                    return row;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** Gets the rows of a customer, contact or user, earliest start first.
+     * @param attendee Whether id is a Customer ID, Contact ID or User ID
+     * @param id The ID
+     * @return The rows, which must not be changed, and are only good until the store changes */
+    public int[] getRowsByStart(Attendee attendee, int id) {
+        return rowsOf(attendee, id).rows;
+    }
+
+    /** Finds the rows of a customer, contact or user that overlap a time range, with a binary search over its rows by start.
+     * Ranges that only touch, where one ends as the other starts, do not overlap.
+     * @param attendee Whether id is a Customer ID, Contact ID or User ID
+     * @param id The ID
+     * @param startSeconds Start of the range, see toSeconds
+     * @param endSeconds End of the range, see toSeconds
+     * @return The overlapping rows, earliest start first */
+    public int[] findOverlapping(Attendee attendee, int id, long startSeconds, long endSeconds) {
+        AttendeeRows index = rowsOf(attendee, id);
+        int[] rows = index.rows;
+
+        // The first row that starts at or after the end of the range, every row before it starts in time to overlap.
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[rows[middle]] < endSeconds) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int[] found = new int[8];
+        int count = 0;
+        for (int i = low - 1; i >= 0 && index.latestEnds[i] > startSeconds; i--) {
+            if (ends[rows[i]] > startSeconds) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = rows[i];
+            }
+        }
+        // They were found latest first.
+        int[] overlapping = new int[count];
+        for (int i = 0; i < count; i++) {
+            overlapping[i] = found[count - 1 - i];
+        }
+        return overlapping;
+    }
+
+    private AttendeeRows rowsOf(Attendee attendee, int id) {
+        return attendeeRows.get(attendee.ordinal()).computeIfAbsent(id, key -> buildIndex(attendee, key));
+    }
+
+    private AttendeeRows buildIndex(Attendee attendee, int id) {
+        int[] ids = attendee == Attendee.CUSTOMER ? customerIds : attendee == Attendee.CONTACT ? contactIds : userIds;
+        long[][] byStart = new long[16][];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                if (count == byStart.length) {
+                    byStart = Arrays.copyOf(byStart, count * 2);
+                }
+                byStart[count++] = new long[]{starts[i], i};
+            }
+        }
+        Arrays.sort(byStart, 0, count, (a, b) -> Long.compare(a[0], b[0]));
+
+        int[] rows = new int[count];
+        long[] latestEnds = new long[count];
+        long latest = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            rows[i] = (int) byStart[i][1];
+            latest = Math.max(latest, ends[rows[i]]);
+            latestEnds[i] = latest;
+        }
+        return new AttendeeRows(rows, latestEnds);
+    }
+
+    private void forgetIndex() {
+        for (Map<Integer, AttendeeRows> rows : attendeeRows) {
+            if (!rows.isEmpty()) {
+                rows.clear();
+            }
+        }
+    }
+
+    private void write(int index, Appointment appointment) {
+        appointmentIds[index] = appointment.getAppointmentId();
+        titles[index] = appointment.getTitle();
+        descriptions[index] = appointment.getDescription();
+        locations[index] = appointment.getLocation();
+        starts[index] = toSeconds(appointment.getStartTime());
+        ends[index] = toSeconds(appointment.getEndTime());
+        customerIds[index] = appointment.getCustomerId();
+        userIds[index] = appointment.getUserId();
+        contactIds[index] = appointment.getContactId();
+        lastUpdates[index] = appointment.getLastUpdate() == null ? NO_LAST_UPDATE : toNanos(appointment.getLastUpdate());
+
+        // Types outside the five labels are rare, so their text column is only allocated once one shows up.
+        AppointmentType type = AppointmentType.fromLabel(appointment.getType());
+        if (type != null) {
+            types[index] = (byte) type.ordinal();
+            if (otherTypes != null) {
+                otherTypes[index] = null;
+            }
+        } else {
+            types[index] = OTHER_TYPE;
+            if (otherTypes == null) {
+                otherTypes = new String[appointmentIds.length];
+            }
+            otherTypes[index] = appointment.getType();
+        }
+    }
+
+    private void forgetRecent() {
+        // A load adds every row one at a time, so the array is only cleared when something was built.
+        if (anyRecent) {
+            Arrays.fill(recent, null);
+            anyRecent = false;
+        }
+    }
+
+    private void move(int from, int to, int length) {
+        System.arraycopy(appointmentIds, from, appointmentIds, to, length);
+        System.arraycopy(titles, from, titles, to, length);
+        System.arraycopy(descriptions, from, descriptions, to, length);
+        System.arraycopy(locations, from, locations, to, length);
+        System.arraycopy(types, from, types, to, length);
+        System.arraycopy(starts, from, starts, to, length);
+        System.arraycopy(ends, from, ends, to, length);
+        System.arraycopy(customerIds, from, customerIds, to, length);
+        System.arraycopy(userIds, from, userIds, to, length);
+        System.arraycopy(contactIds, from, contactIds, to, length);
+        System.arraycopy(lastUpdates, from, lastUpdates, to, length);
+        if (otherTypes != null) {
+            System.arraycopy(otherTypes, from, otherTypes, to, length);
+        }
+    }
+
+    private void clear(int index) {
+        titles[index] = null;
+        descriptions[index] = null;
+        locations[index] = null;
+        if (otherTypes != null) {
+            otherTypes[index] = null;
+        }
+    }
+
+    private void grow() {
+        int capacity = appointmentIds.length * 2;
+        appointmentIds = Arrays.copyOf(appointmentIds, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        locations = Arrays.copyOf(locations, capacity);
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        customerIds = Arrays.copyOf(customerIds, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        contactIds = Arrays.copyOf(contactIds, capacity);
+        lastUpdates = Arrays.copyOf(lastUpdates, capacity);
+        if (otherTypes != null) {
+            otherTypes = Arrays.copyOf(otherTypes, capacity);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package Models;
+
+/** This enum lists the appointment types offered when creating or updating an appointment.
+ * The Type column holds the label, and appointments read from the database share the label instance of their type. */
+public enum AppointmentType {
+    PLANNING_SESSION("Planning Session"),
+    DE_BRIEFING("De-Briefing"),
+    FOLLOW_UP("Follow-up"),
+    PRE_BRIEFING("Pre-Briefing"),
+    OPEN_SESSION("Open Session");
+
+    private final String label;
+
+    AppointmentType(String label) {
+        this.label = label;
+    }
+
+    /** Gets the label stored in the Type column and shown in the type combo boxes.
+     * @return label String value of the Type */
+    public String getLabel() {
+        return label;
+    }
+
+    /** Finds the type with a label.
+     * @param label String value of the Type column
+     * @return AppointmentType with that label, or null if it is not one of the listed types */
+    public static AppointmentType fromLabel(String label) {
+        for (AppointmentType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,326 @@
+package Models;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableListBase;
+import javafx.collections.WeakListChangeListener;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/** This class is the list the Appointments table shows: the rows of an AppointmentStore that start within a time range,
+ * and the occurrences of the recurring appointments in it, in the order of the table's sort columns. It keeps only the row
+ * numbers, and filters and sorts them on the store's columns, so an Appointment is only built for a row the table draws.
+ * The occurrences are kept in a store of their own and their rows are numbered below zero, -1 for its first row.
+ * Changes to the store are applied to the row numbers as they come, and sorting again moves the rows as a permutation,
+ * which the table's selection follows. */
+public class AppointmentView extends ObservableListBase<Appointment> {
+
+    /** Compares two rows of the view's stores. */
+    @FunctionalInterface
+    public interface RowComparator {
+
+        /** @param a A row, below zero for an occurrence.
+         * @param b Another row.
+         * @return Negative, zero or positive as row a sorts before, with or after row b */
+        int compare(int a, int b);
+
+        /** @return A comparator sorting the other way around. */
+        default RowComparator reversed() {
+            return (a, b) -> compare(b, a);
+        }
+
+        /** @param next The comparator that decides rows this one finds equal.
+         * @return A comparator sorting on this one, then on next. */
+        default RowComparator thenComparing(RowComparator next) {
+            return (a, b) -> {
+                int result = compare(a, b);
+                return result != 0 ? result : next.compare(a, b);
+            };
+        }
+    }
+
+    /** A column of the Appointments table the rows can be sorted on. */
+    public enum Column { APPOINTMENT_ID, TITLE, DESCRIPTION, LOCATION, CONTACT, TYPE, START, END, CUSTOMER, USER }
+
+    /** Reads an int column of a row of a store. */
+    @FunctionalInterface
+    private interface IntColumn {
+        int get(AppointmentStore store, int index);
+    }
+
+    /** Reads a long column of a row of a store. */
+    @FunctionalInterface
+    private interface LongColumn {
+        long get(AppointmentStore store, int index);
+    }
+
+    /** Reads a text column of a row of a store. */
+    @FunctionalInterface
+    private interface TextColumn {
+        String get(AppointmentStore store, int index);
+    }
+
+    private final AppointmentStore store;
+    private final AppointmentStore occurrences;
+    private final long fromSeconds;
+    private final long toSeconds;
+    private RowComparator comparator;
+
+    private int[] rows;
+    private int size;
+
+    /** The position of each row, the occurrences first, or -1 for a row not shown. Sorting builds it, and after the store
+     * changes it is null until a position is asked for, so a burst of changes builds it once. */
+    private int[] positions;
+
+    /** Applies the changes of the store, weak so a view the table no longer shows is not kept alive by the store. */
+    private final ListChangeListener<Appointment> onStoreChange = this::storeChanged;
+
+    /** @param store The appointments to show.
+     * @param occurrences The occurrences of the recurring appointments to show with them, which do not change.
+     * @param from LocalDateTime the rows start at or after, or null for no limit
+     * @param to LocalDateTime the rows start before, or null for no limit */
+    public AppointmentView(AppointmentStore store, List<Appointment> occurrences, LocalDateTime from, LocalDateTime to) {
+        this.store = store;
+        this.occurrences = new AppointmentStore(occurrences.size());
+        this.occurrences.addAll(occurrences);
+        this.fromSeconds = from == null ? Long.MIN_VALUE : AppointmentStore.toSeconds(from);
+        this.toSeconds = to == null ? Long.MAX_VALUE : AppointmentStore.toSeconds(to);
+
+        rows = new int[Math.max(store.size() + occurrences.size(), 16)];
+        for (int row = -occurrences.size(); row < store.size(); row++) {
+            if (isShown(row)) {
+                rows[size++] = row;
+            }
+        }
+        store.addListener(new WeakListChangeListener<>(onStoreChange));
+    }
+
+    /** Makes a comparator of one column over the rows, ascending and with empty text first, as the table sorts it.
+     * @param column The column to sort on.
+     * @return The comparator */
+    public RowComparator comparing(Column column) {
+        switch (column) {
+            case APPOINTMENT_ID:
+                return byInt(AppointmentStore::getAppointmentId);
+            case TITLE:
+                return byText(AppointmentStore::getTitle);
+            case DESCRIPTION:
+                return byText(AppointmentStore::getDescription);
+            case LOCATION:
+                return byText(AppointmentStore::getLocation);
+            case CONTACT:
+                return byInt(AppointmentStore::getContactId);
+            case TYPE:
+                return byText(AppointmentStore::getType);
+            case START:
+                return byLong(AppointmentStore::getStartSeconds);
+            case END:
+                return byLong(AppointmentStore::getEndSeconds);
+            case CUSTOMER:
+                return byInt(AppointmentStore::getCustomerId);
+            default:
+                return byInt(AppointmentStore::getUserId);
+        }
+    }
+
+    private RowComparator byInt(IntColumn column) {
+        return (a, b) -> Integer.compare(column.get(storeOf(a), indexOf(a)), column.get(storeOf(b), indexOf(b)));
+    }
+
+    private RowComparator byLong(LongColumn column) {
+        return (a, b) -> Long.compare(column.get(storeOf(a), indexOf(a)), column.get(storeOf(b), indexOf(b)));
+    }
+
+    private RowComparator byText(TextColumn column) {
+        return (a, b) -> compareText(column.get(storeOf(a), indexOf(a)), column.get(storeOf(b), indexOf(b)));
+    }
+
+    private AppointmentStore storeOf(int row) {
+        return row >= 0 ? store : occurrences;
+    }
+
+    private static int indexOf(int row) {
+        return row >= 0 ? row : -1 - row;
+    }
+
+    private static int compareText(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    @Override
+    public Appointment get(int index) {
+        Objects.checkIndex(index, size);
+        int row = rows[index];
+        return storeOf(row).get(indexOf(row));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Finds the position of an appointment without building any row.
+     * @param appointmentId Int value of Appointment ID
+     * @return The position of the appointment, or -1 if it is not shown */
+    public int indexOfId(int appointmentId) {
+        int row = store.indexOfId(appointmentId);
+        if (row < 0) {
+            return -1;
+        }
+        if (positions == null) {
+            positions = new int[occurrences.size() + store.size()];
+            Arrays.fill(positions, -1);
+            for (int i = 0; i < size; i++) {
+                positions[occurrences.size() + rows[i]] = i;
+            }
+        }
+        return positions[occurrences.size() + row];
+    }
+
+    /** Puts the rows in a new order, reported as a permutation so the selection moves with them.
+     * @param comparator The order of the rows, or null for the order of the store */
+    public void setOrder(RowComparator comparator) {
+        this.comparator = comparator;
+        beginChange();
+        resort();
+        endChange();
+    }
+
+    private void resort() {
+        if (size == 0) {
+            return;
+        }
+        int[] old = Arrays.copyOf(rows, size);
+        sortRows(rows, size);
+
+        // Positions by row, the occurrences first.
+        int[] position = new int[occurrences.size() + store.size()];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < size; i++) {
+            position[occurrences.size() + rows[i]] = i;
+        }
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = position[occurrences.size() + old[i]];
+        }
+        nextPermutation(0, size, permutation);
+        positions = position;
+    }
+
+    private boolean isShown(int row) {
+        long start = storeOf(row).getStartSeconds(indexOf(row));
+        return start >= fromSeconds && start < toSeconds;
+    }
+
+    /** Rows the comparator finds equal stay in the order of the store, so the order of the rows is always the same. */
+    private int order(int a, int b) {
+        int result = comparator == null ? 0 : comparator.compare(a, b);
+        return result != 0 ? result : Integer.compare(a, b);
+    }
+
+    private void storeChanged(ListChangeListener.Change<? extends Appointment> change) {
+        beginChange();
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                // Rows the comparator finds equal keep the order of the store, which has changed.
+                for (int i = 0; i < size; i++) {
+                    if (rows[i] >= 0) {
+                        rows[i] = change.getPermutation(rows[i]);
+                    }
+                }
+                resort();
+                continue;
+            }
+            if (change.wasRemoved()) {
+                rowsRemoved(change.getFrom(), change.getRemovedSize(), change);
+            }
+            if (change.wasAdded()) {
+                rowsAdded(change.getFrom(), change.getTo());
+            }
+        }
+        positions = null;
+        endChange();
+    }
+
+    /** Drops the rows the store removed and moves the rows after them up, reporting the Appointments the store removed.
+     * The occurrences, below zero, are never in the range. */
+    private void rowsRemoved(int from, int count, ListChangeListener.Change<? extends Appointment> change) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int row = rows[i];
+            if (row >= from && row < from + count) {
+                nextRemove(kept, change.getRemoved().get(row - from));
+            } else {
+                rows[kept++] = row >= from + count ? row - count : row;
+            }
+        }
+        size = kept;
+    }
+
+    /** Moves the rows after the added ones down, and merges the added rows that are shown into place. */
+    private void rowsAdded(int from, int to) {
+        int count = to - from;
+        for (int i = 0; i < size; i++) {
+            if (rows[i] >= from) {
+                rows[i] += count;
+            }
+        }
+
+        int[] added = new int[count];
+        int shown = 0;
+        for (int row = from; row < to; row++) {
+            if (isShown(row)) {
+                added[shown++] = row;
+            }
+        }
+        if (shown == 0) {
+            return;
+        }
+        sortRows(added, shown);
+
+        int[] merged = new int[Math.max(size + shown, rows.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size || j < shown) {
+            if (j < shown && (i == size || order(added[j], rows[i]) < 0)) {
+                merged[k] = added[j++];
+                nextAdd(k, k + 1);
+            } else {
+                merged[k] = rows[i++];
+            }
+            k++;
+        }
+        rows = merged;
+        size = k;
+    }
+
+    /** A stable merge sort of the first count rows, since there is no sort of an int array with a comparator. */
+    private void sortRows(int[] array, int count) {
+        int[] from = array;
+        int[] to = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int low = 0; low < count; low += 2 * width) {
+                int middle = Math.min(low + width, count);
+                int high = Math.min(low + 2 * width, count);
+                int i = low;
+                int j = middle;
+                for (int k = low; k < high; k++) {
+                    to[k] = i < middle && (j == high || order(from[i], from[j]) <= 0) ? from[i++] : from[j++];
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != array) {
+            System.arraycopy(from, 0, array, 0, count);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package Models;
 
+import java.time.LocalDateTime;
+
 /** This class is an object constructor used to create customer objects in the database and get/set their values.*/
 public class Customer {
     private int customerId;
@@ -7,17 +9,14 @@ public class Customer {
     private String address;
     private String postalCode;
     private String phoneNumber;
-    private String division;
-    private String country;
     private int divisionId;
+    private LocalDateTime lastUpdate;
 
     /** @param customerId Int value of Customer ID
      * @param customerName String value of Customer Name
      * @param address String value of Address
      * @param postalCode String value of Postal Code
      * @param phoneNumber String value of Phone Number
-     * @param division String value of Division
-     * @param country String value of Country
      * @param divisionId Int value of Division ID
      */
     public Customer(int customerId,
@@ -25,16 +24,12 @@ public class Customer {
                     String address,
                     String postalCode,
                     String phoneNumber,
-                    String division,
-                    String country,
                     int divisionId) {
         this.customerId = customerId;
         this.customerName = customerName;
         this.address = address;
         this.postalCode = postalCode;
         this.phoneNumber = phoneNumber;
-        this.division = division;
-        this.country = country;
         this.divisionId = divisionId;
     }
 
@@ -98,28 +93,16 @@ public class Customer {
         this.phoneNumber = phoneNumber;
     }
 
-    /** Gets Division parameter from database.
+    /** Gets Division Name from the Division ID.
      * @return division String value of Division */
     public String getDivision() {
-        return division;
-    }
-
-    /** Sets Division Name parameter in database.
-     * @param division String value of Division Name*/
-    public void setDivision(String division) {
-        this.division = division;
+        return DivisionLookup.getDivision(divisionId);
     }
 
-    /** Gets Country Name parameter from database.
+    /** Gets Country Name from the Division ID.
      * @return country String value of Country Name */
     public String getCountry() {
-        return country;
-    }
-
-    /** Sets Country Name parameter in database.
-     * @param country String value of Country Name*/
-    public void setCountry(String country) {
-        this.country = country;
+        return DivisionLookup.getCountry(divisionId);
     }
 
     /** Gets Division ID parameter from database.
@@ -133,4 +116,16 @@ public class Customer {
     public void setDivisionId(int divisionId) {
         this.divisionId = divisionId;
     }
+
+    /** Gets Last Update parameter from database, used as the row version when saving changes.
+     * @return lastUpdate LocalDateTime value of Last Update, or null if it was never set */
+    public LocalDateTime getLastUpdate() {
+        return lastUpdate;
+    }
+
+    /** Sets Last Update parameter from database.
+     * @param lastUpdate LocalDateTime value of Last Update*/
+    public void setLastUpdate(LocalDateTime lastUpdate) {
+        this.lastUpdate = lastUpdate;
+    }
 }
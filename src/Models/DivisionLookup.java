@@ -0,0 +1,42 @@
+package Models;
+
+/** This class holds the names of every First-Level-Division and its Country, indexed by Division ID.
+ * Division IDs are small and dense, so plain arrays are enough and a lookup is a single array read.
+ * Customers only keep their Division ID and resolve the names here when they are displayed. */
+public class DivisionLookup {
+
+    private static String[] divisions = new String[0];
+    private static String[] countries = new String[0];
+    private static boolean loaded;
+
+    /** Replaces the names in the lookup. Both arrays are indexed by Division ID and may contain nulls for unused IDs.
+     * @param divisionNames Array of Division names by Division ID
+     * @param countryNames Array of Country names by Division ID */
+    public static void update(String[] divisionNames, String[] countryNames) {
+        divisions = divisionNames;
+        countries = countryNames;
+        loaded = true;
+    }
+
+    /** Gets whether the names have been loaded yet.
+     * @return loaded Boolean true once update has been called */
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    /** Gets the name of a Division.
+     * @param divisionId Int value of Division ID
+     * @return String value of Division Name, or null if the Division ID is unknown */
+    public static String getDivision(int divisionId) {
+        String[] names = divisions;
+        return divisionId >= 0 && divisionId < names.length ? names[divisionId] : null;
+    }
+
+    /** Gets the name of the Country a Division belongs to.
+     * @param divisionId Int value of Division ID
+     * @return String value of Country Name, or null if the Division ID is unknown */
+    public static String getCountry(int divisionId) {
+        String[] names = countries;
+        return divisionId >= 0 && divisionId < names.length ? names[divisionId] : null;
+    }
+}
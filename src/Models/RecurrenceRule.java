@@ -0,0 +1,269 @@
+package Models;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/** This class is how often a recurring appointment repeats: every few days, weeks or months until a last date,
+ * skipping any excepted dates. It is written and read as an RRULE-style string such as
+ * FREQ=WEEKLY;INTERVAL=2;UNTIL=20270301;EXDATE=20261224,20261231.
+ * Whether a date is an occurrence is worked out with arithmetic from the first date, so a series never has to be
+ * expanded to answer it, and expanding one only visits the dates of the range asked for. */
+public final class RecurrenceRule {
+
+    /** How far apart the occurrences are. */
+    public enum Frequency {
+        DAILY,
+        WEEKLY,
+        MONTHLY
+    }
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Frequency frequency;
+    private final int interval;
+    private final LocalDate until;
+    private final Set<LocalDate> exceptions;
+
+    /** @param frequency How far apart the occurrences are.
+     * @param interval Number of days, weeks or months between occurrences, at least 1.
+     * @param until LocalDate of the last possible occurrence.
+     * @param exceptions Dates to skip. */
+    public RecurrenceRule(Frequency frequency, int interval, LocalDate until, Collection<LocalDate> exceptions) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be at least 1: " + interval);
+        }
+        this.frequency = Objects.requireNonNull(frequency, "frequency");
+        this.interval = interval;
+        this.until = Objects.requireNonNull(until, "until");
+        this.exceptions = Collections.unmodifiableSet(new TreeSet<>(exceptions));
+    }
+
+    /** Reads a rule written by toString.
+     * @param rule String such as FREQ=WEEKLY;INTERVAL=1;UNTIL=20270301
+     * @return The RecurrenceRule
+     * @throws IllegalArgumentException If the rule has no FREQ or UNTIL, or a part cannot be read. */
+    public static RecurrenceRule parse(String rule) {
+        Frequency frequency = null;
+        int interval = 1;
+        LocalDate until = null;
+        List<LocalDate> exceptions = new ArrayList<>();
+        try {
+            for (String part : rule.split(";")) {
+                int equals = part.indexOf('=');
+                if (equals < 0) {
+                    continue;
+                }
+                String name = part.substring(0, equals).trim();
+                String value = part.substring(equals + 1).trim();
+                switch (name) {
+                    case "FREQ":
+                        frequency = Frequency.valueOf(value);
+                        break;
+                    case "INTERVAL":
+                        interval = Integer.parseInt(value);
+                        break;
+                    case "UNTIL":
+                        until = LocalDate.parse(value, DATE);
+                        break;
+                    case "EXDATE":
+                        for (String date : value.split(",")) {
+                            if (!date.isBlank()) {
+                                exceptions.add(LocalDate.parse(date.trim(), DATE));
+                            }
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid recurrence rule: " + rule, e);
+        }
+        if (frequency == null || until == null) {
+            throw new IllegalArgumentException("Recurrence rule needs FREQ and UNTIL: " + rule);
+        }
+        return new RecurrenceRule(frequency, interval, until, exceptions);
+    }
+
+    /** @return How far apart the occurrences are. */
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    /** @return Number of days, weeks or months between occurrences. */
+    public int getInterval() {
+        return interval;
+    }
+
+    /** @return LocalDate of the last possible occurrence. */
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    /** @return The dates that are skipped. */
+    public Set<LocalDate> getExceptions() {
+        return exceptions;
+    }
+
+    /** Copies the rule with one more date to skip.
+     * @param date LocalDate to skip.
+     * @return The copy */
+    public RecurrenceRule withException(LocalDate date) {
+        List<LocalDate> skipped = new ArrayList<>(exceptions);
+        skipped.add(date);
+        return new RecurrenceRule(frequency, interval, until, skipped);
+    }
+
+    /** Checks whether a series that starts on a date has an occurrence on another date.
+     * @param first LocalDate of the first occurrence.
+     * @param date LocalDate to check.
+     * @return True if the series has an occurrence on the date. */
+    public boolean occursOn(LocalDate first, LocalDate date) {
+        return !exceptions.contains(date) && onSchedule(first, date);
+    }
+
+    /** Checks whether a date is an occurrence of a series, not counting the skipped dates. */
+    private boolean onSchedule(LocalDate first, LocalDate date) {
+        if (date.isBefore(first) || date.isAfter(until)) {
+            return false;
+        }
+        switch (frequency) {
+            case DAILY:
+                return ChronoUnit.DAYS.between(first, date) % interval == 0;
+            case WEEKLY:
+                return ChronoUnit.DAYS.between(first, date) % (7L * interval) == 0;
+            default:
+                // Months that are too short for the day of the first occurrence are skipped, not moved.
+                return date.getDayOfMonth() == first.getDayOfMonth()
+                        && ChronoUnit.MONTHS.between(first.withDayOfMonth(1), date.withDayOfMonth(1)) % interval == 0;
+        }
+    }
+
+    /** Lists the occurrences of a series within a range of dates, without visiting any occurrence before the range.
+     * @param first LocalDate of the first occurrence.
+     * @param from LocalDate the range starts on.
+     * @param to LocalDate the range ends on, included.
+     * @return List of the dates of the occurrences, earliest first. */
+    public List<LocalDate> occurrencesBetween(LocalDate first, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate last = to.isBefore(until) ? to : until;
+        if (from.isBefore(first)) {
+            from = first;
+        }
+        if (from.isAfter(last)) {
+            return dates;
+        }
+
+        if (frequency == Frequency.MONTHLY) {
+            long months = ChronoUnit.MONTHS.between(first.withDayOfMonth(1), from.withDayOfMonth(1));
+            long step = (months + interval - 1) / interval;
+            for (LocalDate month = first.withDayOfMonth(1).plusMonths(step * interval); !month.isAfter(last); month = month.plusMonths(interval)) {
+                if (first.getDayOfMonth() <= month.lengthOfMonth()) {
+                    LocalDate date = month.withDayOfMonth(first.getDayOfMonth());
+                    if (!date.isBefore(from) && !date.isAfter(last) && !exceptions.contains(date)) {
+                        dates.add(date);
+                    }
+                }
+            }
+            return dates;
+        }
+
+        long days = frequency == Frequency.WEEKLY ? 7L * interval : interval;
+        long skipped = (ChronoUnit.DAYS.between(first, from) + days - 1) / days;
+        for (LocalDate date = first.plusDays(skipped * days); !date.isAfter(last); date = date.plusDays(days)) {
+            if (!exceptions.contains(date)) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    /** Counts the occurrences of a series within a range of dates without listing them. Daily and weekly series are
+     * counted with arithmetic, monthly ones visit only the months of the range.
+     * @param first LocalDate of the first occurrence.
+     * @param from LocalDate the range starts on.
+     * @param to LocalDate the range ends on, included.
+     * @return Number of occurrences in the range. */
+    public int countBetween(LocalDate first, LocalDate from, LocalDate to) {
+        LocalDate last = to.isBefore(until) ? to : until;
+        if (from.isBefore(first)) {
+            from = first;
+        }
+        if (from.isAfter(last)) {
+            return 0;
+        }
+
+        int count = 0;
+        if (frequency == Frequency.MONTHLY) {
+            long months = ChronoUnit.MONTHS.between(first.withDayOfMonth(1), from.withDayOfMonth(1));
+            long step = (months + interval - 1) / interval;
+            for (LocalDate month = first.withDayOfMonth(1).plusMonths(step * interval); !month.isAfter(last); month = month.plusMonths(interval)) {
+                if (first.getDayOfMonth() <= month.lengthOfMonth()) {
+                    LocalDate date = month.withDayOfMonth(first.getDayOfMonth());
+                    if (!date.isBefore(from) && !date.isAfter(last)) {
+                        count++;
+                    }
+                }
+            }
+        } else {
+            long days = frequency == Frequency.WEEKLY ? 7L * interval : interval;
+            long skipped = (ChronoUnit.DAYS.between(first, from) + days - 1) / days;
+            LocalDate start = first.plusDays(skipped * days);
+            if (!start.isAfter(last)) {
+                count = (int) (ChronoUnit.DAYS.between(start, last) / days + 1);
+            }
+        }
+
+        for (LocalDate exception : exceptions) {
+            if (!exception.isBefore(from) && !exception.isAfter(last) && onSchedule(first, exception)) {
+                count--;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof RecurrenceRule)) {
+            return false;
+        }
+        RecurrenceRule that = (RecurrenceRule) other;
+        return frequency == that.frequency && interval == that.interval && until.equals(that.until) && exceptions.equals(that.exceptions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(frequency, interval, until, exceptions);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency)
+                .append(";INTERVAL=").append(interval)
+                .append(";UNTIL=").append(until.format(DATE));
+        if (!exceptions.isEmpty()) {
+            rule.append(";EXDATE=");
+            boolean firstException = true;
+            for (LocalDate exception : exceptions) {
+                if (!firstException) {
+                    rule.append(',');
+                }
+                rule.append(exception.format(DATE));
+                firstException = false;
+            }
+        }
+        return rule.toString();
+    }
+}
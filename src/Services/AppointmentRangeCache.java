@@ -0,0 +1,92 @@
+package Services;
+
+import Database.DBAppointmentSeries;
+import Database.DBAppointments;
+import Models.Appointment;
+import Models.AppointmentSeries;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** This class loads the appointments of a range of dates, such as the day, week or month a calendar shows,
+ * on a background thread and keeps the last few ranges it loaded. Each range is one query bounded by Start,
+ * plus the occurrences of the recurring appointments that fall in it, so nothing ever loads the whole table.
+ * Asking for a range before it is shown, such as the week after the one on screen, makes moving to it instant. */
+public class AppointmentRangeCache {
+
+    /** The most ranges kept, enough for the shown range and its neighbours in every view. */
+    private static final int MAX_RANGES = 12;
+
+    /** One loader thread, so range queries run one at a time on the background connection. */
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "appointment-range-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, CompletableFuture<List<Appointment>>> ranges = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<List<Appointment>>> eldest) {
+            return size() > MAX_RANGES;
+        }
+    };
+
+    /** Gets the appointments of a range of dates, starting to load them if they are not kept already.
+     * @param from LocalDate the range starts on.
+     * @param to LocalDate the range ends on, included.
+     * @return The appointments and occurrences that overlap the range, earliest first, once they are loaded. */
+    public synchronized CompletableFuture<List<Appointment>> get(LocalDate from, LocalDate to) {
+        String key = from + "/" + to;
+        CompletableFuture<List<Appointment>> range = ranges.get(key);
+        if (range == null) {
+            range = CompletableFuture.supplyAsync(() -> load(from, to), loader);
+            ranges.put(key, range);
+            // A failed load is forgotten so the range is queried again the next time it is asked for.
+            CompletableFuture<List<Appointment>> loading = range;
+            range.whenComplete((appointments, error) -> {
+                if (error != null) {
+                    forget(key, loading);
+                }
+            });
+        }
+        return range;
+    }
+
+    /** Starts loading a range of dates in the background without waiting for it.
+     * @param from LocalDate the range starts on.
+     * @param to LocalDate the range ends on, included. */
+    public void prefetch(LocalDate from, LocalDate to) {
+        get(from, to);
+    }
+
+    /** Forgets every range, so the next ones asked for are loaded again. */
+    public synchronized void clear() {
+        ranges.clear();
+    }
+
+    private synchronized void forget(String key, CompletableFuture<List<Appointment>> range) {
+        ranges.remove(key, range);
+    }
+
+    private static List<Appointment> load(LocalDate from, LocalDate to) {
+        List<Appointment> appointments = DBAppointments.getAppointmentsBetween(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        List<AppointmentSeries> series = DBAppointmentSeries.getSeriesBetween(from, to);
+        if (appointments == null || series == null) {
+            throw new IllegalStateException("Could not load the appointments from " + from + " to " + to);
+        }
+
+        List<Appointment> range = new ArrayList<>(appointments);
+        for (AppointmentSeries recurring : series) {
+            range.addAll(recurring.getOccurrences(from, to));
+        }
+        range.sort(Comparator.comparing(Appointment::getStartTime));
+        return range;
+    }
+}
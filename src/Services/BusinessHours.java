@@ -0,0 +1,118 @@
+package Services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** This class checks times against the business hours of 8AM - 10PM in New York.
+ * The zones are looked up once, and the opening and closing instants of each business day are worked out
+ * the first time that day is needed, so checking an appointment is two comparisons of epoch seconds.
+ * Times entered by the user are converted through their zone's rules, so days where the clocks change in
+ * either zone are handled: a time skipped by the change moves forward, and a time that happens twice uses the first. */
+public class BusinessHours {
+
+    /** The time zone business hours are set in. */
+    public static final ZoneId BUSINESS_ZONE = ZoneId.of("America/New_York");
+
+    /** Business hours open at this time in the business zone. */
+    public static final LocalTime OPEN = LocalTime.of(8, 0);
+
+    /** Business hours close at this time in the business zone. */
+    public static final LocalTime CLOSE = LocalTime.of(22, 0);
+
+    /** The most days kept in each cache before it is cleared. */
+    private static final int CACHE_DAYS = 1024;
+
+    private static final ZoneId userZone = ZoneId.systemDefault();
+
+    /** Opening and closing epoch seconds by business zone date. */
+    private static final Map<LocalDate, long[]> businessDays = new ConcurrentHashMap<>();
+
+    /** Business hours within each date of the user's time zone. */
+    private static final Map<LocalDate, List<TimeSlot>> userDays = new ConcurrentHashMap<>();
+
+    /** Gets the user's time zone.
+     * @return ZoneId of the user's time zone */
+    public static ZoneId getUserZone() {
+        return userZone;
+    }
+
+    /** Converts a date and time in the user's time zone to epoch seconds.
+     * @param dateTime LocalDateTime in the user's time zone
+     * @return Seconds since 1970-01-01T00:00Z */
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.atZone(userZone).toEpochSecond();
+    }
+
+    /** This method checks that an appointment in the user's time zone falls within one business day.
+     * @param start LocalDateTime start in the user's time zone
+     * @param end LocalDateTime end in the user's time zone
+     * @return Returns true if the appointment starts at or after opening and ends at or before closing of the same business day. */
+    public static boolean isWithinBusinessHours(LocalDateTime start, LocalDateTime end) {
+        long startSecond = toEpochSecond(start);
+        long endSecond = toEpochSecond(end);
+        long[] day = businessDay(Instant.ofEpochSecond(startSecond).atZone(BUSINESS_ZONE).toLocalDate());
+        return day[0] <= startSecond && endSecond <= day[1];
+    }
+
+    /** This method returns the business hours that fall on a date in the user's time zone. Depending on the
+     * user's time zone this is one range, none, or, far from New York, the end of one business day and the start of the next.
+     * @param date LocalDate in the user's time zone
+     * @return List of the business hours on that date in the user's time zone, earliest first */
+    public static List<TimeSlot> getBusinessHours(LocalDate date) {
+        List<TimeSlot> hours = userDays.get(date);
+        if (hours == null) {
+            if (userDays.size() >= CACHE_DAYS) {
+                userDays.clear();
+            }
+            hours = Collections.unmodifiableList(computeBusinessHours(date));
+            userDays.put(date, hours);
+        }
+        return hours;
+    }
+
+    private static List<TimeSlot> computeBusinessHours(LocalDate date) {
+        long dayStart = date.atStartOfDay(userZone).toEpochSecond();
+        long dayEnd = date.plusDays(1).atStartOfDay(userZone).toEpochSecond();
+
+        List<TimeSlot> hours = new ArrayList<>(2);
+        LocalDate first = Instant.ofEpochSecond(dayStart).atZone(BUSINESS_ZONE).toLocalDate();
+        LocalDate last = Instant.ofEpochSecond(dayEnd - 1).atZone(BUSINESS_ZONE).toLocalDate();
+        for (LocalDate businessDate = first; !businessDate.isAfter(last); businessDate = businessDate.plusDays(1)) {
+            long[] day = businessDay(businessDate);
+            long open = Math.max(day[0], dayStart);
+            long close = Math.min(day[1], dayEnd);
+            if (open < close) {
+                hours.add(new TimeSlot(toUserTime(open), toUserTime(close)));
+            }
+        }
+        return hours;
+    }
+
+    private static long[] businessDay(LocalDate date) {
+        long[] day = businessDays.get(date);
+        if (day == null) {
+            if (businessDays.size() >= CACHE_DAYS) {
+                businessDays.clear();
+            }
+            day = new long[]{
+                    ZonedDateTime.of(date, OPEN, BUSINESS_ZONE).toEpochSecond(),
+                    ZonedDateTime.of(date, CLOSE, BUSINESS_ZONE).toEpochSecond()
+            };
+            businessDays.put(date, day);
+        }
+        return day;
+    }
+
+    private static LocalDateTime toUserTime(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), userZone);
+    }
+}
@@ -0,0 +1,283 @@
+package Services;
+
+import Models.Customer;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/** This class is an in-memory inverted index over customer name, phone, postal code and address.
+ * Every word of those fields is a term in a sorted dictionary that points to the Customer IDs containing it,
+ * so a prefix of any word is answered with a range lookup instead of scanning every customer.
+ * Several words in a query must all match, and results are ranked by where they matched. */
+public class CustomerSearchIndex {
+
+    /** Score for a query word that is a whole word of the customer name. */
+    private static final int NAME_EXACT = 8;
+    /** Score for a query word that starts a word of the customer name. */
+    private static final int NAME_PREFIX = 5;
+    /** Score for a query word that is a whole phone number or postal code word. */
+    private static final int CODE_EXACT = 6;
+    /** Score for a query word that starts a phone number or postal code word. */
+    private static final int CODE_PREFIX = 3;
+    /** Score for a query word that matches part of the address. */
+    private static final int ADDRESS = 1;
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    /** This method builds an index over a list of customers and keeps it current as the list changes,
+     * so customers created, updated or deleted through the list are searchable right away.
+     * @param customers The list of customers to index.
+     * @return CustomerSearchIndex over the list */
+    public static CustomerSearchIndex watch(ObservableList<Customer> customers) {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        for (Customer customer : customers) {
+            index.add(customer);
+        }
+        customers.addListener((ListChangeListener<Customer>) change -> {
+            while (change.next()) {
+                for (Customer removed : change.getRemoved()) {
+                    index.remove(removed.getCustomerId());
+                }
+                for (Customer added : change.getAddedSubList()) {
+                    index.add(added);
+                }
+            }
+        });
+        return index;
+    }
+
+    /** This method adds a customer to the index, replacing any customer with the same ID.
+     * @param customer The customer to index. */
+    public void add(Customer customer) {
+        remove(customer.getCustomerId());
+
+        Entry entry = new Entry(customer);
+        entries.put(customer.getCustomerId(), entry);
+        for (String term : entry.allTerms()) {
+            terms.computeIfAbsent(term, key -> new Postings()).add(customer.getCustomerId());
+        }
+    }
+
+    /** This method removes a customer from the index.
+     * @param customerId The ID of the customer to remove. */
+    public void remove(int customerId) {
+        Entry entry = entries.remove(customerId);
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.allTerms()) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(customerId) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    /** This method returns the number of customers in the index.
+     * @return Number of indexed customers */
+    public int size() {
+        return entries.size();
+    }
+
+    /** This method finds the customers matching every word of the query, best match first.
+     * A query word matches a customer if it starts any word of their name, phone number, postal code or address.
+     * @param query The words to search for.
+     * @param limit The most results to return.
+     * @return List of matching customers, best match first. */
+    public List<Customer> search(String query, int limit) {
+        String[] words = tokenize(query);
+        if (words.length == 0) {
+            return new ArrayList<>();
+        }
+
+        // Look up the rarest word first so the intersection shrinks as fast as possible.
+        Postings[] matches = new Postings[words.length];
+        for (int i = 0; i < words.length; i++) {
+            matches[i] = prefixMatches(words[i]);
+            if (matches[i].size == 0) {
+                return new ArrayList<>();
+            }
+        }
+        Arrays.sort(matches, (a, b) -> Integer.compare(a.size, b.size));
+
+        Postings candidates = matches[0];
+        for (int i = 1; i < matches.length && candidates.size > 0; i++) {
+            candidates = candidates.intersect(matches[i]);
+        }
+
+        List<Entry> results = new ArrayList<>(candidates.size);
+        for (int i = 0; i < candidates.size; i++) {
+            Entry entry = entries.get(candidates.ids[i]);
+            entry.score = entry.score(words);
+            results.add(entry);
+        }
+        results.sort((a, b) -> a.score != b.score
+                ? Integer.compare(b.score, a.score)
+                : a.customer.getCustomerName().compareToIgnoreCase(b.customer.getCustomerName()));
+
+        List<Customer> customers = new ArrayList<>(Math.min(limit, results.size()));
+        for (int i = 0; i < results.size() && i < limit; i++) {
+            customers.add(results.get(i).customer);
+        }
+        return customers;
+    }
+
+    /** Collects the IDs of every customer with a word that starts with the prefix.
+     * @param prefix The start of a word.
+     * @return Postings of matching Customer IDs. */
+    private Postings prefixMatches(String prefix) {
+        NavigableMap<String, Postings> range = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        if (range.size() == 1) {
+            return range.firstEntry().getValue();
+        }
+        int total = 0;
+        for (Postings postings : range.values()) {
+            total += postings.size;
+        }
+        int[] ids = new int[Math.max(1, total)];
+        int count = 0;
+        for (Postings postings : range.values()) {
+            System.arraycopy(postings.ids, 0, ids, count, postings.size);
+            count += postings.size;
+        }
+        Arrays.sort(ids, 0, count);
+
+        Postings union = new Postings();
+        union.ids = ids;
+        for (int i = 0; i < count; i++) {
+            if (union.size == 0 || ids[union.size - 1] != ids[i]) {
+                ids[union.size++] = ids[i];
+            }
+        }
+        return union;
+    }
+
+    /** Splits text into lower case words of letters and digits.
+     * @param text The text to split, may be null.
+     * @return The words in the text. */
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        String[] tokens = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+");
+        int count = 0;
+        for (String token : tokens) {
+            if (!token.isEmpty()) {
+                tokens[count++] = token;
+            }
+        }
+        return Arrays.copyOf(tokens, count);
+    }
+
+    /** The words of one customer, kept so the customer can be removed from the dictionary and scored. */
+    private static class Entry {
+        private final Customer customer;
+        private final String[] nameTerms;
+        private final String[] codeTerms;
+        private final String[] addressTerms;
+        private int score;
+
+        private Entry(Customer customer) {
+            this.customer = customer;
+            this.nameTerms = tokenize(customer.getCustomerName());
+            this.addressTerms = tokenize(customer.getAddress());
+
+            // Phone numbers are also indexed as one run of digits so "5551212" finds "555-1212".
+            String[] phoneTerms = tokenize(customer.getPhoneNumber());
+            String[] postalTerms = tokenize(customer.getPostalCode());
+            String phoneDigits = customer.getPhoneNumber() == null ? "" : customer.getPhoneNumber().replaceAll("\\D", "");
+            String[] codes = Arrays.copyOf(phoneTerms, phoneTerms.length + postalTerms.length + 1);
+            System.arraycopy(postalTerms, 0, codes, phoneTerms.length, postalTerms.length);
+            codes[codes.length - 1] = phoneDigits;
+            this.codeTerms = Arrays.stream(codes).filter(term -> !term.isEmpty()).distinct().toArray(String[]::new);
+        }
+
+        private List<String> allTerms() {
+            List<String> all = new ArrayList<>(nameTerms.length + codeTerms.length + addressTerms.length);
+            for (String[] field : new String[][]{nameTerms, codeTerms, addressTerms}) {
+                for (String term : field) {
+                    if (!all.contains(term)) {
+                        all.add(term);
+                    }
+                }
+            }
+            return all;
+        }
+
+        private int score(String[] words) {
+            int total = 0;
+            for (String word : words) {
+                int best = 0;
+                for (String term : nameTerms) {
+                    best = Math.max(best, term.equals(word) ? NAME_EXACT : term.startsWith(word) ? NAME_PREFIX : 0);
+                }
+                for (String term : codeTerms) {
+                    best = Math.max(best, term.equals(word) ? CODE_EXACT : term.startsWith(word) ? CODE_PREFIX : 0);
+                }
+                if (best == 0) {
+                    best = ADDRESS;
+                }
+                total += best;
+            }
+            return total;
+        }
+    }
+
+    /** A sorted set of Customer IDs backed by an int array. */
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private Postings intersect(Postings other) {
+            Postings result = new Postings();
+            result.ids = new int[Math.max(1, Math.min(size, other.size))];
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (ids[i] < other.ids[j]) {
+                    i++;
+                } else if (ids[i] > other.ids[j]) {
+                    j++;
+                } else {
+                    result.ids[result.size++] = ids[i];
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package Services;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/** This class turns dates and times into the text the tables show, such as 2026-11-02 09:00.
+ * Appointments start and end on a few thousand distinct quarter hours, so the text of each one is formatted once
+ * and reused by every cell that shows it while a table scrolls. It is only used on the FX thread. */
+public class DateTimeText {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    /** The most formatted times kept before the cache is started over. */
+    private static final int MAX_CACHED = 8192;
+
+    private static final Map<LocalDateTime, String> formatted = new HashMap<>();
+
+    /** Gets the text of a date and time, formatting it only the first time it is asked for.
+     * @param dateTime The date and time.
+     * @return The formatted text. */
+    public static String format(LocalDateTime dateTime) {
+        String text = formatted.get(dateTime);
+        if (text == null) {
+            if (formatted.size() >= MAX_CACHED) {
+                formatted.clear();
+            }
+            text = FORMAT.format(dateTime);
+            formatted.put(dateTime, text);
+        }
+        return text;
+    }
+}
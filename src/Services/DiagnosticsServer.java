@@ -0,0 +1,71 @@
+package Services;
+
+import Database.DBConfig;
+import Database.QueryStats;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/** This class serves the diagnostics of the running app over HTTP on this computer only, so they can be read
+ * or collected by a script without opening the Diagnostics screen. It listens on the diagnostics.port setting,
+ * and is off unless that is set, so no port is opened on a desk that never asked for one.
+ * GET /queries is the query counts as text and /queries.json is the same counts as JSON,
+ * /stalls and /stalls.json are the freezes of the JavaFX Application Thread the FxWatchdog saw. */
+public class DiagnosticsServer {
+
+    private static HttpServer server;
+
+    /** This method starts serving. Calling it more than once has no effect. */
+    public static synchronized void start() {
+        int port = DBConfig.getInt("diagnostics.port", 0);
+        if (server != null || port == 0) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/queries", exchange -> send(exchange, "text/plain", QueryStats::toText));
+            server.createContext("/queries.json", exchange -> send(exchange, "application/json", QueryStats::toJson));
+            server.createContext("/stalls", exchange -> send(exchange, "text/plain", FxWatchdog::toText));
+            server.createContext("/stalls.json", exchange -> send(exchange, "application/json", FxWatchdog::toJson));
+            server.start();
+            System.out.println("Diagnostics at http://localhost:" + port + "/queries");
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            server = null;
+        }
+    }
+
+    /** @return The address diagnostics are served at, or null if they are not being served. */
+    public static synchronized String getAddress() {
+        return server == null ? null : "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /** This method stops serving. */
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static void send(HttpExchange exchange, String contentType, Supplier<String> body) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
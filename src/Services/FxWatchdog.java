@@ -0,0 +1,243 @@
+package Services;
+
+import Database.DBConfig;
+import javafx.application.Platform;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** This class watches the JavaFX Application Thread for freezes. A background thread posts a small task to the
+ * FX thread every 100 ms and measures how long it waits to run, which is how long any click or repaint would wait.
+ * While a task waits longer than the watchdog.thresholdMillis setting, 250 ms unless it is set, the FX thread's
+ * stack is sampled, and when it finally runs the freeze is put down to the outermost Controllers method on those
+ * stacks, the handler that was called, such as ViewToggle or initialize. Freezes are written to ui_stall_log.txt. */
+public class FxWatchdog {
+
+    private static final long PING_INTERVAL_MILLIS = 100;
+    private static final long SAMPLE_INTERVAL_MILLIS = 25;
+    private static final int MAX_STALLS = 50;
+    private static final int MAX_SAMPLES = 400;
+    private static final int STACK_DEPTH = 12;
+    private static final String STALL_LOG = "ui_stall_log.txt";
+
+    private static final long thresholdNanos = DBConfig.getInt("watchdog.thresholdMillis", 250) * 1_000_000L;
+
+    private static final Deque<Stall> stalls = new ArrayDeque<>();
+    private static final Map<String, long[]> stallsByHandler = new HashMap<>();
+    private static long pings;
+    private static long slowPings;
+    private static long maxLatencyNanos;
+    private static long totalLatencyNanos;
+
+    private static Thread watcher;
+
+    /** One freeze of the FX thread. */
+    private static final class Stall {
+        final LocalDateTime start;
+        final long millis;
+        final String handler;
+        final String hotFrame;
+        final List<String> stack;
+
+        Stall(LocalDateTime start, long millis, String handler, String hotFrame, List<String> stack) {
+            this.start = start;
+            this.millis = millis;
+            this.handler = handler;
+            this.hotFrame = hotFrame;
+            this.stack = stack;
+        }
+    }
+
+    /** This method starts watching. Calling it more than once has no effect.
+     * @param fxThread The JavaFX Application Thread. */
+    public static synchronized void start(Thread fxThread) {
+        if (watcher != null) {
+            return;
+        }
+        watcher = new Thread(() -> watch(fxThread), "fx-watchdog");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private static void watch(Thread fxThread) {
+        try {
+            while (true) {
+                long posted = System.nanoTime();
+                AtomicLong ran = new AtomicLong();
+                Platform.runLater(() -> ran.set(System.nanoTime()));
+
+                List<StackTraceElement[]> samples = new ArrayList<>();
+                LocalDateTime stallStart = null;
+                while (ran.get() == 0) {
+                    Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+                    if (System.nanoTime() - posted >= thresholdNanos && ran.get() == 0) {
+                        if (stallStart == null) {
+                            stallStart = LocalDateTime.now().minusNanos(System.nanoTime() - posted);
+                        }
+                        if (samples.size() < MAX_SAMPLES) {
+                            samples.add(fxThread.getStackTrace());
+                        }
+                    }
+                }
+
+                long latency = ran.get() - posted;
+                recordLatency(latency);
+                if (!samples.isEmpty()) {
+                    recordStall(stallStart, latency, samples);
+                }
+                Thread.sleep(PING_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IllegalStateException e) {
+            // The FX toolkit has exited, there is nothing left to watch.
+        }
+    }
+
+    private static synchronized void recordLatency(long nanos) {
+        pings++;
+        totalLatencyNanos += nanos;
+        maxLatencyNanos = Math.max(maxLatencyNanos, nanos);
+        if (nanos >= thresholdNanos) {
+            slowPings++;
+        }
+    }
+
+    private static void recordStall(LocalDateTime start, long nanos, List<StackTraceElement[]> samples) {
+        // The handler is the outermost Controllers frame, the hot frame is the top frame seen most often.
+        Map<String, Integer> handlers = new HashMap<>();
+        Map<String, Integer> hotFrames = new HashMap<>();
+        for (StackTraceElement[] sample : samples) {
+            String handler = null;
+            for (StackTraceElement frame : sample) {
+                if (frame.getClassName().startsWith("Controllers.")) {
+                    handler = frame.getClassName().substring("Controllers.".length()) + "." + frame.getMethodName();
+                }
+            }
+            handlers.merge(handler == null ? "(not in a controller)" : handler, 1, Integer::sum);
+            if (sample.length > 0) {
+                hotFrames.merge(sample[0].toString(), 1, Integer::sum);
+            }
+        }
+
+        List<String> stack = new ArrayList<>();
+        StackTraceElement[] last = samples.get(samples.size() - 1);
+        for (int i = 0; i < last.length && i < STACK_DEPTH; i++) {
+            stack.add(last[i].toString());
+        }
+        Stall stall = new Stall(start, nanos / 1_000_000, mostCommon(handlers), mostCommon(hotFrames), stack);
+
+        synchronized (FxWatchdog.class) {
+            stalls.addFirst(stall);
+            if (stalls.size() > MAX_STALLS) {
+                stalls.removeLast();
+            }
+            long[] total = stallsByHandler.computeIfAbsent(stall.handler, handler -> new long[2]);
+            total[0]++;
+            total[1] += stall.millis;
+        }
+
+        String line = stall.start.withNano(0) + " " + stall.millis + " ms in " + stall.handler + " at " + stall.hotFrame;
+        System.out.println("FX thread stall: " + line);
+        try (FileWriter fileWriter = new FileWriter(STALL_LOG, true)) {
+            fileWriter.write(line + "\n");
+            for (String frame : stall.stack) {
+                fileWriter.write("    " + frame + "\n");
+            }
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private static String mostCommon(Map<String, Integer> counts) {
+        String best = "-";
+        int bestCount = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > bestCount) {
+                best = entry.getKey();
+                bestCount = entry.getValue();
+            }
+        }
+        return best;
+    }
+
+    /** This method forgets every stall and latency so far. */
+    public static synchronized void reset() {
+        stalls.clear();
+        stallsByHandler.clear();
+        pings = 0;
+        slowPings = 0;
+        maxLatencyNanos = 0;
+        totalLatencyNanos = 0;
+    }
+
+    /** This method describes the FX thread latency and the latest stalls as text.
+     * @return The latency, the stalls per handler and the latest stalls, newest first. */
+    public static synchronized String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("FX thread latency: checks %d  mean %.1f ms  max %.1f ms  over %d ms: %d%n",
+                pings, pings == 0 ? 0 : totalLatencyNanos / 1e6 / pings, maxLatencyNanos / 1e6, thresholdNanos / 1_000_000, slowPings));
+        if (stalls.isEmpty()) {
+            return text.append("No stalls.\n").toString();
+        }
+
+        text.append("\nStalls by handler:\n");
+        stallsByHandler.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                .forEach(entry -> text.append(String.format("    %-50s %4d stalls %8d ms%n", entry.getKey(), entry.getValue()[0], entry.getValue()[1])));
+
+        text.append("\nLatest stalls:\n");
+        for (Stall stall : stalls) {
+            text.append(stall.start.withNano(0)).append("  ").append(stall.millis).append(" ms  ").append(stall.handler).append('\n');
+            for (String frame : stall.stack) {
+                text.append("        ").append(frame).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    /** This method describes the FX thread latency and the latest stalls as JSON.
+     * @return A JSON object with the latency, the stalls per handler and the latest stalls, newest first. */
+    public static synchronized String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"checks\": ").append(pings)
+                .append(", \"meanMillis\": ").append(String.format(Locale.ROOT, "%.3f", pings == 0 ? 0 : totalLatencyNanos / 1e6 / pings))
+                .append(", \"maxMillis\": ").append(String.format(Locale.ROOT, "%.3f", maxLatencyNanos / 1e6))
+                .append(", \"thresholdMillis\": ").append(thresholdNanos / 1_000_000)
+                .append(", \"overThreshold\": ").append(slowPings)
+                .append(",\n \"handlers\": {");
+        boolean first = true;
+        for (Map.Entry<String, long[]> entry : stallsByHandler.entrySet()) {
+            json.append(first ? "" : ", ").append('"').append(escape(entry.getKey())).append("\": {\"stalls\": ")
+                    .append(entry.getValue()[0]).append(", \"millis\": ").append(entry.getValue()[1]).append('}');
+            first = false;
+        }
+        json.append("},\n \"stalls\": [");
+        first = true;
+        for (Stall stall : stalls) {
+            json.append(first ? "\n  " : ",\n  ").append("{\"start\": \"").append(stall.start.withNano(0))
+                    .append("\", \"millis\": ").append(stall.millis)
+                    .append(", \"handler\": \"").append(escape(stall.handler))
+                    .append("\", \"stack\": [");
+            for (int i = 0; i < stall.stack.size(); i++) {
+                json.append(i == 0 ? "" : ", ").append('"').append(escape(stall.stack.get(i))).append('"');
+            }
+            json.append("]}");
+            first = false;
+        }
+        return json.append("\n ]}\n").toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
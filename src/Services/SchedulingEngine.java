@@ -0,0 +1,200 @@
+package Services;
+
+import Models.Appointment;
+import Models.AppointmentSeries;
+import Models.AppointmentStore;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.collections.ObservableList;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** This class finds the earliest times a contact, a customer and a user are all free for an appointment of a given length.
+ * The appointments of each contact, customer and user are kept as a sorted array of busy ranges, merged from the rows
+ * the AppointmentStore has indexed by start for that one, the first time it is asked about. The occurrences of their
+ * recurring appointments are built for the searched days only, into one more array. A search walks the business hours
+ * day by day and sweeps the arrays together, so it never queries the database or scans every appointment per candidate time. */
+public class SchedulingEngine {
+
+    private final AppointmentStore appointments;
+    private final List<AppointmentSeries> series;
+    private final Map<Integer, long[]> busyByContact = new HashMap<>();
+    private final Map<Integer, long[]> busyByCustomer = new HashMap<>();
+    private final Map<Integer, long[]> busyByUser = new HashMap<>();
+
+    /** Series ID of a recurring appointment that does not keep its times busy, or 0. */
+    private int ignoredSeriesId;
+
+    /** Forgets the busy ranges as soon as an appointment is added, changed or removed. */
+    private final InvalidationListener clearOnChange = observable -> {
+        busyByContact.clear();
+        busyByCustomer.clear();
+        busyByUser.clear();
+    };
+
+    /** @param appointments The cached appointments to schedule around. */
+    public SchedulingEngine(AppointmentStore appointments) {
+        this(appointments, null);
+    }
+
+    /** @param appointments The cached appointments to schedule around.
+     * @param series The cached recurring appointments to schedule around, or null for none. */
+    public SchedulingEngine(AppointmentStore appointments, ObservableList<AppointmentSeries> series) {
+        this.appointments = appointments;
+        this.series = series == null ? List.of() : series;
+        appointments.addListener(new WeakInvalidationListener(clearOnChange));
+    }
+
+    /** Leaves a recurring appointment out, such as the one being edited.
+     * @param seriesId Int value of Series ID, or 0 for none */
+    public void ignoreSeries(int seriesId) {
+        ignoredSeriesId = seriesId;
+    }
+
+    /** This method finds the earliest free times for an appointment between a contact, a customer and a user.
+     * Times start on the quarter hour, fall within business hours, and do not overlap any appointment of any of them.
+     * Within a long free stretch the times follow one another back to back.
+     * @param contactId Int value of Contact ID
+     * @param customerId Int value of Customer ID
+     * @param userId Int value of User ID
+     * @param length Duration of the appointment
+     * @param from LocalDateTime in the user's time zone to search from
+     * @param days Number of days to search, starting with the date of from
+     * @param limit The most times to return
+     * @return List of free times, earliest first */
+    public List<TimeSlot> findFreeSlots(int contactId, int customerId, int userId, Duration length, LocalDateTime from, int days, int limit) {
+        List<TimeSlot> slots = new ArrayList<>();
+        long lengthSeconds = length.getSeconds();
+        if (lengthSeconds <= 0 || limit <= 0) {
+            return slots;
+        }
+
+        long[][] busy = {
+                busyByContact.computeIfAbsent(contactId, id -> buildIndex(AppointmentStore.Attendee.CONTACT, id)),
+                busyByCustomer.computeIfAbsent(customerId, id -> buildIndex(AppointmentStore.Attendee.CUSTOMER, id)),
+                busyByUser.computeIfAbsent(userId, id -> buildIndex(AppointmentStore.Attendee.USER, id)),
+                // An occurrence that starts the day before can run into the first day.
+                seriesBusy(contactId, customerId, userId, from.toLocalDate().minusDays(1), from.toLocalDate().plusDays(days))};
+        long earliest = AppointmentStore.toSeconds(from);
+        long step = SlotGenerator.SLOT_MINUTES * 60L;
+
+        // Every array only moves forward, the search never looks at a busy range twice.
+        int[] next = new int[busy.length];
+        for (int b = 0; b < busy.length; b++) {
+            next[b] = firstEndingAfter(busy[b], earliest);
+        }
+
+        LocalDate date = from.toLocalDate();
+        for (int day = 0; day < days && slots.size() < limit; day++, date = date.plusDays(1)) {
+            for (TimeSlot hours : BusinessHours.getBusinessHours(date)) {
+                long close = AppointmentStore.toSeconds(hours.getEnd());
+                long cursor = Math.max(AppointmentStore.toSeconds(hours.getStart()), earliest);
+                cursor = roundUp(cursor, step);
+
+                while (cursor + lengthSeconds <= close && slots.size() < limit) {
+                    long nextBusy = Long.MAX_VALUE;
+                    long busyEnd = cursor;
+                    for (int b = 0; b < busy.length; b++) {
+                        long[] ranges = busy[b];
+                        while (next[b] < ranges.length && ranges[next[b] + 1] <= cursor) {
+                            next[b] += 2;
+                        }
+                        if (next[b] < ranges.length) {
+                            nextBusy = Math.min(nextBusy, ranges[next[b]]);
+                            if (ranges[next[b]] <= cursor) {
+                                busyEnd = Math.max(busyEnd, ranges[next[b] + 1]);
+                            }
+                        }
+                    }
+
+                    if (nextBusy <= cursor) {
+                        // The cursor is inside a busy range, jump to its end.
+                        cursor = roundUp(busyEnd, step);
+                    } else if (cursor + lengthSeconds <= nextBusy) {
+                        slots.add(new TimeSlot(AppointmentStore.toDateTime(cursor), AppointmentStore.toDateTime(cursor + lengthSeconds)));
+                        cursor += lengthSeconds;
+                    } else {
+                        cursor = roundUp(nextBusy, step);
+                    }
+                }
+            }
+        }
+        return slots;
+    }
+
+    /** Merges the busy ranges of a contact, a customer or a user from its rows in the store, which come sorted by start.
+     * @param attendee Whether id is a Contact ID, Customer ID or User ID
+     * @param id The ID
+     * @return Array of start, end pairs in seconds, see AppointmentStore.toSeconds */
+    private long[] buildIndex(AppointmentStore.Attendee attendee, int id) {
+        int[] rows = appointments.getRowsByStart(attendee, id);
+        long[] busy = new long[rows.length * 2];
+        int size = 0;
+        for (int row : rows) {
+            size = addRange(busy, size, appointments.getStartSeconds(row), appointments.getEndSeconds(row));
+        }
+        return Arrays.copyOf(busy, size);
+    }
+
+    /** Merges the busy ranges of the occurrences, on a range of dates, of the recurring appointments a contact,
+     * a customer or a user has.
+     * @param from LocalDate the range starts on.
+     * @param to LocalDate the range ends on, included.
+     * @return Array of start, end pairs in seconds, see AppointmentStore.toSeconds */
+    private long[] seriesBusy(int contactId, int customerId, int userId, LocalDate from, LocalDate to) {
+        List<long[]> ranges = new ArrayList<>();
+        for (AppointmentSeries recurring : series) {
+            if (recurring.getSeriesId() != ignoredSeriesId && recurring.sharesAttendee(customerId, contactId, userId)) {
+                for (Appointment occurrence : recurring.getOccurrences(from, to)) {
+                    ranges.add(new long[]{AppointmentStore.toSeconds(occurrence.getStartTime()), AppointmentStore.toSeconds(occurrence.getEndTime())});
+                }
+            }
+        }
+        ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        long[] busy = new long[ranges.size() * 2];
+        int size = 0;
+        for (long[] range : ranges) {
+            size = addRange(busy, size, range[0], range[1]);
+        }
+        return Arrays.copyOf(busy, size);
+    }
+
+    /** Adds a range that starts no earlier than the last one, joining it to the last one if they overlap or touch.
+     * @return The new size of the array. */
+    private static int addRange(long[] busy, int size, long start, long end) {
+        if (size > 0 && start <= busy[size - 1]) {
+            busy[size - 1] = Math.max(busy[size - 1], end);
+            return size;
+        }
+        busy[size] = start;
+        busy[size + 1] = end;
+        return size + 2;
+    }
+
+    /** Finds the first busy range that ends after a time with a binary search over the sorted, merged ranges. */
+    private static int firstEndingAfter(long[] busy, long time) {
+        int low = 0;
+        int high = busy.length / 2;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (busy[middle * 2 + 1] <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low * 2;
+    }
+
+    private static long roundUp(long seconds, long step) {
+        return Math.floorDiv(seconds + step - 1, step) * step;
+    }
+}
@@ -0,0 +1,186 @@
+package Services;
+
+import Models.Appointment;
+import Models.AppointmentSeries;
+import Models.AppointmentStore;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.collections.ObservableList;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** This class works out the times a contact, a customer and a user are all free within business hours on a date,
+ * in the user's time zone, from the cached appointments and the occurrences of the recurring appointments on that date.
+ * The free time of each date, contact, customer and user is kept until the cached appointments or the recurring
+ * appointments change, so picking times for the same day again does no work. */
+public class SlotGenerator {
+
+    /** Appointments start and end on multiples of this many minutes. */
+    public static final int SLOT_MINUTES = 15;
+
+    private final AppointmentStore appointments;
+    private final List<AppointmentSeries> series;
+    private final Map<String, List<TimeSlot>> freeTimeByDay = new HashMap<>();
+
+    /** Series ID of a recurring appointment that does not keep its times busy, or 0. */
+    private int ignoredSeriesId;
+
+    /** Forgets the free time as soon as an appointment or a recurring appointment is added, changed or removed. */
+    private final InvalidationListener clearOnChange = observable -> freeTimeByDay.clear();
+
+    /** @param appointments The cached appointments to schedule around. */
+    public SlotGenerator(AppointmentStore appointments) {
+        this(appointments, null);
+    }
+
+    /** @param appointments The cached appointments to schedule around.
+     * @param series The cached recurring appointments to schedule around, or null for none. */
+    public SlotGenerator(AppointmentStore appointments, ObservableList<AppointmentSeries> series) {
+        this.appointments = appointments;
+        this.series = series == null ? List.of() : series;
+        // Weak so a generator made for one window is not kept alive by the cache after the window closes.
+        appointments.addListener(new WeakInvalidationListener(clearOnChange));
+        if (series != null) {
+            series.addListener(new WeakInvalidationListener(clearOnChange));
+        }
+    }
+
+    /** Leaves a recurring appointment out, such as the one being edited.
+     * @param seriesId Int value of Series ID, or 0 for none */
+    public void ignoreSeries(int seriesId) {
+        ignoredSeriesId = seriesId;
+        freeTimeByDay.clear();
+    }
+
+    /** This method returns the free time of a contact, a customer and a user on a date: business hours less every appointment and occurrence of a recurring appointment any of them has.
+     * @param date LocalDate in the user's time zone
+     * @param contactId Int value of Contact ID
+     * @param customerId Int value of Customer ID
+     * @param userId Int value of User ID
+     * @param ignoredAppointmentId Int value of an Appointment ID to leave out, such as the appointment being edited, or 0
+     * @return List of free time on the date, earliest first */
+    public List<TimeSlot> getFreeTime(LocalDate date, int contactId, int customerId, int userId, int ignoredAppointmentId) {
+        String key = date + "/" + contactId + "/" + customerId + "/" + userId + "/" + ignoredAppointmentId;
+        List<TimeSlot> free = freeTimeByDay.get(key);
+        if (free == null) {
+            free = computeFreeTime(date, contactId, customerId, userId, ignoredAppointmentId);
+            freeTimeByDay.put(key, free);
+        }
+        return free;
+    }
+
+    /** This method returns every start time on a date where an appointment of at least one slot fits.
+     * @param date LocalDate in the user's time zone
+     * @param contactId Int value of Contact ID
+     * @param customerId Int value of Customer ID
+     * @param userId Int value of User ID
+     * @param ignoredAppointmentId Int value of an Appointment ID to leave out, or 0
+     * @return List of start times, earliest first */
+    public List<LocalTime> getStartTimes(LocalDate date, int contactId, int customerId, int userId, int ignoredAppointmentId) {
+        List<LocalTime> times = new ArrayList<>();
+        for (TimeSlot free : getFreeTime(date, contactId, customerId, userId, ignoredAppointmentId)) {
+            for (LocalDateTime start = roundUp(free.getStart()); !start.plusMinutes(SLOT_MINUTES).isAfter(free.getEnd()); start = start.plusMinutes(SLOT_MINUTES)) {
+                if (start.toLocalDate().equals(date)) {
+                    times.add(start.toLocalTime());
+                }
+            }
+        }
+        return times;
+    }
+
+    /** This method returns every end time on a date for an appointment that starts at a time, up to the next appointment or closing.
+     * @param date LocalDate in the user's time zone
+     * @param start LocalTime the appointment starts at
+     * @param contactId Int value of Contact ID
+     * @param customerId Int value of Customer ID
+     * @param userId Int value of User ID
+     * @param ignoredAppointmentId Int value of an Appointment ID to leave out, or 0
+     * @return List of end times, earliest first, empty if the start time is not free */
+    public List<LocalTime> getEndTimes(LocalDate date, LocalTime start, int contactId, int customerId, int userId, int ignoredAppointmentId) {
+        List<LocalTime> times = new ArrayList<>();
+        LocalDateTime startTime = date.atTime(start);
+        for (TimeSlot free : getFreeTime(date, contactId, customerId, userId, ignoredAppointmentId)) {
+            if (!startTime.isBefore(free.getStart()) && startTime.isBefore(free.getEnd())) {
+                for (LocalDateTime end = startTime.plusMinutes(SLOT_MINUTES); !end.isAfter(free.getEnd()) && end.toLocalDate().equals(date); end = end.plusMinutes(SLOT_MINUTES)) {
+                    times.add(end.toLocalTime());
+                }
+                break;
+            }
+        }
+        return times;
+    }
+
+    private List<TimeSlot> computeFreeTime(LocalDate date, int contactId, int customerId, int userId, int ignoredAppointmentId) {
+        long dayStart = AppointmentStore.toSeconds(date.atStartOfDay());
+        long dayEnd = AppointmentStore.toSeconds(date.plusDays(1).atStartOfDay());
+
+        // Collect the appointments of the contact, the customer or the user that touch the date from the store's index, sorted by start.
+        // An appointment of two of them is collected twice, which the walk below does not mind.
+        int[][] rows = {
+                appointments.findOverlapping(AppointmentStore.Attendee.CONTACT, contactId, dayStart, dayEnd),
+                appointments.findOverlapping(AppointmentStore.Attendee.CUSTOMER, customerId, dayStart, dayEnd),
+                appointments.findOverlapping(AppointmentStore.Attendee.USER, userId, dayStart, dayEnd)};
+        long[][] busy = new long[rows[0].length + rows[1].length + rows[2].length + 8][];
+        int count = 0;
+        for (int[] attendeeRows : rows) {
+            for (int row : attendeeRows) {
+                if (appointments.getAppointmentId(row) != ignoredAppointmentId) {
+                    busy[count++] = new long[]{appointments.getStartSeconds(row), appointments.getEndSeconds(row)};
+                }
+            }
+        }
+        // An occurrence that starts the day before can run past midnight.
+        for (AppointmentSeries recurring : series) {
+            if (recurring.getSeriesId() != ignoredSeriesId && recurring.sharesAttendee(customerId, contactId, userId)) {
+                for (Appointment occurrence : recurring.getOccurrences(date.minusDays(1), date)) {
+                    long start = AppointmentStore.toSeconds(occurrence.getStartTime());
+                    long end = AppointmentStore.toSeconds(occurrence.getEndTime());
+                    if (start < dayEnd && dayStart < end) {
+                        if (count == busy.length) {
+                            busy = Arrays.copyOf(busy, count * 2);
+                        }
+                        busy[count++] = new long[]{start, end};
+                    }
+                }
+            }
+        }
+        Arrays.sort(busy, 0, count, (a, b) -> Long.compare(a[0], b[0]));
+
+        // Walk business hours and the busy times together, keeping the gaps.
+        List<TimeSlot> free = new ArrayList<>();
+        int next = 0;
+        for (TimeSlot hours : BusinessHours.getBusinessHours(date)) {
+            long cursor = AppointmentStore.toSeconds(hours.getStart());
+            long close = AppointmentStore.toSeconds(hours.getEnd());
+            while (next < count && busy[next][1] <= cursor) {
+                next++;
+            }
+            for (int i = next; i < count && busy[i][0] < close; i++) {
+                if (busy[i][0] > cursor) {
+                    free.add(new TimeSlot(AppointmentStore.toDateTime(cursor), AppointmentStore.toDateTime(busy[i][0])));
+                }
+                cursor = Math.max(cursor, busy[i][1]);
+            }
+            if (cursor < close) {
+                free.add(new TimeSlot(AppointmentStore.toDateTime(cursor), AppointmentStore.toDateTime(close)));
+            }
+        }
+        return free;
+    }
+
+    private static LocalDateTime roundUp(LocalDateTime time) {
+        LocalDateTime minute = time.withSecond(0).withNano(0);
+        if (minute.isBefore(time)) {
+            minute = minute.plusMinutes(1);
+        }
+        int remainder = minute.getMinute() % SLOT_MINUTES;
+        return remainder == 0 ? minute : minute.plusMinutes(SLOT_MINUTES - remainder);
+    }
+}
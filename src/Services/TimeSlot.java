@@ -0,0 +1,65 @@
+package Services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+/** This class is an immutable range of time in the user's time zone, from its start up to but not including its end. */
+public final class TimeSlot {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    /** @param start LocalDateTime start of the slot
+     * @param end LocalDateTime end of the slot, after start */
+    public TimeSlot(LocalDateTime start, LocalDateTime end) {
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("A time slot must end after it starts: " + start + " - " + end);
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    /** Gets the start of the slot.
+     * @return start LocalDateTime start of the slot */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /** Gets the end of the slot.
+     * @return end LocalDateTime end of the slot */
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /** Gets the length of the slot.
+     * @return Duration from start to end */
+    public Duration getDuration() {
+        return Duration.between(start, end);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TimeSlot)) {
+            return false;
+        }
+        TimeSlot that = (TimeSlot) other;
+        return start.equals(that.start) && end.equals(that.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return start.toLocalDate() + " " + start.format(TIME) + " - " + end.format(TIME);
+    }
+}
@@ -0,0 +1,179 @@
+package Models;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** This class tests the change events of AppointmentView. Every event the view fires is replayed on a copy of the view,
+ * as the TableView and its selection replay them, and the copy has to end up the same as the view, which has to be
+ * the rows of the store in the range, sorted by title and then start. */
+class AppointmentViewTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 3, 2, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2026, 3, 9, 0, 0);
+
+    private static final Comparator<Appointment> BY_TITLE_AND_START =
+            Comparator.comparing(Appointment::getTitle).thenComparing(Appointment::getStartTime);
+
+    private AppointmentStore store;
+    private List<Appointment> occurrences;
+    private AppointmentView view;
+    private List<Appointment> replayed;
+    private int events;
+    private boolean permutated;
+
+    @BeforeEach
+    void setUp() {
+        store = new AppointmentStore();
+        store.add(appointment(1, "Delta", FROM.plusDays(1)));
+        store.add(appointment(2, "Alpha", FROM.minusDays(3)));
+        store.add(appointment(3, "Bravo", FROM.plusDays(2)));
+        store.add(appointment(4, "Echo", TO.plusDays(1)));
+        store.add(appointment(5, "Alpha", FROM.plusDays(4)));
+        occurrences = List.of(appointment(100, "Charlie", FROM.plusDays(3)), appointment(100, "Charlie", TO.plusDays(4)));
+
+        view = new AppointmentView(store, occurrences, FROM, TO);
+        view.setOrder(view.comparing(AppointmentView.Column.TITLE).thenComparing(view.comparing(AppointmentView.Column.START)));
+        replayed = new ArrayList<>(view);
+        view.addListener(this::replay);
+        assertShown();
+    }
+
+    @Test
+    void rowsOutsideTheRangeFireNoChange() {
+        store.add(0, appointment(6, "Alpha", TO.plusDays(2)));
+        store.remove(store.indexOfId(2));
+        store.set(store.indexOfId(4), appointment(4, "Foxtrot", TO.plusDays(3)));
+
+        assertEquals(0, events);
+        assertShown();
+    }
+
+    @Test
+    void addedRowsInTheRangeAreMergedIntoPlace() {
+        store.add(0, appointment(6, "Charlie", FROM.plusDays(5)));
+        store.addAll(List.of(appointment(7, "Alpha", FROM), appointment(8, "Echo", TO.plusDays(5)), appointment(9, "Zulu", FROM.plusHours(1))));
+
+        assertEquals(2, events);
+        assertShown();
+    }
+
+    @Test
+    void removedRowsReportTheRemovedAppointments() {
+        store.remove(store.indexOfId(3));
+        store.removeIf(appointment -> appointment.getTitle().equals("Alpha"));
+
+        assertEquals(2, events);
+        assertShown();
+    }
+
+    @Test
+    void setAllReportsTheRemovedAndAddedRowsInOneChange() {
+        store.setAll(appointment(1, "Delta", FROM.plusDays(1)), appointment(10, "Alpha", FROM.plusDays(6)), appointment(11, "Echo", TO));
+
+        assertEquals(1, events);
+        assertShown();
+    }
+
+    @Test
+    void setMovesARowToItsNewPlace() {
+        store.set(store.indexOfId(1), appointment(1, "Able", FROM.plusDays(1)));
+        assertShown();
+
+        // Out of the range, and back into it.
+        store.set(store.indexOfId(3), appointment(3, "Bravo", TO.plusDays(1)));
+        assertShown();
+        store.set(store.indexOfId(4), appointment(4, "Echo", FROM));
+        assertShown();
+
+        assertEquals(3, events);
+    }
+
+    @Test
+    void setOrderReportsAPermutation() {
+        view.setOrder(view.comparing(AppointmentView.Column.START).reversed());
+
+        assertEquals(1, events);
+        assertTrue(permutated);
+        assertEquals(replayed, new ArrayList<>(view));
+        for (int i = 1; i < view.size(); i++) {
+            assertFalse(view.get(i).getStartTime().isAfter(view.get(i - 1).getStartTime()));
+        }
+    }
+
+    @Test
+    void indexOfIdFollowsTheChanges() {
+        store.add(0, appointment(6, "Alpha", FROM.plusHours(2)));
+        store.remove(store.indexOfId(2));
+        view.setOrder(view.comparing(AppointmentView.Column.START));
+        store.set(store.indexOfId(5), appointment(5, "Alpha", TO.plusDays(1)));
+
+        for (int i = 0; i < view.size(); i++) {
+            if (view.get(i).getAppointmentId() != 100) {
+                assertEquals(i, view.indexOfId(view.get(i).getAppointmentId()));
+            }
+        }
+        assertEquals(-1, view.indexOfId(4));
+        assertEquals(-1, view.indexOfId(5));
+        assertEquals(-1, view.indexOfId(2));
+    }
+
+    /** Applies a change to the copy the way a TableView does, checking the removed Appointments are the ones it had. */
+    private void replay(ListChangeListener.Change<? extends Appointment> change) {
+        events++;
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                permutated = true;
+                Appointment[] moved = new Appointment[replayed.size()];
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    moved[change.getPermutation(i)] = replayed.get(i);
+                }
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    replayed.set(i, moved[i]);
+                }
+                continue;
+            }
+            List<Appointment> removed = replayed.subList(change.getFrom(), change.getFrom() + change.getRemovedSize());
+            assertEquals(change.getRemoved(), new ArrayList<>(removed));
+            removed.clear();
+            replayed.addAll(change.getFrom(), change.getAddedSubList());
+        }
+    }
+
+    /** Checks the view shows the rows and occurrences in the range in order, and the events brought the copy to the same rows. */
+    private void assertShown() {
+        List<Appointment> expected = new ArrayList<>();
+        for (Appointment appointment : store) {
+            if (inRange(appointment)) {
+                expected.add(appointment);
+            }
+        }
+        for (Appointment occurrence : occurrences) {
+            if (inRange(occurrence)) {
+                expected.add(occurrence);
+            }
+        }
+        expected.sort(BY_TITLE_AND_START);
+
+        assertEquals(expected, new ArrayList<>(view));
+        assertEquals(expected, replayed);
+    }
+
+    private static boolean inRange(Appointment appointment) {
+        return !appointment.getStartTime().isBefore(FROM) && appointment.getStartTime().isBefore(TO);
+    }
+
+    private static Appointment appointment(int appointmentId, String title, LocalDateTime start) {
+        return new Appointment(appointmentId, title, "Description", "Location", "Planning Session",
+                start, start.plusHours(1), 1, 1, 1, null);
+    }
+}